@@ -0,0 +1,42 @@
+package com.quizsystem.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.util.concurrent.Callable;
+
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    private static final String REPORT_EXPORT = "/api/admin/reports/test/*/export";
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    @Value("${quiz.reports.export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
+
+    // Report exports stream for longer than spring.mvc.async.request-timeout, so their path gets its own limit.
+    // Interceptors run on the async request after the default timeout is applied and before async starts.
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+                if (request instanceof AsyncWebRequest asyncRequest && servletRequest != null
+                        && PATHS.match(REPORT_EXPORT, URL_PATH_HELPER.getPathWithinApplication(servletRequest))) {
+                    asyncRequest.setTimeout(exportTimeoutMs);
+                }
+            }
+        });
+    }
+}
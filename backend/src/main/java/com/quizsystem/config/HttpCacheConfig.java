@@ -0,0 +1,26 @@
+package com.quizsystem.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class HttpCacheConfig {
+
+    // Content-hash ETags for JSON reads without a cheaper validator; they save bandwidth, not work.
+    // Endpoints that set their own ETag (tests, versions, catalog, certificates, attempts, leaderboards)
+    // are left alone, as they answer If-None-Match before rendering.
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(
+                "/api/courses",
+                "/api/courses/*",
+                "/api/certificates/my",
+                "/api/certificates/verify/*");
+        registration.setName("shallowEtagHeaderFilter");
+        return registration;
+    }
+}
@@ -1,23 +1,41 @@
 package com.quizsystem.controller;
 
 import com.quizsystem.dto.AIGenerateRequest;
+import com.quizsystem.dto.AnalyticsReport;
+import com.quizsystem.dto.CursorPage;
+import com.quizsystem.dto.DashboardSeries;
+import com.quizsystem.dto.DashboardStats;
+import com.quizsystem.dto.ItemAnalysisReport;
+import com.quizsystem.dto.RegradeJobResponse;
+import com.quizsystem.dto.TestScoreStats;
 import com.quizsystem.dto.UserResponse;
 import com.quizsystem.model.Test;
 import com.quizsystem.model.TestAttempt;
 import com.quizsystem.model.User;
 import com.quizsystem.repository.UserRepository;
 import com.quizsystem.service.AIService;
+import com.quizsystem.service.AnalyticsService;
+import com.quizsystem.service.DashboardService;
+import com.quizsystem.service.ItemAnalysisService;
+import com.quizsystem.service.RegradeService;
+import com.quizsystem.service.ReportExportService;
 import com.quizsystem.service.TestAttemptService;
 import com.quizsystem.service.TestService;
+import com.quizsystem.service.TestStatisticsService;
 import com.quizsystem.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -31,11 +49,25 @@ public class AdminController {
     private final TestAttemptService attemptService;
     private final UserRepository userRepository;
     private final AIService aiService;
+    private final RegradeService regradeService;
+    private final ReportExportService reportExportService;
+    private final TestStatisticsService testStatisticsService;
+    private final ItemAnalysisService itemAnalysisService;
+    private final DashboardService dashboardService;
+    private final AnalyticsService analyticsService;
 
     
     @GetMapping("/tests")
-    public ResponseEntity<List<Test>> getAllTests() {
-        return ResponseEntity.ok(testService.getAllTests());
+    public ResponseEntity<CursorPage<Test>> getTests(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(testService.getTests(cursor, limit, includeTotal));
+    }
+
+    @GetMapping("/tests/{id}")
+    public ResponseEntity<Test> getTest(@PathVariable String id) {
+        return ResponseEntity.ok(testService.getTestById(id));
     }
 
     @PostMapping("/tests")
@@ -56,10 +88,23 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/tests/{id}/regrade")
+    public ResponseEntity<RegradeJobResponse> regradeTest(@PathVariable String id) {
+        return ResponseEntity.accepted().body(regradeService.startRegrade(id));
+    }
+
+    @GetMapping("/regrade-jobs/{jobId}")
+    public ResponseEntity<RegradeJobResponse> getRegradeJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(regradeService.getJob(jobId));
+    }
+
     
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPage<UserResponse>> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(userService.getUsers(cursor, limit, includeTotal));
     }
 
     @DeleteMapping("/users/{id}")
@@ -77,46 +122,99 @@ public class AdminController {
     }
 
     
+    // Totals come from the in-memory per-test statistics; attempts are the first page, the rest via /attempts?cursor=
     @GetMapping("/reports/test/{id}")
-    public ResponseEntity<Map<String, Object>> getTestReport(@PathVariable String id) {
+    public ResponseEntity<Map<String, Object>> getTestReport(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer limit) {
         Test test = testService.getTestById(id);
-        List<TestAttempt> attempts = attemptService.getTestAttempts(id);
+        double passingScore = test.getPassingScore() != null ? test.getPassingScore() : 0;
+        TestScoreStats stats = testStatisticsService.getStats(id, passingScore);
+        CursorPage<TestAttempt> attempts = attemptService.getTestAttempts(id, null, limit, false);
 
         Map<String, Object> report = new HashMap<>();
         report.put("test", test);
-        report.put("totalAttempts", attempts.size());
-
-        if (!attempts.isEmpty()) {
-            double avgScore = attempts.stream()
-                    .filter(a -> a.getScore() != null)
-                    .mapToDouble(TestAttempt::getScore)
-                    .average()
-                    .orElse(0.0);
-
-            long passed = attempts.stream()
-                    .filter(a -> a.getScore() != null && a.getScore() >= test.getPassingScore())
-                    .count();
-
-            report.put("averageScore", avgScore);
-            report.put("passedCount", passed);
-            report.put("passRate", (double) passed / attempts.size() * 100);
+        report.put("totalAttempts", stats.getAttempts());
+        report.put("scoreStats", stats);
+
+        if (stats.getAttempts() > 0) {
+            report.put("averageScore", stats.getAverageScore());
+            report.put("passedCount", stats.getPassedCount());
+            report.put("passRate", stats.getPassRate());
         }
 
-        report.put("attempts", attempts);
+        report.put("attempts", attempts.getItems());
+        report.put("attemptsCursor", attempts.getNextCursor());
         return ResponseEntity.ok(report);
     }
 
+    @GetMapping("/reports/test/{id}/attempts")
+    public ResponseEntity<CursorPage<TestAttempt>> getTestReportAttempts(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(attemptService.getTestAttempts(id, cursor, limit, includeTotal));
+    }
+
+    // Per-question difficulty, discrimination and choice picks for one version (the current one by default)
+    @GetMapping("/reports/test/{id}/items")
+    public ResponseEntity<ItemAnalysisReport> getItemAnalysis(
+            @PathVariable String id,
+            @RequestParam(required = false) String versionId) {
+        return ResponseEntity.ok(itemAnalysisService.analyze(id, versionId));
+    }
+
+    // Full result set as CSV or NDJSON, streamed from a Mongo cursor; ?format=csv|ndjson
+    @GetMapping("/reports/test/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportTestReport(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "csv") String format) {
+        ReportExportService.Format exportFormat = ReportExportService.Format.parse(format);
+        StreamingResponseBody body = reportExportService.export(id, exportFormat);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("test-" + id + "-attempts." + exportFormat.getExtension()).build().toString())
+                .body(body);
+    }
+
+    // Served from maintained counters, no collection is read
     @GetMapping("/reports/dashboard")
-    public ResponseEntity<Map<String, Object>> getDashboardStats() {
-        List<UserResponse> users = userService.getAllUsers();
-        List<Test> tests = testService.getAllTests();
+    public ResponseEntity<DashboardStats> getDashboardStats() {
+        return ResponseEntity.ok(dashboardService.getStats());
+    }
 
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalUsers", users.size());
-        stats.put("totalTests", tests.size());
-        stats.put("publishedTests", tests.stream().filter(Test::getPublished).count());
+    // Per-minute snapshots of the dashboard counters; ?minutes= how far back
+    @GetMapping("/reports/dashboard/series")
+    public ResponseEntity<DashboardSeries> getDashboardSeries(@RequestParam(required = false) Integer minutes) {
+        return ResponseEntity.ok(dashboardService.getSeries(minutes));
+    }
+
+    // Approximate analytics from per-day sketches; ?from=&to= are ISO dates, both default to today
+    @GetMapping("/analytics/tests/{id}")
+    public ResponseEntity<AnalyticsReport> getTestAnalytics(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getTestReport(id, from, to));
+    }
+
+    @GetMapping("/analytics/courses/{id}")
+    public ResponseEntity<AnalyticsReport> getCourseAnalytics(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getCourseReport(id, from, to));
+    }
 
-        return ResponseEntity.ok(stats);
+    // Over all tests: distinct active users and score percentiles
+    @GetMapping("/analytics/users")
+    public ResponseEntity<AnalyticsReport> getGlobalAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getGlobalReport(from, to));
     }
 
     @PostMapping("/ai/generate")
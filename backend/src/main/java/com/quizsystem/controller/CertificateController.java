@@ -5,7 +5,9 @@ import com.quizsystem.model.User;
 import com.quizsystem.repository.UserRepository;
 import com.quizsystem.service.CertificateService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -14,12 +16,15 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/certificates")
 @RequiredArgsConstructor
 public class CertificateController {
 
+    private static final CacheControl DOWNLOAD_CACHE = CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic();
+
     private final CertificateService certificateService;
     private final UserRepository userRepository;
 
@@ -38,7 +43,15 @@ public class CertificateController {
     }
 
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadCertificate(@PathVariable String id) {
+    public ResponseEntity<byte[]> downloadCertificate(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // An issued certificate never changes, so a cached copy is answered before rendering anything,
+        // but only for an id that exists: the tag is predictable and the answer is publicly cacheable
+        String etag = ETags.of("cert", id);
+        if (ETags.matches(ifNoneMatch, etag) && certificateService.certificateExists(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(DOWNLOAD_CACHE).build();
+        }
         byte[] pdfBytes = certificateService.generateCertificatePdf(id);
 
         HttpHeaders headers = new HttpHeaders();
@@ -47,6 +60,8 @@ public class CertificateController {
 
         return ResponseEntity.ok()
                 .headers(headers)
+                .eTag(etag)
+                .cacheControl(DOWNLOAD_CACHE)
                 .body(pdfBytes);
     }
 
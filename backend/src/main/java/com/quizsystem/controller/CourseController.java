@@ -1,8 +1,9 @@
 package com.quizsystem.controller;
 
+import com.quizsystem.dto.CursorPage;
+import com.quizsystem.dto.TestSummary;
 import com.quizsystem.model.Course;
 import com.quizsystem.model.CourseProgress;
-import com.quizsystem.model.Test;
 import com.quizsystem.model.User;
 import com.quizsystem.repository.UserRepository;
 import com.quizsystem.service.CourseService;
@@ -28,19 +29,23 @@ public class CourseController {
     private final UserRepository userRepository;
 
     @GetMapping
-    public ResponseEntity<List<Course>> getAllPublishedCourses() {
-        return ResponseEntity.ok(courseService.getAllPublishedCourses());
+    public ResponseEntity<CursorPage<Course>> getPublishedCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(courseService.getPublishedCourses(cursor, limit, includeTotal));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Map<String, Object>> getCourseById(@PathVariable String id) {
         Course course = courseService.getCourseById(id);
 
-        List<Test> courseTests = new ArrayList<>();
+        // Summaries only: questions (and their answers) are delivered through attempts
+        List<TestSummary> courseTests = new ArrayList<>();
         if (course.getTestIds() != null) {
             for (String testId : course.getTestIds()) {
                 try {
-                    courseTests.add(testService.getTestById(testId));
+                    courseTests.add(TestSummary.of(testService.getTestById(testId)));
                 } catch (Exception ignored) {}
             }
         }
@@ -52,8 +57,10 @@ public class CourseController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Course>> searchCourses(@RequestParam String query) {
-        return ResponseEntity.ok(courseService.searchCourses(query));
+    public ResponseEntity<List<Course>> searchCourses(
+            @RequestParam String query,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(courseService.searchCourses(query, limit));
     }
 
     @GetMapping("/{id}/progress")
@@ -0,0 +1,30 @@
+package com.quizsystem.controller;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+// Strong ETags built from ids that already identify immutable content (test versions, certificates)
+// or from version counters (attempt revisions, leaderboards)
+final class ETags {
+
+    // Counters kept in memory restart with the process and differ between instances, so their tags carry this
+    static final String INSTANCE = Long.toHexString(new SecureRandom().nextLong());
+
+    private ETags() {
+    }
+
+    static String of(String... parts) {
+        return "\"" + String.join("-", parts) + "\"";
+    }
+
+    // If-None-Match matching as in RFC 9110: weak comparison, comma-separated list or "*"
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+    }
+}
@@ -1,20 +1,39 @@
 package com.quizsystem.controller;
 
 import com.quizsystem.dto.AnswerRequest;
+import com.quizsystem.dto.AnswerSaveResponse;
+import com.quizsystem.dto.CatalogBrowseResponse;
+import com.quizsystem.dto.CursorPage;
+import com.quizsystem.dto.LeaderboardEntry;
+import com.quizsystem.dto.QuestionPage;
+import com.quizsystem.dto.TestSummary;
 import com.quizsystem.model.Test;
 import com.quizsystem.model.TestAttempt;
+import com.quizsystem.model.TestVersion;
 import com.quizsystem.model.User;
 import com.quizsystem.repository.UserRepository;
+import com.quizsystem.service.LeaderboardService;
+import com.quizsystem.service.ScopedLeaderboardService;
+import com.quizsystem.service.StudentTestViews;
 import com.quizsystem.service.TestAttemptService;
 import com.quizsystem.service.TestService;
+import com.quizsystem.service.TestVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -25,23 +44,124 @@ public class TestController {
     private final TestService testService;
     private final TestAttemptService attemptService;
     private final UserRepository userRepository;
+    private final TestVersionService testVersionService;
+    private final StudentTestViews studentTestViews;
+    private final LeaderboardService leaderboardService;
+    private final ScopedLeaderboardService scopedLeaderboardService;
+
+    // Catalog and leaderboard are public and change rarely; shared caches may serve them briefly
+    private static final CacheControl CATALOG_CACHE = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+    private static final CacheControl LEADERBOARD_CACHE = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
+    // Version views never change, but need a login, so only the browser keeps them
+    private static final CacheControl VERSION_CACHE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+    // Attempts are per user and change while they are taken; the browser revalidates them every time
+    private static final CacheControl ATTEMPT_CACHE = CacheControl.noCache().cachePrivate();
+
+    @Value("${quiz.attempts.atomic-answer-save:false}")
+    private boolean atomicAnswerSave;
 
     @GetMapping
-    public ResponseEntity<List<Test>> getAllPublishedTests() {
+    public ResponseEntity<byte[]> getAllPublishedTests(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Fetching all published tests");
-        return ResponseEntity.ok(testService.getAllPublishedTests());
+        TestService.PublishedCatalog catalog = testService.getPublishedCatalog();
+        if (ETags.matches(ifNoneMatch, catalog.etag())) {
+            return notModified(catalog.etag(), CATALOG_CACHE);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(catalog.etag())
+                .cacheControl(CATALOG_CACHE)
+                .body(catalog.json());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Test> getTestById(@PathVariable String id) {
+    public ResponseEntity<byte[]> getTestById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Fetching test by id: {}", id);
-        return ResponseEntity.ok(testService.getTestById(id));
+        // Only the currentVersionId is read before the ETag check; the content is served from cache
+        TestVersion version = testService.getCurrentVersion(id);
+        String etag = studentViewETag(version.getId(), acceptEncoding);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, CacheControl.noCache());
+        }
+        return studentView(version, acceptEncoding, etag, CacheControl.noCache());
+    }
+
+    // Versions are immutable; attempts reference the one they were taken on via testVersionId
+    @GetMapping("/versions/{versionId}")
+    public ResponseEntity<byte[]> getTestVersion(
+            @PathVariable String versionId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching test version: {}", versionId);
+        String etag = studentViewETag(versionId, acceptEncoding);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, VERSION_CACHE);
+        }
+        return studentView(testVersionService.getVersion(versionId), acceptEncoding, etag, VERSION_CACHE);
+    }
+
+    // Pre-rendered bytes of the version's summary (no questions); written as-is, gzipped when the client accepts it
+    private ResponseEntity<byte[]> studentView(TestVersion version, String acceptEncoding,
+                                               String etag, CacheControl cacheControl) {
+        StudentTestViews.RenderedView view = studentTestViews.get(version);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .eTag(etag)
+                .cacheControl(cacheControl);
+        if (view.gzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(view.gzip());
+        }
+        return response.body(view.json());
+    }
+
+    // The version id identifies the content; the gzip variant gets its own tag as the bytes differ
+    private String studentViewETag(String versionId, String acceptEncoding) {
+        return studentTestViews.isGzipEnabled() && acceptsGzip(acceptEncoding)
+                ? ETags.of(versionId, "gzip")
+                : ETags.of(versionId);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
     }
 
+    private static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    // The last word of the query also matches as a prefix, so this doubles as autocomplete
     @GetMapping("/search")
-    public ResponseEntity<List<Test>> searchTests(@RequestParam String query) {
+    public ResponseEntity<List<TestSummary>> searchTests(
+            @RequestParam String query,
+            @RequestParam(required = false) Integer limit) {
         log.debug("Searching tests with query: {}", query);
-        return ResponseEntity.ok(testService.searchTests(query));
+        return ResponseEntity.ok(testService.searchTests(query, limit));
+    }
+
+    // Catalog filtering: repeat a parameter to select several values of a facet, e.g. ?tag=java&tag=spring
+    @GetMapping("/browse")
+    public ResponseEntity<CatalogBrowseResponse> browseTests(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> difficulty,
+            @RequestParam(required = false) List<String> duration,
+            @RequestParam(required = false) Integer limit) {
+        Map<String, List<String>> filters = new HashMap<>();
+        if (category != null) filters.put("category", category);
+        if (tag != null) filters.put("tag", tag);
+        if (difficulty != null) filters.put("difficulty", difficulty);
+        if (duration != null) filters.put("duration", duration);
+        return ResponseEntity.ok(testService.browseTests(query, filters, limit));
     }
 
     @PostMapping("/{id}/start")
@@ -61,6 +181,12 @@ public class TestController {
                 error.put("message", "You have reached the maximum number of attempts for this test");
                 return ResponseEntity.badRequest().body(error);
             }
+            if ("ATTEMPT_START_CONFLICT".equals(e.getMessage())) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "ATTEMPT_START_CONFLICT");
+                error.put("message", "This test is being started in another request, please try again");
+                return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+            }
             throw e;
         }
     }
@@ -72,42 +198,167 @@ public class TestController {
             @RequestBody AnswerRequest answerRequest) {
         log.debug("Saving answer for attempt {}, question {}", attemptId, answerRequest.getQuestionId());
         try {
+            if (atomicAnswerSave) {
+                return ResponseEntity.ok(attemptService.saveAnswerAtomic(attemptId, answerRequest));
+            }
             return ResponseEntity.ok(attemptService.saveAnswer(attemptId, answerRequest));
         } catch (RuntimeException e) {
             if ("TIME_EXPIRED".equals(e.getMessage())) {
                 log.warn("Answer save blocked for attempt {} — time expired, auto-submitted", attemptId);
-                Map<String, Object> error = new HashMap<>();
-                error.put("error", "TIME_EXPIRED");
-                error.put("message", "Time has expired. Your test has been auto-submitted.");
-                return ResponseEntity.badRequest().body(error);
+                return timeExpiredResponse();
+            }
+            throw e;
+        }
+    }
+
+    @PostMapping("/{testId}/attempt/{attemptId}/answers")
+    public ResponseEntity<?> saveAnswers(
+            @PathVariable String testId,
+            @PathVariable String attemptId,
+            @RequestBody List<AnswerRequest> answerRequests) {
+        log.debug("Saving {} answers for attempt {}", answerRequests.size(), attemptId);
+        try {
+            List<AnswerSaveResponse> results = attemptService.saveAnswers(attemptId, answerRequests);
+            Map<String, Object> response = new HashMap<>();
+            response.put("attemptId", attemptId);
+            response.put("saved", results.stream().filter(AnswerSaveResponse::getSaved).count());
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            if ("TIME_EXPIRED".equals(e.getMessage())) {
+                log.warn("Batch answer save blocked for attempt {} — time expired, auto-submitted", attemptId);
+                return timeExpiredResponse();
             }
             throw e;
         }
     }
 
+    private ResponseEntity<Map<String, Object>> timeExpiredResponse() {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "TIME_EXPIRED");
+        error.put("message", "Time has expired. Your test has been auto-submitted.");
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @PostMapping("/{testId}/attempt/{attemptId}/submit")
     public ResponseEntity<TestAttempt> submitAttempt(
             @PathVariable String testId,
             @PathVariable String attemptId) {
         log.info("Submitting attempt {} for test {}", attemptId, testId);
         TestAttempt result = attemptService.submitAttempt(attemptId);
+        if (result.getStatus() == TestAttempt.AttemptStatus.SUBMITTED) {
+            // Async grading: the result page polls GET /attempt/{attemptId} until it is GRADED
+            log.info("Attempt {} submitted, grading queued", attemptId);
+            return ResponseEntity.accepted().body(result);
+        }
         log.info("Attempt {} submitted, score: {}%, status: {}", attemptId,
                 String.format("%.1f", result.getScore()), result.getStatus());
         return ResponseEntity.ok(result);
     }
 
+    // Questions and choices in this attempt's shuffled order; grading matches by id, so order never matters there.
+    // questions=false returns only the test's details, for clients that load questions page by page
+    @GetMapping("/attempt/{attemptId}/test")
+    public ResponseEntity<Test> getDeliveryTest(
+            @PathVariable String attemptId,
+            @RequestParam(defaultValue = "true") boolean questions,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching delivery test for attempt: {}", attemptId);
+        String etag = deliveryETag("delivery", attemptService.getAttemptStamp(attemptId));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, ATTEMPT_CACHE);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ATTEMPT_CACHE)
+                .body(attemptService.getDeliveryTest(attemptId, questions));
+    }
+
+    @GetMapping("/attempt/{attemptId}/questions")
+    public ResponseEntity<QuestionPage> getDeliveryQuestions(
+            @PathVariable String attemptId,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching questions of attempt {} from {}", attemptId, offset);
+        String etag = deliveryETag("delivery", attemptService.getAttemptStamp(attemptId));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, ATTEMPT_CACHE);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ATTEMPT_CACHE)
+                .body(attemptService.getDeliveryQuestions(attemptId, offset, limit));
+    }
+
+    @GetMapping("/attempt/{attemptId}/review")
+    public ResponseEntity<Test> getReviewTest(
+            @PathVariable String attemptId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching review test for attempt: {}", attemptId);
+        TestAttempt stamp = attemptService.getAttemptStamp(attemptId);
+        String etag = deliveryETag("review", stamp);
+        // An attempt in progress has no review; the service rejects it below
+        if (stamp.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS && ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, ATTEMPT_CACHE);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ATTEMPT_CACHE)
+                .body(attemptService.getReviewTest(attemptId));
+    }
+
     @GetMapping("/attempt/{attemptId}")
-    public ResponseEntity<TestAttempt> getAttempt(@PathVariable String attemptId) {
+    public ResponseEntity<TestAttempt> getAttempt(
+            @PathVariable String attemptId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Fetching attempt: {}", attemptId);
-        return ResponseEntity.ok(attemptService.getAttemptById(attemptId));
+        // Only the revision is read before the ETag check; every write to the attempt bumps it
+        String etag = ETags.of("attempt", attemptId, revision(attemptService.getAttemptStamp(attemptId)));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, ATTEMPT_CACHE);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ATTEMPT_CACHE)
+                .body(attemptService.getAttemptById(attemptId));
     }
 
     @GetMapping("/my-attempts")
-    public ResponseEntity<List<TestAttempt>> getMyAttempts(Authentication authentication) {
+    public ResponseEntity<CursorPage<TestAttempt>> getMyAttempts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication) {
         User user = userRepository.findByEmail(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         log.debug("Fetching attempts for user: {}", user.getId());
-        return ResponseEntity.ok(attemptService.getUserAttempts(user.getId()));
+        CursorPage<TestAttempt> page = attemptService.getUserAttempts(user.getId(), cursor, limit, includeTotal);
+        String etag = attemptsETag(page);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, ATTEMPT_CACHE);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(ATTEMPT_CACHE).body(page);
+    }
+
+    // Delivery and review content is fixed by the attempt (its question draw and seed) and the version it was taken on
+    private String deliveryETag(String kind, TestAttempt stamp) {
+        return ETags.of(kind, stamp.getId(), attemptService.getDeliveredVersionId(stamp));
+    }
+
+    // The page is identified by its rows' revisions, where it continues and the total; checked before serializing
+    private static String attemptsETag(CursorPage<TestAttempt> page) {
+        StringBuilder key = new StringBuilder();
+        for (TestAttempt attempt : page.getItems()) {
+            key.append(attempt.getId()).append(':').append(revision(attempt)).append(',');
+        }
+        key.append(page.getNextCursor()).append(',').append(page.getTotal());
+        return ETags.of("attempts", DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String revision(TestAttempt attempt) {
+        return Long.toString(attempt.getRevision() != null ? attempt.getRevision() : 0);
     }
 
     @GetMapping("/{id}/attempts-info")
@@ -127,67 +378,67 @@ public class TestController {
         return ResponseEntity.ok(info);
     }
 
+    // Served from the in-memory boards; pages are ranks offset+1 .. offset+limit, ?window=all|month|week|day
     @GetMapping("/leaderboard")
-    public ResponseEntity<List<Map<String, Object>>> getLeaderboard() {
-        log.debug("Fetching leaderboard");
-        List<TestAttempt> allAttempts = attemptService.getAllGradedAttempts();
-
-        // Group by userId, find best score per user, count tests taken
-        Map<String, List<TestAttempt>> byUser = allAttempts.stream()
-                .collect(Collectors.groupingBy(TestAttempt::getUserId));
-
-        List<Map<String, Object>> leaderboard = new ArrayList<>();
-
-        for (Map.Entry<String, List<TestAttempt>> entry : byUser.entrySet()) {
-            String userId = entry.getKey();
-            List<TestAttempt> userAttempts = entry.getValue();
-
-            double avgScore = userAttempts.stream()
-                    .filter(a -> a.getScore() != null)
-                    .mapToDouble(TestAttempt::getScore)
-                    .average()
-                    .orElse(0.0);
-
-            double bestScore = userAttempts.stream()
-                    .filter(a -> a.getScore() != null)
-                    .mapToDouble(TestAttempt::getScore)
-                    .max()
-                    .orElse(0.0);
-
-            long testsCompleted = userAttempts.stream()
-                    .map(TestAttempt::getTestId)
-                    .distinct()
-                    .count();
-
-            int totalPoints = userAttempts.stream()
-                    .filter(a -> a.getEarnedPoints() != null)
-                    .mapToInt(TestAttempt::getEarnedPoints)
-                    .sum();
-
-            // Get user info
-            Optional<User> user = userRepository.findById(userId);
-            if (user.isEmpty()) continue;
-
-            Map<String, Object> row = new HashMap<>();
-            row.put("userId", userId);
-            row.put("name", user.get().getName());
-            row.put("avatar", user.get().getAvatar());
-            row.put("avgScore", Math.round(avgScore * 10.0) / 10.0);
-            row.put("bestScore", Math.round(bestScore * 10.0) / 10.0);
-            row.put("testsCompleted", testsCompleted);
-            row.put("totalPoints", totalPoints);
-            row.put("attemptsCount", userAttempts.size());
-
-            leaderboard.add(row);
-        }
-
-        // Sort by totalPoints desc, then by avgScore desc
-        leaderboard.sort((a, b) -> {
-            int cmp = Integer.compare((int) b.get("totalPoints"), (int) a.get("totalPoints"));
-            if (cmp != 0) return cmp;
-            return Double.compare((double) b.get("avgScore"), (double) a.get("avgScore"));
-        });
-
-        return ResponseEntity.ok(leaderboard);
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(
+            @RequestParam(required = false) String window,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching {} leaderboard from {}", window, offset);
+        ScopedLeaderboardService.Window parsed = ScopedLeaderboardService.Window.parse(window);
+        String etag = leaderboardETag();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, LEADERBOARD_CACHE);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(LEADERBOARD_CACHE)
+                .body(scopedLeaderboardService.getGlobalPage(parsed, offset, limit));
+    }
+
+    @GetMapping("/leaderboard/tests/{testId}")
+    public ResponseEntity<List<LeaderboardEntry>> getTestLeaderboard(
+            @PathVariable String testId,
+            @RequestParam(required = false) String window,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ScopedLeaderboardService.Window parsed = ScopedLeaderboardService.Window.parse(window);
+        String etag = leaderboardETag();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, LEADERBOARD_CACHE);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(LEADERBOARD_CACHE)
+                .body(scopedLeaderboardService.getTestPage(testId, parsed, offset, limit));
+    }
+
+    @GetMapping("/leaderboard/categories/{category}")
+    public ResponseEntity<List<LeaderboardEntry>> getCategoryLeaderboard(
+            @PathVariable String category,
+            @RequestParam(required = false) String window,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ScopedLeaderboardService.Window parsed = ScopedLeaderboardService.Window.parse(window);
+        String etag = leaderboardETag();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return notModified(etag, LEADERBOARD_CACHE);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(LEADERBOARD_CACHE)
+                .body(scopedLeaderboardService.getCategoryPage(category, parsed, offset, limit));
+    }
+
+    // One tag for every board and page: it changes with any grade, rebuild or profile change, and at midnight
+    // when the windows move. The boards live in this process, so the tag names it
+    private String leaderboardETag() {
+        return ETags.of("leaderboard", ETags.INSTANCE, Long.toString(leaderboardService.version()),
+                Long.toString(scopedLeaderboardService.version()), Long.toString(LocalDate.now().toEpochDay()));
+    }
+
+    @GetMapping("/leaderboard/me")
+    public ResponseEntity<LeaderboardEntry> getMyLeaderboardEntry(Authentication authentication) {
+        User user = userRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        LeaderboardEntry entry = leaderboardService.getEntry(user.getId());
+        return entry != null ? ResponseEntity.ok(entry) : ResponseEntity.noContent().build();
     }
 }
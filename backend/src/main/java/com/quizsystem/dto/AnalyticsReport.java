@@ -0,0 +1,41 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsReport {
+
+    // test, course or global
+    private String scope;
+
+    private String scopeId;
+
+    // Inclusive day range
+    private LocalDate from;
+
+    private LocalDate to;
+
+    // Estimated distinct users who started an attempt in the range, within about 2%
+    private Long distinctUsers;
+
+    // Graded attempts; the score fields are null when there are none
+    private Long attempts;
+
+    private Double averageScore;
+
+    private Double scoreStdDev;
+
+    private Double p50Score;
+
+    private Double p90Score;
+
+    private Double p99Score;
+}
@@ -0,0 +1,21 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSaveResponse {
+
+    private String attemptId;
+    private String questionId;
+    private Boolean saved;
+    private LocalDateTime savedAt;
+    private String error;
+}
@@ -0,0 +1,24 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogBrowseResponse {
+
+    private List<TestSummary> items;
+
+    // All matches, items holds at most limit of them
+    private Integer total;
+
+    // facet (category, tag, difficulty, duration) -> value -> matching tests
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,28 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+
+    // Opaque; sent back as ?cursor= to get the next page, null on the last one
+    private String nextCursor;
+
+    private boolean hasMore;
+
+    // Only filled when the request asked for includeTotal=true
+    private Long total;
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor, hasMore, total);
+    }
+}
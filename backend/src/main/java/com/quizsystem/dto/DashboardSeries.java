@@ -0,0 +1,34 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSeries {
+
+    // Time of the first point; points are one minute apart, null where no snapshot was taken
+    private LocalDateTime start;
+
+    private Integer stepSeconds;
+
+    private List<Long> users;
+
+    private List<Long> verifiedUsers;
+
+    private List<Long> tests;
+
+    private List<Long> publishedTests;
+
+    private List<Long> activeAttempts;
+
+    // Attempts started during each minute
+    private List<Long> attemptsStarted;
+}
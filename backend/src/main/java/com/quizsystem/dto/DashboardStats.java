@@ -0,0 +1,32 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardStats {
+
+    private Long totalUsers;
+
+    private Long verifiedUsers;
+
+    private Long totalTests;
+
+    private Long publishedTests;
+
+    // Started and not graded yet
+    private Long activeAttempts;
+
+    private Long attemptsToday;
+
+    // Attempts started per day over the last 30 days, oldest first
+    private Map<LocalDate, Long> attemptsPerDay;
+}
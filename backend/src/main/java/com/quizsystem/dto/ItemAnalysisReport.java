@@ -0,0 +1,62 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAnalysisReport {
+
+    private String testId;
+
+    private String versionId;
+
+    // Graded attempts of this version that have a score
+    private Long attempts;
+
+    // One per question of the version, in authoring order
+    private List<Item> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String questionId;
+        private String text;
+        private String type;
+
+        // Attempts the question was delivered in (fewer than attempts for question banks)
+        private Long delivered;
+        private Long correct;
+        private Long unanswered;
+
+        // Proportion correct, 0..1; null when never delivered
+        private Double difficulty;
+
+        // Point-biserial correlation of being correct with the attempt score, -1..1; null when undefined
+        private Double discrimination;
+
+        private List<ChoiceStats> choices;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChoiceStats {
+        private String choiceId;
+        private String text;
+        private Boolean correct;
+        private Long picks;
+
+        // Share of deliveries in which this choice was selected
+        private Double pickRate;
+    }
+}
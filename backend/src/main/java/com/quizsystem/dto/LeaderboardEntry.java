@@ -0,0 +1,25 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+
+    // 1-based position on the board
+    private Integer rank;
+
+    private String userId;
+    private String name;
+    private String avatar;
+    private Double avgScore;
+    private Double bestScore;
+    private Long testsCompleted;
+    private Long totalPoints;
+    private Long attemptsCount;
+}
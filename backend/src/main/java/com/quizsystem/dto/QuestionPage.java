@@ -0,0 +1,24 @@
+package com.quizsystem.dto;
+
+import com.quizsystem.model.Test;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionPage {
+
+    // Questions offset .. offset + items.size() - 1 of the attempt, in delivery order, without answers
+    private List<Test.Question> items;
+
+    private Integer offset;
+
+    // Questions in the attempt (the sample size for tests with a question bank)
+    private Integer total;
+}
@@ -0,0 +1,28 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeJobResponse {
+
+    private String jobId;
+    private String testId;
+    private String testVersionId;
+    private String status;
+    private Long total;
+    private Long processed;
+    private Long changed;
+    private Long failed;
+    private Double attemptsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
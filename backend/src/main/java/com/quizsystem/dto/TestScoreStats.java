@@ -0,0 +1,37 @@
+package com.quizsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestScoreStats {
+
+    // Graded attempts; the score fields are null when there are none
+    private Long attempts;
+
+    private Double averageScore;
+
+    private Double scoreStdDev;
+
+    private Double minScore;
+
+    private Double maxScore;
+
+    private Double medianScore;
+
+    private Double p90Score;
+
+    private Long passedCount;
+
+    private Double passRate;
+
+    // Attempts per 10-point score range: 0-10, 10-20, ..., 90-100
+    private List<Long> histogram;
+}
@@ -0,0 +1,44 @@
+package com.quizsystem.dto;
+
+import com.quizsystem.model.Test;
+import com.quizsystem.service.QuestionSampler;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Catalog entry for a published test; no questions, so no answer data leaves the server
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestSummary {
+
+    private String id;
+    private String title;
+    private String description;
+    private String category;
+    private List<String> tags;
+    private Test.DifficultyLevel difficulty;
+    private Integer durationMinutes;
+    private Integer passingScore;
+    private Integer maxAttempts;
+    private Integer questionCount;
+
+    public static TestSummary of(Test test) {
+        return TestSummary.builder()
+                .id(test.getId())
+                .title(test.getTitle())
+                .description(test.getDescription())
+                .category(test.getCategory())
+                .tags(test.getTags())
+                .difficulty(test.getDifficulty())
+                .durationMinutes(test.getDurationMinutes())
+                .passingScore(test.getPassingScore())
+                .maxAttempts(test.getMaxAttempts())
+                .questionCount(QuestionSampler.drawCount(test))
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.quizsystem.event;
+
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published once per attempt, after its grades were written
+@Getter
+@AllArgsConstructor
+public class AttemptGradedEvent {
+
+    private final TestAttempt attempt;
+    private final Test test;
+}
@@ -0,0 +1,16 @@
+package com.quizsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class AttemptStartedEvent {
+
+    private final String attemptId;
+    private final String testId;
+    private final String userId;
+    private final LocalDateTime deadline;
+}
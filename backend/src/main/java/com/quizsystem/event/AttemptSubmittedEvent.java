@@ -0,0 +1,11 @@
+package com.quizsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class AttemptSubmittedEvent {
+
+    private final String attemptId;
+}
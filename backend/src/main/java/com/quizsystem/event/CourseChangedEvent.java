@@ -0,0 +1,14 @@
+package com.quizsystem.event;
+
+import com.quizsystem.model.Course;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A course was created, edited or deleted; course is the saved state, null after a delete
+@Getter
+@AllArgsConstructor
+public class CourseChangedEvent {
+
+    private final String courseId;
+    private final Course course;
+}
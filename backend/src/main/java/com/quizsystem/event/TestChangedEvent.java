@@ -0,0 +1,14 @@
+package com.quizsystem.event;
+
+import com.quizsystem.model.Test;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A test was created, edited or deleted; test is the saved state, null after a delete
+@Getter
+@AllArgsConstructor
+public class TestChangedEvent {
+
+    private final String testId;
+    private final Test test;
+}
@@ -0,0 +1,13 @@
+package com.quizsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Scores of this test's attempts were rewritten in bulk; per-test aggregates should be rebuilt
+@Getter
+@AllArgsConstructor
+public class TestRegradedEvent {
+
+    private final String testId;
+    private final long changed;
+}
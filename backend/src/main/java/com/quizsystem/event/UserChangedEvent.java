@@ -0,0 +1,17 @@
+package com.quizsystem.event;
+
+import com.quizsystem.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// A user registered, verified their email, changed their avatar or was deleted; user is the saved state, null after a delete.
+// created marks a registration; wasVerified is whether the email was verified before the change, false for a new user.
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+
+    private final String userId;
+    private final User user;
+    private final boolean created;
+    private final boolean wasVerified;
+}
@@ -0,0 +1,55 @@
+package com.quizsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// One document per (scope, scopeId, day): a HyperLogLog of the users who started an attempt and the
+// score sketch of the attempts graded that day. Every field merges with $max, $min or $inc.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "analytics_sketches")
+public class AnalyticsSketch {
+
+    @Id
+    private String id;
+
+    // test, course or global
+    private String scope;
+
+    private String scopeId;
+
+    private LocalDate day;
+
+    // Non-zero HyperLogLog registers, index -> value
+    private Map<String, Integer> users;
+
+    // Graded attempts and the sum and sum of squares of their scores
+    private Long count;
+
+    private Double scoreSum;
+
+    private Double scoreSquares;
+
+    private Double scoreMin;
+
+    private Double scoreMax;
+
+    // Non-empty score histogram bins, index -> count
+    private Map<String, Long> bins;
+
+    private LocalDateTime updatedAt;
+
+    public static String idOf(String scope, String scopeId, LocalDate day) {
+        return scope + ":" + scopeId + ":" + day;
+    }
+}
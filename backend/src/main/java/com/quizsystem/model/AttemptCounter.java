@@ -0,0 +1,38 @@
+package com.quizsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// One document per (userId, testId); maintained atomically as attempts start and finish
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attempt_counters")
+public class AttemptCounter {
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    private String testId;
+
+    private Long started;
+
+    private Long completed;
+
+    private String inProgressAttemptId;
+
+    private LocalDateTime updatedAt;
+
+    public static String idOf(String userId, String testId) {
+        return userId + ":" + testId;
+    }
+}
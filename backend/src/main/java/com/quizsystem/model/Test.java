@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "tests")
@@ -40,15 +40,22 @@ public class Test {
     @Builder.Default
     private Integer maxAttempts = 3;
 
+    // With sampling rules, questions is a bank and every attempt draws its own subset from it
     private List<Question> questions;
 
+    private List<SamplingRule> sampling;
+
     private String createdBy;
 
     @CreatedDate
     private LocalDateTime createdAt;
 
+    // Id of the TestVersion snapshot matching this content; set by TestService on every save.
+    // Inside a snapshot it is the snapshot's own id, so a Test always names the version it shows.
+    private String currentVersionId;
+
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class Question {
@@ -59,6 +66,20 @@ public class Test {
         private List<Choice> choices;
         private Integer points;
         private String correctAnswer;
+        // Only used to match sampling rules
+        private List<String> tags;
+        private DifficultyLevel difficulty;
+    }
+
+    // Draw count questions that have the tag and the difficulty (either may be omitted)
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SamplingRule {
+        private String tag;
+        private DifficultyLevel difficulty;
+        private Integer count;
     }
 
     @Data
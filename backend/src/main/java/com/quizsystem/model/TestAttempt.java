@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,6 +16,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "test_attempts")
+// Keyset pagination of a user's history and of a test's report, newest first
+@CompoundIndex(name = "user_started_idx", def = "{'userId': 1, 'startedAt': -1, '_id': -1}")
+@CompoundIndex(name = "test_started_idx", def = "{'testId': 1, 'startedAt': -1, '_id': -1}")
 public class TestAttempt {
 
     @Id
@@ -22,12 +26,27 @@ public class TestAttempt {
 
     private String testId;
 
+    // The immutable TestVersion this attempt was started on; graded and reviewed against it
+    private String testVersionId;
+
+    // Question and choice order for this attempt is derived from it (see AttemptShuffle); null keeps the test's order
+    private Long shuffleSeed;
+
+    // Positions in the version's question bank drawn for this attempt; null means all questions
+    private List<Integer> questionIndexes;
+
     private String userId;
 
     private LocalDateTime startedAt;
 
     private LocalDateTime submittedAt;
 
+    // When the grade was computed; regrades leave it as is. Null on attempts graded before it was recorded
+    private LocalDateTime gradedAt;
+
+    // startedAt + test duration, stored so answer writes can check the timer in their filter
+    private LocalDateTime deadline;
+
     private AttemptStatus status;
 
     private List<Answer> answers;
@@ -38,6 +57,9 @@ public class TestAttempt {
 
     private Integer earnedPoints;
 
+    // Incremented by every write to the attempt; its ETags are built from it. Null until the first write
+    private Long revision;
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,34 @@
+package com.quizsystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of a test's content. The id is a SHA-256 hash of the test id and content,
+ * so saving unchanged content again resolves to the same version. Versions are never updated
+ * or deleted, which lets anything derived from one be cached forever.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "test_versions")
+public class TestVersion {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String testId;
+
+    private LocalDateTime createdAt;
+
+    private Test content;
+}
@@ -0,0 +1,9 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.AnalyticsSketch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AnalyticsSketchRepository extends MongoRepository<AnalyticsSketch, String>, AnalyticsSketchRepositoryCustom {
+}
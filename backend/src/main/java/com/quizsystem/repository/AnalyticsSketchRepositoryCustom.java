@@ -0,0 +1,10 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.AnalyticsSketch;
+
+public interface AnalyticsSketchRepositoryCustom {
+
+    // Folds a delta into the stored sketch with one upsert: registers with $max, counts and sums with $inc,
+    // min and max with $min and $max. Safe to run concurrently from several instances; returns the merged sketch.
+    AnalyticsSketch merge(AnalyticsSketch delta);
+}
@@ -0,0 +1,40 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.AnalyticsSketch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class AnalyticsSketchRepositoryImpl implements AnalyticsSketchRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public AnalyticsSketch merge(AnalyticsSketch delta) {
+        Query query = new Query(Criteria.where("id").is(delta.getId()));
+        Update update = new Update()
+                .setOnInsert("scope", delta.getScope())
+                .setOnInsert("scopeId", delta.getScopeId())
+                .setOnInsert("day", delta.getDay())
+                .set("updatedAt", LocalDateTime.now());
+        if (delta.getUsers() != null) {
+            delta.getUsers().forEach((register, value) -> update.max("users." + register, value));
+        }
+        if (delta.getCount() != null && delta.getCount() > 0) {
+            update.inc("count", delta.getCount())
+                    .inc("scoreSum", delta.getScoreSum())
+                    .inc("scoreSquares", delta.getScoreSquares())
+                    .min("scoreMin", delta.getScoreMin())
+                    .max("scoreMax", delta.getScoreMax());
+            delta.getBins().forEach((bin, count) -> update.inc("bins." + bin, count));
+        }
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), AnalyticsSketch.class);
+    }
+}
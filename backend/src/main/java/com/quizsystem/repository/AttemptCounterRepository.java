@@ -0,0 +1,9 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.AttemptCounter;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AttemptCounterRepository extends MongoRepository<AttemptCounter, String>, AttemptCounterRepositoryCustom {
+}
@@ -0,0 +1,15 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.AttemptCounter;
+
+public interface AttemptCounterRepositoryCustom {
+
+    // Inserts the counter if it does not exist yet and returns the stored one
+    AttemptCounter initialize(AttemptCounter counter);
+
+    // Claims the in-progress slot for attemptId when completed < maxAttempts and no attempt is in progress
+    boolean reserve(String counterId, String attemptId, int maxAttempts);
+
+    // Frees the in-progress slot held by attemptId, counting it as completed when it was submitted
+    boolean release(String counterId, String attemptId, boolean completed);
+}
@@ -0,0 +1,53 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.AttemptCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class AttemptCounterRepositoryImpl implements AttemptCounterRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public AttemptCounter initialize(AttemptCounter counter) {
+        Query query = new Query(Criteria.where("id").is(counter.getId()));
+        Update update = new Update()
+                .setOnInsert("userId", counter.getUserId())
+                .setOnInsert("testId", counter.getTestId())
+                .setOnInsert("started", counter.getStarted())
+                .setOnInsert("completed", counter.getCompleted())
+                .setOnInsert("inProgressAttemptId", counter.getInProgressAttemptId())
+                .setOnInsert("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), AttemptCounter.class);
+    }
+
+    @Override
+    public boolean reserve(String counterId, String attemptId, int maxAttempts) {
+        Query query = new Query(Criteria.where("id").is(counterId)
+                .and("completed").lt(maxAttempts)
+                .and("inProgressAttemptId").is(null));
+        Update update = new Update()
+                .set("inProgressAttemptId", attemptId)
+                .inc("started", 1)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(query, update, AttemptCounter.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean release(String counterId, String attemptId, boolean completed) {
+        Query query = new Query(Criteria.where("id").is(counterId).and("inProgressAttemptId").is(attemptId));
+        Update update = new Update()
+                .set("inProgressAttemptId", null)
+                .inc("completed", completed ? 1 : 0)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(query, update, AttemptCounter.class).getModifiedCount() > 0;
+    }
+}
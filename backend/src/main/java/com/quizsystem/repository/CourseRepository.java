@@ -2,6 +2,7 @@ package com.quizsystem.repository;
 
 import com.quizsystem.model.Course;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,5 +14,6 @@ public interface CourseRepository extends MongoRepository<Course, String> {
 
     List<Course> findByCategory(String category);
 
-    List<Course> findByTitleContainingIgnoreCase(String title);
+    @Query(value = "{}", fields = "{ 'testIds': 1, 'modules.testIds': 1 }")
+    List<Course> findAllTestRefs();
 }
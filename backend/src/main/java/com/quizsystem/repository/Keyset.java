@@ -0,0 +1,69 @@
+package com.quizsystem.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sort order of a keyset-paged listing: one document field plus _id as the tie-breaker, so
+ * every row has a unique position. The index serving a listing should end with the same keys
+ * in the same directions, e.g. {userId: 1, startedAt: -1, _id: -1}.
+ */
+public record Keyset<T>(String field, Sort.Direction direction, Class<?> valueType,
+                        Function<T, Object> value, Function<T, String> id) {
+
+    public static <T> Keyset<T> byId(Sort.Direction direction, Function<T, String> id) {
+        return new Keyset<>(null, direction, null, null, id);
+    }
+
+    public static <T> Keyset<T> by(String field, Sort.Direction direction, Class<?> valueType,
+                                   Function<T, Object> value, Function<T, String> id) {
+        return new Keyset<>(field, direction, valueType, value, id);
+    }
+
+    Sort sort() {
+        Sort byId = Sort.by(direction, "_id");
+        return field == null ? byId : Sort.by(direction, field).and(byId);
+    }
+
+    // Rows strictly after (lastValue, lastId) in this order; Mongo sorts missing/null values lowest
+    Criteria after(Object lastValue, String lastId) {
+        boolean asc = direction.isAscending();
+        Criteria idAfter = asc ? Criteria.where("_id").gt(lastId) : Criteria.where("_id").lt(lastId);
+        if (field == null) {
+            return idAfter;
+        }
+        if (lastValue == null) {
+            Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(null), idAfter);
+            return asc ? new Criteria().orOperator(sameValue, Criteria.where(field).ne(null)) : sameValue;
+        }
+        Criteria valueAfter = asc ? Criteria.where(field).gt(lastValue) : Criteria.where(field).lt(lastValue);
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(lastValue), idAfter);
+        return asc
+                ? new Criteria().orOperator(valueAfter, sameValue)
+                : new Criteria().orOperator(valueAfter, sameValue, Criteria.where(field).is(null));
+    }
+
+    String format(T row) {
+        Object v = value != null ? value.apply(row) : null;
+        return v != null ? v.toString() : null;
+    }
+
+    Object parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        if (valueType == LocalDateTime.class) {
+            return LocalDateTime.parse(text);
+        }
+        if (valueType == Long.class) {
+            return Long.parseLong(text);
+        }
+        if (valueType == Double.class) {
+            return Double.parseDouble(text);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,91 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.dto.CursorPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Cursor-based pagination for list endpoints. A page continues right after the last row of the
+ * previous one (see {@link Keyset}) instead of skipping rows, so with a matching index every page
+ * costs the same, and rows inserted meanwhile do not shift later pages.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetPager {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${quiz.pagination.default-size:50}")
+    private int defaultSize;
+
+    @Value("${quiz.pagination.max-size:200}")
+    private int maxSize;
+
+    public <T> CursorPage<T> page(Query filter, Class<T> type, Keyset<T> keyset,
+                                  String cursor, Integer size, boolean includeTotal) {
+        int limit = size == null ? defaultSize : Math.max(1, Math.min(size, maxSize));
+        // Counted over the whole filter, not just the rows after the cursor
+        Long total = includeTotal ? mongoTemplate.count(Query.of(filter), type) : null;
+
+        Query query = Query.of(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            Position last = decode(cursor);
+            query.addCriteria(keyset.after(parse(keyset, last.value()), last.id()));
+        }
+        // One extra row tells whether another page exists without a count
+        query.with(keyset.sort()).limit(limit + 1);
+
+        List<T> rows = new ArrayList<>(mongoTemplate.find(query, type));
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows.subList(limit, rows.size()).clear();
+        }
+        String next = hasMore ? encode(keyset, rows.get(rows.size() - 1)) : null;
+        return new CursorPage<>(rows, next, hasMore, total);
+    }
+
+    private static <T> String encode(Keyset<T> keyset, T row) {
+        String value = keyset.format(row);
+        // "~" marks a null sort value; ids never contain "|"
+        String text = (value == null ? "~" : "=" + value) + "|" + keyset.id().apply(row);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decode(String cursor) {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = text.lastIndexOf('|');
+            if (split < 1 || split == text.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            // Only "~|id" and "=value|id" are ever issued
+            char marker = text.charAt(0);
+            if (marker == '~' ? split != 1 : marker != '=') {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String value = marker == '~' ? null : text.substring(1, split);
+            return new Position(value, text.substring(split + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static Object parse(Keyset<?> keyset, String value) {
+        try {
+            return keyset.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private record Position(String value, String id) {
+    }
+}
@@ -1,23 +1,32 @@
 package com.quizsystem.repository;
 
 import com.quizsystem.model.TestAttempt;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface TestAttemptRepository extends MongoRepository<TestAttempt, String> {
+public interface TestAttemptRepository extends MongoRepository<TestAttempt, String>, TestAttemptRepositoryCustom {
 
-    List<TestAttempt> findByUserId(String userId);
+    @Query(value = "{ 'userId': ?0, 'testId': ?1 }", fields = "{ 'status': 1 }")
+    List<TestAttempt> findStatusesByUserIdAndTestId(String userId, String testId);
 
-    List<TestAttempt> findByTestId(String testId);
+    @Query(value = "{ 'status': ?0 }", fields = "{ 'testId': 1, 'startedAt': 1, 'deadline': 1 }")
+    List<TestAttempt> findDeadlinesByStatus(TestAttempt.AttemptStatus status);
 
-    List<TestAttempt> findByUserIdAndTestId(String userId, String testId);
-
-    List<TestAttempt> findByStatus(TestAttempt.AttemptStatus status);
+    @Query(value = "{ 'status': ?0, 'submittedAt': { $lt: ?1 } }", fields = "{ '_id': 1 }")
+    List<TestAttempt> findIdsByStatusAndSubmittedAtBefore(TestAttempt.AttemptStatus status, LocalDateTime before, Pageable pageable);
 
     long countByTestId(String testId);
 
+    long countByTestIdAndStatus(String testId, TestAttempt.AttemptStatus status);
+
     long countByUserId(String userId);
+
+    long countByStatusIn(Collection<TestAttempt.AttemptStatus> statuses);
 }
@@ -0,0 +1,68 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.TestAttempt;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface TestAttemptRepositoryCustom {
+
+    // Replaces (or appends) the answer for its questionId in one conditional update.
+    // Returns false when the attempt is missing, no longer IN_PROGRESS or past its deadline.
+    boolean upsertAnswer(String attemptId, TestAttempt.Answer answer, LocalDateTime now);
+
+    // Same as upsertAnswer for a batch; questionIds in the batch are expected to be distinct.
+    // A null now skips the deadline check (answers that were accepted before the deadline) and also
+    // matches a SUBMITTED attempt that is still waiting to be graded.
+    boolean upsertAnswers(String attemptId, List<TestAttempt.Answer> answers, LocalDateTime now);
+
+    // Moves the attempt from IN_PROGRESS to SUBMITTED and returns it, or null when it was not IN_PROGRESS
+    TestAttempt claimSubmission(String attemptId, LocalDateTime submittedAt);
+
+    // Writes grading results (and the graded test version, when set) and GRADED status only while the
+    // attempt is still in the expected status.
+    // Returns how many attempts were updated; all updates go out in one unordered bulk write.
+    int saveGrades(List<TestAttempt> attempts, TestAttempt.AttemptStatus expected);
+
+    // The attempt without its answers: ids, status and revision, enough to answer a conditional GET. Null when missing
+    TestAttempt findStamp(String attemptId);
+
+    // Streams the GRADED attempts of a test from a server-side cursor with just the fields grading needs.
+    // The caller must close the stream.
+    Stream<TestAttempt> streamGradedByTestId(String testId, int batchSize);
+
+    // Streams testId and score of the GRADED attempts of one test, or of all tests when testId is null,
+    // graded before gradedBefore. The caller must close the stream.
+    Stream<TestAttempt> streamGradedScores(String testId, LocalDateTime gradedBefore, int batchSize);
+
+    // Streams the GRADED attempts of one test version, plus those with no version when includeUnversioned,
+    // with what item analysis reads: questionIndexes, score and the answers without their points.
+    // The caller must close the stream.
+    Stream<TestAttempt> streamForItemAnalysis(String testId, String versionId, boolean includeUnversioned, int batchSize);
+
+    // Streams every attempt of a test, oldest first, with the fields a report export needs
+    // (answers reduced to questionId and isCorrect). The caller must close the stream.
+    Stream<TestAttempt> streamForExport(String testId, int batchSize);
+
+    // Per-user totals over the GRADED attempts graded before the cutoff, grouped in Mongo; seeds the in-memory leaderboard
+    List<UserStanding> aggregateStandings(LocalDateTime gradedBefore);
+
+    // scoreSum and scored cover the attempts that have a score; testIds are the distinct tests attempted
+    record UserStanding(String userId, long attempts, long totalPoints, double scoreSum, long scored,
+                        Double bestScore, List<String> testIds) {
+    }
+
+    // Attempts started per day (in the server's time zone) since the given time
+    Map<LocalDate, Long> countStartedPerDay(LocalDateTime since);
+
+    // Per user and test totals over the GRADED attempts graded before gradedBefore. Attempts submitted at or
+    // after recentSince are further split by their day in the server's time zone; older ones come in rows with a null day.
+    List<UserTestStanding> aggregateTestStandings(LocalDateTime recentSince, LocalDateTime gradedBefore);
+
+    record UserTestStanding(String userId, String testId, LocalDate day, long attempts, long totalPoints,
+                            double scoreSum, long scored, Double bestScore) {
+    }
+}
@@ -0,0 +1,260 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.TestAttempt;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TestAttemptRepositoryImpl implements TestAttemptRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean upsertAnswer(String attemptId, TestAttempt.Answer answer, LocalDateTime now) {
+        return upsertAnswers(attemptId, List.of(answer), now);
+    }
+
+    @Override
+    public boolean upsertAnswers(String attemptId, List<TestAttempt.Answer> answers, LocalDateTime now) {
+        Criteria criteria = Criteria.where("id").is(attemptId);
+        if (now != null) {
+            criteria.and("status").is(TestAttempt.AttemptStatus.IN_PROGRESS)
+                    .orOperator(Criteria.where("deadline").is(null), Criteria.where("deadline").gt(now));
+        } else {
+            criteria.and("status").in(TestAttempt.AttemptStatus.IN_PROGRESS, TestAttempt.AttemptStatus.SUBMITTED);
+        }
+        Query query = new Query(criteria);
+
+        List<String> questionIds = new ArrayList<>(answers.size());
+        List<Document> documents = new ArrayList<>(answers.size());
+        for (TestAttempt.Answer answer : answers) {
+            questionIds.add(answer.getQuestionId());
+            documents.add(toDocument(answer));
+        }
+
+        // answers = answers.filter(a -> !questionIds.contains(a.questionId)) + batch, evaluated server-side
+        Document replaceAnswers = new Document("$set", new Document("answers", new Document("$concatArrays", List.of(
+                new Document("$filter", new Document("input", new Document("$ifNull", List.of("$answers", List.of())))
+                        .append("cond", new Document("$not", List.of(new Document("$in", List.of(
+                                "$$this.questionId", new Document("$literal", questionIds))))))),
+                new Document("$literal", documents))))
+                .append("revision", new Document("$add", List.of(new Document("$ifNull", List.of("$revision", 0L)), 1L))));
+
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> replaceAnswers));
+        return mongoTemplate.updateFirst(query, update, TestAttempt.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public TestAttempt claimSubmission(String attemptId, LocalDateTime submittedAt) {
+        Query query = new Query(Criteria.where("id").is(attemptId)
+                .and("status").is(TestAttempt.AttemptStatus.IN_PROGRESS));
+        Update update = new Update()
+                .set("status", TestAttempt.AttemptStatus.SUBMITTED)
+                .set("submittedAt", submittedAt)
+                .inc("revision", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), TestAttempt.class);
+    }
+
+    @Override
+    public int saveGrades(List<TestAttempt> attempts, TestAttempt.AttemptStatus expected) {
+        if (attempts.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TestAttempt.class);
+        for (TestAttempt attempt : attempts) {
+            Query query = new Query(Criteria.where("id").is(attempt.getId()).and("status").is(expected));
+            Update update = new Update()
+                    .set("status", TestAttempt.AttemptStatus.GRADED)
+                    .set("submittedAt", attempt.getSubmittedAt())
+                    .set("answers", attempt.getAnswers())
+                    .set("score", attempt.getScore())
+                    .set("totalPoints", attempt.getTotalPoints())
+                    .set("earnedPoints", attempt.getEarnedPoints())
+                    .inc("revision", 1);
+            if (attempt.getTestVersionId() != null) {
+                update.set("testVersionId", attempt.getTestVersionId());
+            }
+            if (attempt.getGradedAt() != null) {
+                update.set("gradedAt", attempt.getGradedAt());
+            }
+            if (attempt.getQuestionIndexes() != null) {
+                update.set("questionIndexes", attempt.getQuestionIndexes());
+            }
+            bulk.updateOne(query, update);
+        }
+        return bulk.execute().getMatchedCount();
+    }
+
+    @Override
+    public TestAttempt findStamp(String attemptId) {
+        Query query = new Query(Criteria.where("id").is(attemptId));
+        query.fields().include("testId", "testVersionId", "userId", "status", "revision");
+        return mongoTemplate.findOne(query, TestAttempt.class);
+    }
+
+    @Override
+    public Stream<TestAttempt> streamGradedByTestId(String testId, int batchSize) {
+        Query query = new Query(Criteria.where("testId").is(testId)
+                .and("status").is(TestAttempt.AttemptStatus.GRADED))
+                .cursorBatchSize(batchSize);
+        query.fields().include("testId", "testVersionId", "questionIndexes", "userId", "status", "submittedAt", "answers",
+                "score", "totalPoints", "earnedPoints");
+        return mongoTemplate.stream(query, TestAttempt.class);
+    }
+
+    @Override
+    public Stream<TestAttempt> streamGradedScores(String testId, LocalDateTime gradedBefore, int batchSize) {
+        Criteria criteria = gradedBefore(gradedBefore);
+        if (testId != null) {
+            criteria.and("testId").is(testId);
+        }
+        Query query = new Query(criteria).cursorBatchSize(batchSize);
+        query.fields().include("testId", "score");
+        return mongoTemplate.stream(query, TestAttempt.class);
+    }
+
+    @Override
+    public Stream<TestAttempt> streamForItemAnalysis(String testId, String versionId, boolean includeUnversioned, int batchSize) {
+        Criteria criteria = Criteria.where("testId").is(testId).and("status").is(TestAttempt.AttemptStatus.GRADED);
+        if (includeUnversioned) {
+            criteria.and("testVersionId").in(versionId, null);
+        } else {
+            criteria.and("testVersionId").is(versionId);
+        }
+        Query query = new Query(criteria).cursorBatchSize(batchSize);
+        query.fields().include("questionIndexes", "score", "answers.questionId", "answers.selectedChoices",
+                "answers.textAnswer", "answers.numericAnswer", "answers.isCorrect");
+        return mongoTemplate.stream(query, TestAttempt.class);
+    }
+
+    @Override
+    public Stream<TestAttempt> streamForExport(String testId, int batchSize) {
+        // Walks the {testId, startedAt, _id} index backwards, so there is no in-memory sort
+        Query query = new Query(Criteria.where("testId").is(testId))
+                .with(Sort.by(Sort.Direction.ASC, "startedAt", "_id"))
+                .cursorBatchSize(batchSize);
+        query.fields().include("testVersionId", "userId", "status", "startedAt", "submittedAt",
+                "score", "totalPoints", "earnedPoints", "answers.questionId", "answers.isCorrect");
+        return mongoTemplate.stream(query, TestAttempt.class);
+    }
+
+    @Override
+    public List<UserStanding> aggregateStandings(LocalDateTime gradedBefore) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(gradedBefore(gradedBefore)),
+                Aggregation.group("userId")
+                        .count().as("attempts")
+                        .sum("earnedPoints").as("totalPoints")
+                        .sum("score").as("scoreSum")
+                        .sum(ConditionalOperators.when(ComparisonOperators.valueOf("score").greaterThanEqualToValue(0))
+                                .then(1).otherwise(0)).as("scored")
+                        .max("score").as("bestScore")
+                        .addToSet("testId").as("testIds"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        List<UserStanding> standings = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, TestAttempt.class, Document.class)) {
+            if (row.get("_id") == null) continue;
+            Number best = row.get("bestScore", Number.class);
+            standings.add(new UserStanding(row.get("_id").toString(),
+                    row.get("attempts", Number.class).longValue(),
+                    row.get("totalPoints", Number.class).longValue(),
+                    row.get("scoreSum", Number.class).doubleValue(),
+                    row.get("scored", Number.class).longValue(),
+                    best != null ? best.doubleValue() : null,
+                    row.getList("testIds", String.class)));
+        }
+        return standings;
+    }
+
+    @Override
+    public Map<LocalDate, Long> countStartedPerDay(LocalDateTime since) {
+        ZoneId zone = ZoneId.systemDefault();
+        AggregationOperation group = context -> new Document("$group", new Document("_id", new Document("$dateToString",
+                new Document("format", "%Y-%m-%d").append("date", "$startedAt").append("timezone", zone.getId())))
+                .append("count", new Document("$sum", 1)));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("startedAt").gte(since)),
+                group);
+        Map<LocalDate, Long> perDay = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, TestAttempt.class, Document.class)) {
+            if (row.get("_id") == null) continue;
+            perDay.put(LocalDate.parse(row.getString("_id")), row.get("count", Number.class).longValue());
+        }
+        return perDay;
+    }
+
+    @Override
+    public List<UserTestStanding> aggregateTestStandings(LocalDateTime recentSince, LocalDateTime gradedBefore) {
+        // LocalDateTime is stored as the instant of that local time in the default zone
+        ZoneId zone = ZoneId.systemDefault();
+        Document day = new Document("$cond", List.of(
+                new Document("$gte", List.of("$submittedAt", Date.from(recentSince.atZone(zone).toInstant()))),
+                new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                        .append("date", "$submittedAt").append("timezone", zone.getId())),
+                null));
+        AggregationOperation group = context -> new Document("$group", new Document("_id", new Document("userId", "$userId")
+                .append("testId", "$testId").append("day", day))
+                .append("attempts", new Document("$sum", 1))
+                .append("totalPoints", new Document("$sum", "$earnedPoints"))
+                .append("scoreSum", new Document("$sum", "$score"))
+                .append("scored", new Document("$sum", new Document("$cond", List.of(
+                        new Document("$gte", List.of("$score", 0)), 1, 0))))
+                .append("bestScore", new Document("$max", "$score")));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(gradedBefore(gradedBefore)),
+                group)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        List<UserTestStanding> standings = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, TestAttempt.class, Document.class)) {
+            Document key = row.get("_id", Document.class);
+            if (key == null || key.get("userId") == null || key.get("testId") == null) continue;
+            Number best = row.get("bestScore", Number.class);
+            String rowDay = key.getString("day");
+            standings.add(new UserTestStanding(key.get("userId").toString(), key.get("testId").toString(),
+                    rowDay != null ? LocalDate.parse(rowDay) : null,
+                    row.get("attempts", Number.class).longValue(),
+                    row.get("totalPoints", Number.class).longValue(),
+                    row.get("scoreSum", Number.class).doubleValue(),
+                    row.get("scored", Number.class).longValue(),
+                    best != null ? best.doubleValue() : null));
+        }
+        return standings;
+    }
+
+    // GRADED attempts graded before the cutoff, and those graded before gradedAt was recorded
+    private static Criteria gradedBefore(LocalDateTime cutoff) {
+        return Criteria.where("status").is(TestAttempt.AttemptStatus.GRADED)
+                .orOperator(Criteria.where("gradedAt").lt(cutoff), Criteria.where("gradedAt").is(null));
+    }
+
+    private Document toDocument(TestAttempt.Answer answer) {
+        Document doc = new Document("questionId", answer.getQuestionId());
+        if (answer.getSelectedChoices() != null) doc.append("selectedChoices", answer.getSelectedChoices());
+        if (answer.getTextAnswer() != null) doc.append("textAnswer", answer.getTextAnswer());
+        if (answer.getNumericAnswer() != null) doc.append("numericAnswer", answer.getNumericAnswer());
+        return doc;
+    }
+}
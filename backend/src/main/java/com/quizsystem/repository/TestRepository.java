@@ -2,12 +2,14 @@ package com.quizsystem.repository;
 
 import com.quizsystem.model.Test;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TestRepository extends MongoRepository<Test, String> {
+public interface TestRepository extends MongoRepository<Test, String>, TestRepositoryCustom {
 
     List<Test> findByPublishedTrue();
 
@@ -15,5 +17,14 @@ public interface TestRepository extends MongoRepository<Test, String> {
 
     List<Test> findByTagsContaining(String tag);
 
-    List<Test> findByTitleContainingIgnoreCase(String title);
+    List<Test> findByCurrentVersionIdIsNull();
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'currentVersionId': 1 }")
+    Optional<Test> findVersionRefById(String id);
+
+    @Query(value = "{}", fields = "{ 'category': 1 }")
+    List<Test> findAllCategories();
+
+    @Query(value = "{}", fields = "{ 'published': 1 }")
+    List<Test> findAllPublishedFlags();
 }
@@ -0,0 +1,11 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.dto.TestSummary;
+
+import java.util.List;
+
+public interface TestRepositoryCustom {
+
+    // Published tests with their question count computed server-side; questions are never read
+    List<TestSummary> findPublishedSummaries();
+}
@@ -0,0 +1,39 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.dto.TestSummary;
+import com.quizsystem.model.Test;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AccumulatorOperators;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class TestRepositoryImpl implements TestRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<TestSummary> findPublishedSummaries() {
+        // Sampled tests show how many questions an attempt gets, not the size of the bank
+        AggregationExpression bankSize = ArrayOperators.Size.lengthOfArray(
+                ConditionalOperators.ifNull("questions").then(List.of()));
+        AggregationExpression hasSampling = ComparisonOperators.Gt.valueOf(ArrayOperators.Size.lengthOfArray(
+                ConditionalOperators.ifNull("sampling").then(List.of()))).greaterThanValue(0);
+        AggregationExpression drawn = AccumulatorOperators.Min.minOf(AccumulatorOperators.Sum.sumOf("sampling.count"))
+                .and(bankSize);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("published").is(true)),
+                Aggregation.project("title", "description", "category", "tags", "difficulty",
+                                "durationMinutes", "passingScore", "maxAttempts")
+                        .and(ConditionalOperators.when(hasSampling).then(drawn).otherwiseValueOf(bankSize))
+                        .as("questionCount"));
+        return mongoTemplate.aggregate(aggregation, Test.class, TestSummary.class).getMappedResults();
+    }
+}
@@ -0,0 +1,13 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.model.TestVersion;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TestVersionRepository extends MongoRepository<TestVersion, String> {
+
+    List<TestVersion> findByTestIdOrderByCreatedAtAsc(String testId);
+}
@@ -2,8 +2,11 @@ package com.quizsystem.repository;
 
 import com.quizsystem.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +15,12 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
 
     Boolean existsByEmail(String email);
+
+    long countByEmailVerifiedTrue();
+
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'name': 1, 'email': 1 }")
+    List<User> findNamesByIdIn(Collection<String> ids);
+
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'name': 1, 'avatar': 1 }")
+    List<User> findProfilesByIdIn(Collection<String> ids);
 }
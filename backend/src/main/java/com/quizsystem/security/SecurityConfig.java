@@ -42,7 +42,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/tests").permitAll()
                         .requestMatchers("/api/tests/{id}").permitAll()
                         .requestMatchers("/api/tests/search").permitAll()
+                        .requestMatchers("/api/tests/browse").permitAll()
                         .requestMatchers("/api/tests/leaderboard").permitAll()
+                        .requestMatchers("/api/tests/leaderboard/tests/*").permitAll()
+                        .requestMatchers("/api/tests/leaderboard/categories/*").permitAll()
                         .requestMatchers("/api/courses").permitAll()
                         .requestMatchers("/api/courses/search").permitAll()
                         .requestMatchers("/api/courses/my-progress").authenticated()
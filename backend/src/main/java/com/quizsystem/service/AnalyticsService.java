@@ -0,0 +1,326 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.AnalyticsReport;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.AttemptStartedEvent;
+import com.quizsystem.event.CourseChangedEvent;
+import com.quizsystem.model.AnalyticsSketch;
+import com.quizsystem.model.Course;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.AnalyticsSketchRepository;
+import com.quizsystem.repository.CourseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Approximate analytics per test, per course and overall, by day: distinct users who started an
+ * attempt (a {@link HyperLogLog}) and the scores of graded attempts ({@link ScoreStatistics}). A day
+ * is one analytics_sketches document per scope, so a range of days is a merge of fixed-size sketches
+ * and never a scan of test_attempts. Events add to pending deltas in memory, which are merged into
+ * Mongo with atomic $max/$inc updates every quiz.analytics.flush-interval-ms, so several instances
+ * can write the same day. Closed days are cached until a late delta touches them; today is reread
+ * once per flush interval, plus this instance's pending delta. An attempt counts towards the courses
+ * that contained its test when it was started or graded.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private static final String TEST = "test";
+    private static final String COURSE = "course";
+    private static final String GLOBAL = "global";
+    private static final String ALL = "all";
+
+    private final AnalyticsSketchRepository sketchRepository;
+    private final CourseRepository courseRepository;
+
+    @Value("${quiz.analytics.flush-interval-ms:10000}")
+    private long flushIntervalMs;
+
+    @Value("${quiz.analytics.cache-size:2048}")
+    private int cacheSize;
+
+    @Value("${quiz.analytics.max-days:366}")
+    private int maxDays;
+
+    // Not yet flushed, by sketch id; a delta is only touched inside compute on its key
+    private final Map<String, Delta> pending = new ConcurrentHashMap<>();
+
+    // testId -> ids of the courses that contain it
+    private volatile Map<String, List<String>> coursesByTest = Map.of();
+
+    private final Map<String, Cached> cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > cacheSize;
+        }
+    });
+
+    private record Cached(Sketch sketch, long loadedAt) {
+    }
+
+    // Read-only once built; queries merge into fresh copies
+    private record Sketch(HyperLogLog users, ScoreStatistics scores) {
+        static final Sketch EMPTY = new Sketch(new HyperLogLog(), new ScoreStatistics());
+    }
+
+    public AnalyticsReport getTestReport(String testId, LocalDate from, LocalDate to) {
+        return report(TEST, testId, from, to);
+    }
+
+    public AnalyticsReport getCourseReport(String courseId, LocalDate from, LocalDate to) {
+        return report(COURSE, courseId, from, to);
+    }
+
+    public AnalyticsReport getGlobalReport(LocalDate from, LocalDate to) {
+        return report(GLOBAL, ALL, from, to);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCourses() {
+        Map<String, List<String>> loaded = new HashMap<>();
+        for (Course course : courseRepository.findAllTestRefs()) {
+            Set<String> testIds = new HashSet<>();
+            if (course.getTestIds() != null) {
+                testIds.addAll(course.getTestIds());
+            }
+            if (course.getModules() != null) {
+                for (Course.CourseModule module : course.getModules()) {
+                    if (module.getTestIds() != null) {
+                        testIds.addAll(module.getTestIds());
+                    }
+                }
+            }
+            for (String testId : testIds) {
+                loaded.computeIfAbsent(testId, key -> new ArrayList<>()).add(course.getId());
+            }
+        }
+        coursesByTest = loaded;
+    }
+
+    // Courses are few and the projection is small, so any change reloads the whole mapping
+    @EventListener
+    public void onCourseChanged(CourseChangedEvent event) {
+        loadCourses();
+    }
+
+    @EventListener
+    public void onAttemptStarted(AttemptStartedEvent event) {
+        if (event.getUserId() == null || event.getTestId() == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        for (String[] scope : scopesOf(event.getTestId())) {
+            update(scope[0], scope[1], today, delta -> delta.users.add(event.getUserId()));
+        }
+    }
+
+    @EventListener
+    public void onAttemptGraded(AttemptGradedEvent event) {
+        TestAttempt attempt = event.getAttempt();
+        if (attempt.getScore() == null || attempt.getTestId() == null) {
+            return;
+        }
+        LocalDate day = attempt.getSubmittedAt() != null ? attempt.getSubmittedAt().toLocalDate() : LocalDate.now();
+        double score = attempt.getScore();
+        for (String[] scope : scopesOf(attempt.getTestId())) {
+            update(scope[0], scope[1], day, delta -> delta.scores.add(score));
+        }
+    }
+
+    // A delta that fails to merge goes back into pending and is retried on the next flush
+    @PreDestroy
+    @Scheduled(initialDelayString = "${quiz.analytics.flush-interval-ms:10000}",
+            fixedDelayString = "${quiz.analytics.flush-interval-ms:10000}")
+    public void flush() {
+        int flushed = 0;
+        for (String id : new ArrayList<>(pending.keySet())) {
+            Delta delta = pending.remove(id);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                AnalyticsSketch merged = sketchRepository.merge(delta.toDocument(id));
+                if (merged != null) {
+                    cache.put(id, new Cached(decode(merged), System.currentTimeMillis()));
+                }
+                flushed++;
+            } catch (RuntimeException e) {
+                pending.merge(id, delta, Delta::merge);
+                log.warn("Analytics flush failed, {} sketches left pending: {}", pending.size(), e.getMessage());
+                return;
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Analytics flushed {} sketches", flushed);
+        }
+    }
+
+    private AnalyticsReport report(String scope, String scopeId, LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate end = to != null ? to : today;
+        LocalDate start = from != null ? from : end;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) + 1 > maxDays) {
+            throw new IllegalArgumentException("Analytics range is limited to " + maxDays + " days");
+        }
+
+        HyperLogLog users = new HyperLogLog();
+        ScoreStatistics scores = new ScoreStatistics();
+        List<String> ids = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            String id = AnalyticsSketch.idOf(scope, scopeId, day);
+            ids.add(id);
+            Cached cached = cache.get(id);
+            if (cached != null && (day.isBefore(today) || now - cached.loadedAt() < flushIntervalMs)) {
+                users.merge(cached.sketch().users());
+                scores.merge(cached.sketch().scores());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Sketch> loaded = new HashMap<>();
+            sketchRepository.findAllById(missing).forEach(document -> loaded.put(document.getId(), decode(document)));
+            for (String id : missing) {
+                Sketch sketch = loaded.getOrDefault(id, Sketch.EMPTY);
+                // A flush that finished while this was loading holds the newer state; keep it
+                cache.merge(id, new Cached(sketch, now), (current, fresh) -> current.loadedAt() > now ? current : fresh);
+                users.merge(sketch.users());
+                scores.merge(sketch.scores());
+            }
+        }
+        for (String id : ids) {
+            pending.computeIfPresent(id, (key, delta) -> {
+                users.merge(delta.users);
+                scores.merge(delta.scores);
+                return delta;
+            });
+        }
+
+        boolean graded = scores.count() > 0;
+        return AnalyticsReport.builder()
+                .scope(scope)
+                .scopeId(scopeId)
+                .from(start)
+                .to(end)
+                .distinctUsers(users.estimate())
+                .attempts(scores.count())
+                .averageScore(graded ? scores.mean() : null)
+                .scoreStdDev(graded ? Math.sqrt(scores.variance()) : null)
+                .p50Score(scores.quantile(0.5))
+                .p90Score(scores.quantile(0.9))
+                .p99Score(scores.quantile(0.99))
+                .build();
+    }
+
+    private List<String[]> scopesOf(String testId) {
+        List<String[]> scopes = new ArrayList<>();
+        scopes.add(new String[]{TEST, testId});
+        for (String courseId : coursesByTest.getOrDefault(testId, List.of())) {
+            scopes.add(new String[]{COURSE, courseId});
+        }
+        scopes.add(new String[]{GLOBAL, ALL});
+        return scopes;
+    }
+
+    private void update(String scope, String scopeId, LocalDate day, Consumer<Delta> change) {
+        pending.compute(AnalyticsSketch.idOf(scope, scopeId, day), (id, delta) -> {
+            Delta target = delta != null ? delta : new Delta(scope, scopeId, day);
+            change.accept(target);
+            return target;
+        });
+    }
+
+    private static Sketch decode(AnalyticsSketch document) {
+        HyperLogLog users = new HyperLogLog();
+        if (document.getUsers() != null) {
+            document.getUsers().forEach((register, value) -> users.set(Integer.parseInt(register), value));
+        }
+        long[] bins = new long[ScoreStatistics.BINS];
+        if (document.getBins() != null) {
+            document.getBins().forEach((bin, count) -> bins[Integer.parseInt(bin)] = count);
+        }
+        long count = document.getCount() != null ? document.getCount() : 0;
+        ScoreStatistics scores = count == 0 ? new ScoreStatistics() : ScoreStatistics.restore(count,
+                document.getScoreSum(), document.getScoreSquares(), document.getScoreMin(), document.getScoreMax(), bins);
+        return new Sketch(users, scores);
+    }
+
+    private static final class Delta {
+        final String scope;
+        final String scopeId;
+        final LocalDate day;
+        final HyperLogLog users = new HyperLogLog();
+        final ScoreStatistics scores = new ScoreStatistics();
+
+        Delta(String scope, String scopeId, LocalDate day) {
+            this.scope = scope;
+            this.scopeId = scopeId;
+            this.day = day;
+        }
+
+        Delta merge(Delta other) {
+            users.merge(other.users);
+            scores.merge(other.scores);
+            return this;
+        }
+
+        // Only non-zero registers and bins are written
+        AnalyticsSketch toDocument(String id) {
+            Map<String, Integer> registers = new HashMap<>();
+            for (int i = 0; i < HyperLogLog.REGISTERS; i++) {
+                if (users.get(i) > 0) {
+                    registers.put(Integer.toString(i), users.get(i));
+                }
+            }
+            Map<String, Long> bins = new HashMap<>();
+            long[] counts = scores.bins();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    bins.put(Integer.toString(i), counts[i]);
+                }
+            }
+            boolean graded = scores.count() > 0;
+            return AnalyticsSketch.builder()
+                    .id(id)
+                    .scope(scope)
+                    .scopeId(scopeId)
+                    .day(day)
+                    .users(registers)
+                    .count(scores.count())
+                    .scoreSum(graded ? scores.sum() : null)
+                    .scoreSquares(graded ? scores.sumOfSquares() : null)
+                    .scoreMin(graded ? scores.min() : null)
+                    .scoreMax(graded ? scores.max() : null)
+                    .bins(bins)
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.quizsystem.service;
+
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-compiled grading view of a {@link Test}. Question ids are mapped to dense
+ * indexes, correct choices are stored as bitsets and NUMERIC answers are parsed once, so
+ * grading an attempt is a single pass over its answers.
+ */
+public final class AnswerKey {
+
+    private final String testId;
+    private final String versionId;
+    private final Map<String, Integer> questionIndex;
+    private final Test.QuestionType[] types;
+    private final int[] points;
+    private final Map<String, Integer>[] choiceIndex;
+    private final BitSet[] correctChoices;
+    private final int[] correctCount;
+    private final String[] numericText;
+    private final BigDecimal[] numericValue;
+    private final int totalPoints;
+
+    @SuppressWarnings("unchecked")
+    private AnswerKey(Test test) {
+        List<Test.Question> questions = test.getQuestions() != null ? test.getQuestions() : List.of();
+        int size = questions.size();
+
+        this.testId = test.getId();
+        this.versionId = test.getCurrentVersionId();
+        this.questionIndex = new HashMap<>(size * 2);
+        this.types = new Test.QuestionType[size];
+        this.points = new int[size];
+        this.choiceIndex = new Map[size];
+        this.correctChoices = new BitSet[size];
+        this.correctCount = new int[size];
+        this.numericText = new String[size];
+        this.numericValue = new BigDecimal[size];
+
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            Test.Question question = questions.get(i);
+            // First occurrence wins, same as the old stream().findFirst() lookup
+            if (question.getId() != null) {
+                questionIndex.putIfAbsent(question.getId(), i);
+            }
+            types[i] = question.getType();
+            points[i] = question.getPoints() != null ? question.getPoints() : 0;
+            total += points[i];
+
+            List<Test.Choice> choices = question.getChoices() != null ? question.getChoices() : List.of();
+            Map<String, Integer> ids = new HashMap<>(choices.size() * 2);
+            BitSet correct = new BitSet(choices.size());
+            for (int c = 0; c < choices.size(); c++) {
+                Test.Choice choice = choices.get(c);
+                if (choice.getId() == null) continue;
+                Integer bit = ids.putIfAbsent(choice.getId(), c);
+                if (Boolean.TRUE.equals(choice.getIsCorrect())) {
+                    correct.set(bit != null ? bit : c);
+                }
+            }
+            choiceIndex[i] = ids;
+            correctChoices[i] = correct;
+            correctCount[i] = correct.cardinality();
+
+            if (question.getCorrectAnswer() != null) {
+                numericText[i] = question.getCorrectAnswer().trim();
+                numericValue[i] = parseNumber(numericText[i]);
+            }
+        }
+        this.totalPoints = total;
+    }
+
+    public static AnswerKey compile(Test test) {
+        return new AnswerKey(test);
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public String getVersionId() {
+        return versionId;
+    }
+
+    public int getQuestionCount() {
+        return types.length;
+    }
+
+    public int getTotalPoints() {
+        return totalPoints;
+    }
+
+    /**
+     * Grades the attempt in place: sets isCorrect/pointsAwarded on every answer that belongs
+     * to a question of this key, plus the attempt totals and score. Status is left untouched.
+     * Attempts with sampled questions are graded, and totalled, on those questions only.
+     */
+    public void grade(TestAttempt attempt) {
+        BitSet sampled = sampled(attempt.getQuestionIndexes());
+        int total = totalPoints;
+        if (sampled != null) {
+            total = 0;
+            for (int q = sampled.nextSetBit(0); q >= 0; q = sampled.nextSetBit(q + 1)) {
+                total += points[q];
+            }
+        }
+
+        int earned = 0;
+        List<TestAttempt.Answer> answers = attempt.getAnswers();
+        if (answers != null && !answers.isEmpty()) {
+            BitSet seen = new BitSet(types.length);
+            for (TestAttempt.Answer answer : answers) {
+                if (answer.getQuestionId() == null) continue;
+                Integer q = questionIndex.get(answer.getQuestionId());
+                if (q == null || seen.get(q) || (sampled != null && !sampled.get(q))) continue;
+                seen.set(q);
+
+                boolean correct = isCorrect(q, answer);
+                int awarded = correct ? points[q] : 0;
+                answer.setIsCorrect(correct);
+                answer.setPointsAwarded(awarded);
+                earned += awarded;
+            }
+        }
+
+        attempt.setTotalPoints(total);
+        attempt.setEarnedPoints(earned);
+        attempt.setScore(total > 0 ? (double) earned / total * 100 : 0);
+    }
+
+    // Positions outside this key (e.g. from a corrupted attempt) are ignored
+    private BitSet sampled(List<Integer> indexes) {
+        if (indexes == null) {
+            return null;
+        }
+        BitSet sampled = new BitSet(types.length);
+        for (Integer q : indexes) {
+            if (q != null && q >= 0 && q < types.length) sampled.set(q);
+        }
+        return sampled;
+    }
+
+    public boolean isCorrect(int q, TestAttempt.Answer answer) {
+        if (types[q] == null) {
+            return false;
+        }
+        switch (types[q]) {
+            case SINGLE:
+            case TRUEFALSE:
+                return isSingleChoiceCorrect(q, answer.getSelectedChoices());
+            case MULTIPLE:
+                return isMultipleChoiceCorrect(q, answer.getSelectedChoices());
+            case NUMERIC:
+                return isNumericCorrect(q, answer.getNumericAnswer());
+            case OPEN:
+            default:
+                return false;
+        }
+    }
+
+    public Integer indexOf(String questionId) {
+        return questionIndex.get(questionId);
+    }
+
+    private boolean isSingleChoiceCorrect(int q, List<String> selected) {
+        if (selected == null || selected.isEmpty() || selected.get(0) == null) {
+            return false;
+        }
+        Integer bit = choiceIndex[q].get(selected.get(0));
+        return bit != null && correctChoices[q].get(bit);
+    }
+
+    private boolean isMultipleChoiceCorrect(int q, List<String> selected) {
+        if (selected == null || selected.size() != correctCount[q]) {
+            return false;
+        }
+        // Selection must be exactly the correct set: same size, every pick correct, no repeats
+        BitSet correct = correctChoices[q];
+        Map<String, Integer> index = choiceIndex[q];
+        for (int i = 0; i < selected.size(); i++) {
+            String id = selected.get(i);
+            Integer bit = id != null ? index.get(id) : null;
+            if (bit == null || !correct.get(bit)) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (id.equals(selected.get(j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isNumericCorrect(int q, String given) {
+        if (given == null || numericText[q] == null) {
+            return false;
+        }
+        String trimmed = given.trim();
+        if (trimmed.equals(numericText[q])) {
+            return true;
+        }
+        if (numericValue[q] == null) {
+            return false;
+        }
+        BigDecimal value = parseNumber(trimmed);
+        return value != null && value.compareTo(numericValue[q]) == 0;
+    }
+
+    private static BigDecimal parseNumber(String text) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.quizsystem.service;
+
+import com.quizsystem.model.Test;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class AnswerKeyCache {
+
+    private final Map<String, AnswerKey> keys = new ConcurrentHashMap<>();
+
+    // Keyed by test version; versions are immutable, so a compiled key never needs invalidating
+    public AnswerKey get(Test test) {
+        if (test.getCurrentVersionId() == null) {
+            return AnswerKey.compile(test);
+        }
+        return keys.computeIfAbsent(test.getCurrentVersionId(), id -> AnswerKey.compile(test));
+    }
+}
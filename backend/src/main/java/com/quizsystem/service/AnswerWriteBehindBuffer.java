@@ -0,0 +1,352 @@
+package com.quizsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.TestAttemptRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Optional write-behind layer for attempt answers. Answers are appended (and fsynced) to a
+ * local journal before they are acknowledged, coalesced per attempt and question in memory,
+ * and written to Mongo in batches on a short interval. Journal segments are deleted only after
+ * their answers reached Mongo, and any segments left behind by a crash are replayed on startup,
+ * before the first request can append.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerWriteBehindBuffer {
+
+    private static final String SEGMENT_PREFIX = "answers-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final TestAttemptRepository attemptRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${quiz.attempts.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${quiz.attempts.write-behind.journal-dir:data/answer-journal}")
+    private String journalDir;
+
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+
+    // attemptId -> (questionId -> latest answer), guarded by lock
+    private Map<String, Map<String, TestAttempt.Answer>> pending = new HashMap<>();
+
+    // Attempts known to be IN_PROGRESS, with their deadline (LocalDateTime.MAX when untimed).
+    // SEALED marks an attempt being submitted; it stays closed until grading flushes it
+    private final Map<String, LocalDateTime> openAttempts = new ConcurrentHashMap<>();
+
+    private static final LocalDateTime SEALED = LocalDateTime.MIN;
+
+    private FileChannel journal;
+    private long segment;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isOpen(String attemptId, LocalDateTime now) {
+        LocalDateTime deadline = openAttempts.get(attemptId);
+        return deadline != null && now.isBefore(deadline);
+    }
+
+    // Does not reopen a sealed attempt
+    public void open(String attemptId, LocalDateTime deadline) {
+        openAttempts.compute(attemptId, (id, current) ->
+                current == SEALED ? SEALED : deadline != null ? deadline : LocalDateTime.MAX);
+    }
+
+    /**
+     * Closes the attempt for buffering before it leaves IN_PROGRESS. Appends are checked under the
+     * same lock, so once this returns no further answer is accepted, and a save that read the
+     * attempt as IN_PROGRESS just before cannot reopen it.
+     */
+    public void seal(String attemptId) {
+        synchronized (lock) {
+            openAttempts.put(attemptId, SEALED);
+        }
+    }
+
+    // Drops the attempt's entry without flushing, for an attempt that is already graded
+    public void forget(String attemptId) {
+        openAttempts.remove(attemptId);
+    }
+
+    /**
+     * Journals and buffers the answers if the attempt is still open at now; once this returns
+     * true they survive a crash. False means nothing was accepted and the caller writes directly.
+     */
+    public boolean append(String attemptId, List<TestAttempt.Answer> answers, LocalDateTime now) {
+        synchronized (lock) {
+            if (!isOpen(attemptId, now)) {
+                return false;
+            }
+            journal(attemptId, answers);
+            return true;
+        }
+    }
+
+    // Caller holds lock
+    private void journal(String attemptId, List<TestAttempt.Answer> answers) {
+        try {
+            ensureJournal();
+            StringBuilder lines = new StringBuilder();
+            for (TestAttempt.Answer answer : answers) {
+                lines.append(objectMapper.writeValueAsString(new JournalEntry(attemptId, answer))).append('\n');
+            }
+            journal.write(ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8)));
+            journal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal answers for attempt " + attemptId, e);
+        }
+        Map<String, TestAttempt.Answer> byQuestion = pending.computeIfAbsent(attemptId, id -> new LinkedHashMap<>());
+        for (TestAttempt.Answer answer : answers) {
+            byQuestion.remove(answer.getQuestionId());
+            byQuestion.put(answer.getQuestionId(), answer);
+        }
+    }
+
+    /**
+     * Writes the buffered answers of this attempt to Mongo right away and closes it for buffering.
+     * Waits for a running flush first, so afterwards the document holds every acknowledged answer.
+     * Called right before an attempt is graded; returns whether anything was written.
+     */
+    public boolean flushAttempt(String attemptId) {
+        openAttempts.remove(attemptId);
+        synchronized (flushLock) {
+            Map<String, TestAttempt.Answer> answers;
+            synchronized (lock) {
+                answers = pending.remove(attemptId);
+            }
+            if (answers == null || answers.isEmpty()) {
+                return false;
+            }
+            try {
+                attemptRepository.upsertAnswers(attemptId, new ArrayList<>(answers.values()), null);
+            } catch (RuntimeException e) {
+                // Still journaled; put them back for the next flush, newer answers win
+                synchronized (lock) {
+                    Map<String, TestAttempt.Answer> current = pending.computeIfAbsent(attemptId, id -> new LinkedHashMap<>());
+                    answers.forEach(current::putIfAbsent);
+                }
+                throw e;
+            }
+            log.debug("Flushed {} buffered answers of attempt {} before grading", answers.size(), attemptId);
+            return true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.attempts.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            long flushedSegment;
+            Map<String, Map<String, TestAttempt.Answer>> inFlight;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                inFlight = pending;
+                pending = new HashMap<>();
+                flushedSegment = rotate();
+            }
+
+            Map<String, Map<String, TestAttempt.Answer>> failed = new HashMap<>();
+            int written = 0;
+            for (Map.Entry<String, Map<String, TestAttempt.Answer>> entry : inFlight.entrySet()) {
+                try {
+                    // Deadline was checked when the answers were accepted, so only the status is re-checked here
+                    if (attemptRepository.upsertAnswers(entry.getKey(), new ArrayList<>(entry.getValue().values()), null)) {
+                        written += entry.getValue().size();
+                    } else {
+                        // Graded or deleted meanwhile; grading flushes an attempt's answers before it reads them
+                        openAttempts.remove(entry.getKey());
+                        log.warn("Dropped {} buffered answers for closed attempt {}", entry.getValue().size(), entry.getKey());
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Failed to flush answers for attempt {}: {}", entry.getKey(), e.getMessage());
+                    failed.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            synchronized (lock) {
+                // Newer answers already in pending win; re-journal the rest before old segments go away
+                failed.forEach((attemptId, answers) -> {
+                    Map<String, TestAttempt.Answer> current = pending.get(attemptId);
+                    List<TestAttempt.Answer> retry = new ArrayList<>();
+                    answers.forEach((questionId, answer) -> {
+                        if (current == null || !current.containsKey(questionId)) retry.add(answer);
+                    });
+                    if (!retry.isEmpty()) journal(attemptId, retry);
+                });
+            }
+            deleteSegmentsUpTo(flushedSegment);
+            log.debug("Flushed {} buffered answers, {} attempts retried", written, failed.size());
+        }
+    }
+
+    /**
+     * Loads segments left behind by a crash into pending and continues numbering after the last
+     * one. Runs before the web server accepts requests: an append before this would reopen an old
+     * segment number, and the next flush would delete that segment with its unreplayed answers.
+     */
+    @PostConstruct
+    public void replayJournal() {
+        if (!enabled) {
+            return;
+        }
+        int replayed = 0;
+        synchronized (lock) {
+            for (Path file : listSegments()) {
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) continue;
+                        JournalEntry entry;
+                        try {
+                            entry = objectMapper.readValue(line, JournalEntry.class);
+                        } catch (IOException e) {
+                            // A torn tail from a crash mid-write; that answer was never acknowledged
+                            log.warn("Skipping unreadable journal line in {}", file.getFileName());
+                            continue;
+                        }
+                        Map<String, TestAttempt.Answer> byQuestion =
+                                pending.computeIfAbsent(entry.getAttemptId(), id -> new LinkedHashMap<>());
+                        byQuestion.remove(entry.getAnswer().getQuestionId());
+                        byQuestion.put(entry.getAnswer().getQuestionId(), entry.getAnswer());
+                        replayed++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to replay answer journal " + file, e);
+                }
+                segment = Math.max(segment, segmentNumber(file));
+            }
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} journaled answers for {} attempts", replayed, pending.size());
+        }
+    }
+
+    // Writes the replayed answers to Mongo as soon as the application is up, not on the first tick
+    @EventListener(ApplicationReadyEvent.class)
+    public void flushReplayed() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        synchronized (lock) {
+            closeJournal();
+        }
+    }
+
+    private void ensureJournal() throws IOException {
+        if (journal == null) {
+            Files.createDirectories(Paths.get(journalDir));
+            segment++;
+            journal = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    // Closes the current segment; the next append opens a new one. Returns the closed segment number.
+    private long rotate() {
+        closeJournal();
+        return segment;
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Failed to close answer journal: {}", e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    private void deleteSegmentsUpTo(long last) {
+        for (Path file : listSegments()) {
+            if (segmentNumber(file) <= last) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Failed to delete journal segment {}: {}", file.getFileName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private List<Path> listSegments() {
+        Path dir = Paths.get(journalDir);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.comparingLong(AnswerWriteBehindBuffer::segmentNumber))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list answer journal " + dir, e);
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return Paths.get(journalDir, String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class JournalEntry {
+        private String attemptId;
+        private TestAttempt.Answer answer;
+    }
+}
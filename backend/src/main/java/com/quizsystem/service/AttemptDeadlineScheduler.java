@@ -0,0 +1,126 @@
+package com.quizsystem.service;
+
+import com.quizsystem.event.AttemptStartedEvent;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.TestAttemptRepository;
+import com.quizsystem.repository.TestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the deadline of every IN_PROGRESS attempt in a delay queue and auto-submits attempts
+ * once their deadline (plus the submit grace period) has passed, so abandoned attempts get graded
+ * without the user coming back. The queue is rebuilt from Mongo on startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AttemptDeadlineScheduler {
+
+    private final TestAttemptRepository attemptRepository;
+    private final TestRepository testRepository;
+    private final TestAttemptService attemptService;
+
+    @Value("${quiz.attempts.deadline-scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quiz.attempts.deadline-scheduler.batch-size:200}")
+    private int batchSize;
+
+    @Value("${quiz.attempts.deadline-scheduler.grace-seconds:30}")
+    private long graceSeconds;
+
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<TestAttempt> open = attemptRepository.findDeadlinesByStatus(TestAttempt.AttemptStatus.IN_PROGRESS);
+        // Attempts started before deadlines were stored fall back to startedAt + the test's duration
+        Map<String, Optional<Integer>> durations = new HashMap<>();
+        int scheduled = 0;
+        for (TestAttempt attempt : open) {
+            LocalDateTime deadline = attempt.getDeadline();
+            if (deadline == null && attempt.getStartedAt() != null) {
+                Optional<Integer> minutes = durations.computeIfAbsent(attempt.getTestId(),
+                        id -> testRepository.findById(id).map(Test::getDurationMinutes));
+                deadline = minutes.map(m -> attempt.getStartedAt().plusMinutes(m)).orElse(null);
+            }
+            if (deadline != null) {
+                schedule(attempt.getId(), deadline);
+                scheduled++;
+            }
+        }
+        log.info("Deadline scheduler tracking {} of {} in-progress attempts", scheduled, open.size());
+    }
+
+    @EventListener
+    public void onAttemptStarted(AttemptStartedEvent event) {
+        if (enabled && event.getDeadline() != null) {
+            schedule(event.getAttemptId(), event.getDeadline());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.attempts.deadline-scheduler.sweep-interval-ms:1000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        List<Deadline> due = new ArrayList<>();
+        while (deadlines.drainTo(due, batchSize) > 0) {
+            List<String> attemptIds = due.stream().map(Deadline::attemptId).toList();
+            try {
+                int submitted = attemptService.autoSubmitExpired(attemptIds);
+                if (submitted > 0) {
+                    log.info("Auto-submitted {} expired attempts", submitted);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to auto-submit {} expired attempts, retrying later: {}", attemptIds.size(), e.getMessage());
+                due.forEach(d -> deadlines.add(new Deadline(d.attemptId(), System.currentTimeMillis() + 10_000)));
+                return;
+            }
+            due.clear();
+        }
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    private void schedule(String attemptId, LocalDateTime deadline) {
+        long dueAt = deadline.plusSeconds(graceSeconds).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        deadlines.add(new Deadline(attemptId, dueAt));
+    }
+
+    private record Deadline(String attemptId, long dueAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Deadline) other).dueAtMillis);
+        }
+    }
+}
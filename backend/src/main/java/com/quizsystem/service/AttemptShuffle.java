@@ -0,0 +1,96 @@
+package com.quizsystem.service;
+
+import com.quizsystem.model.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-attempt question and choice order, derived from the attempt's shuffle seed with SplitMix64
+ * and a Fisher-Yates shuffle. The order is a pure function of the seed and the test content, so
+ * delivery and review reproduce it without storing a permutation. Grading matches answers by
+ * question and choice id and does not depend on order at all.
+ */
+public final class AttemptShuffle {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private AttemptShuffle() {
+    }
+
+    /**
+     * Copy of the test with the attempt's questions (all, or the sampled positions) in delivery
+     * order. The given test is not modified.
+     */
+    public static Test apply(Test test, List<Integer> sampled, Long seed) {
+        if (test.getQuestions() == null || (sampled == null && seed == null)) {
+            return test;
+        }
+        int[] positions = questionOrder(test.getQuestions().size(), sampled, seed);
+        List<Test.Question> questions = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            questions.add(question(test.getQuestions().get(position), position, seed));
+        }
+        return test.toBuilder().questions(questions).build();
+    }
+
+    // Bank positions of the attempt's questions, in the order the student sees them
+    public static int[] questionOrder(int bankSize, List<Integer> sampled, Long seed) {
+        int[] positions;
+        if (sampled == null) {
+            positions = new int[bankSize];
+            for (int i = 0; i < bankSize; i++) {
+                positions[i] = i;
+            }
+        } else {
+            positions = sampled.stream().filter(p -> p != null && p >= 0 && p < bankSize)
+                    .mapToInt(Integer::intValue).toArray();
+        }
+        if (seed != null) {
+            shuffle(positions, seed);
+        }
+        return positions;
+    }
+
+    /**
+     * The question at the given bank position with its choices in this seed's order. The choice
+     * seed depends on the question, not on where it lands, so it is the same whatever page it is
+     * served on. Choices of TRUEFALSE questions keep their order.
+     */
+    public static Test.Question question(Test.Question question, int position, Long seed) {
+        List<Test.Choice> source = question.getChoices();
+        if (seed == null || source == null || source.size() < 2 || question.getType() == Test.QuestionType.TRUEFALSE) {
+            return question;
+        }
+        long key = question.getId() != null ? question.getId().hashCode() : position;
+        int[] order = new int[source.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        shuffle(order, mix(seed ^ mix(key + GOLDEN_GAMMA)));
+        List<Test.Choice> choices = new ArrayList<>(source.size());
+        for (int i : order) {
+            choices.add(source.get(i));
+        }
+        return question.toBuilder().choices(choices).build();
+    }
+
+    private static void shuffle(int[] values, long seed) {
+        long state = seed;
+        for (int i = values.length - 1; i > 0; i--) {
+            state += GOLDEN_GAMMA;
+            // Top 31 bits scaled to [0, i]
+            int j = (int) (((mix(state) >>> 33) * (i + 1)) >>> 31);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    // SplitMix64 output function
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
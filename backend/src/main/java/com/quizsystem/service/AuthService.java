@@ -3,6 +3,7 @@ package com.quizsystem.service;
 import com.quizsystem.dto.AuthRequest;
 import com.quizsystem.dto.AuthResponse;
 import com.quizsystem.dto.RegisterRequest;
+import com.quizsystem.event.UserChangedEvent;
 import com.quizsystem.model.EmailVerificationToken;
 import com.quizsystem.model.PasswordResetToken;
 import com.quizsystem.model.User;
@@ -12,6 +13,7 @@ import com.quizsystem.repository.UserRepository;
 import com.quizsystem.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -39,6 +41,7 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final SecureRandom RANDOM = new SecureRandom();
 
@@ -61,6 +64,7 @@ public class AuthService {
                 .build();
 
         user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user, true, false));
 
         sendVerificationCode(user);
 
@@ -98,6 +102,7 @@ public class AuthService {
 
         user.setEmailVerified(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user, false, false));
 
         UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
         String jwtToken = jwtUtil.generateToken(userDetails, user.getRole().name());
@@ -0,0 +1,203 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.CatalogBrowseResponse;
+import com.quizsystem.dto.TestSummary;
+import com.quizsystem.event.CourseChangedEvent;
+import com.quizsystem.event.TestChangedEvent;
+import com.quizsystem.model.Course;
+import com.quizsystem.model.Test;
+import com.quizsystem.repository.CourseRepository;
+import com.quizsystem.repository.TestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Full-text search over published tests and courses, and faceted filtering of the test catalog,
+ * answered from memory without touching Mongo. The indexes are loaded at startup, updated from
+ * TestChangedEvent / CourseChangedEvent, and reloaded on an interval to pick up edits made through
+ * other instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogSearch {
+
+    private final TestRepository testRepository;
+    private final CourseRepository courseRepository;
+
+    @Value("${quiz.search.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${quiz.search.max-limit:100}")
+    private int maxLimit;
+
+    private final TextIndex testIndex = new TextIndex();
+    private final TextIndex courseIndex = new TextIndex();
+    private final FacetIndex testFacets = new FacetIndex();
+    private final Map<String, TestSummary> tests = new ConcurrentHashMap<>();
+    private final Map<String, Course> courses = new ConcurrentHashMap<>();
+
+    // Serializes reloads and change events, so an event is never overwritten by an older reload
+    private final Object updateLock = new Object();
+
+    public List<TestSummary> searchTests(String query, Integer limit) {
+        return resolve(testIndex.search(query, clamp(limit)), tests);
+    }
+
+    /**
+     * Published tests matching the facet filters (any of the values within a facet, all facets),
+     * optionally narrowed by a full-text query, with counts per facet value.
+     * Ordered by relevance when there is a query, by title otherwise.
+     */
+    public CatalogBrowseResponse browseTests(String query, Map<String, ? extends Collection<String>> filters, Integer limit) {
+        boolean hasQuery = query != null && !query.isBlank();
+        List<String> hits = hasQuery
+                ? testIndex.search(query, Integer.MAX_VALUE).stream().map(TextIndex.Hit::id).toList()
+                : null;
+        FacetIndex.Result result = testFacets.query(filters, hits);
+
+        List<TestSummary> items;
+        if (hasQuery) {
+            Set<String> matches = new HashSet<>(result.ids());
+            items = hits.stream().filter(matches::contains).map(tests::get).filter(Objects::nonNull).toList();
+        } else {
+            items = result.ids().stream().map(tests::get).filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(t -> t.getTitle() != null ? t.getTitle().toLowerCase(Locale.ROOT) : ""))
+                    .toList();
+        }
+        return CatalogBrowseResponse.builder()
+                .items(items.stream().limit(clamp(limit)).toList())
+                .total(items.size())
+                .facets(result.counts())
+                .build();
+    }
+
+    public List<Course> searchCourses(String query, Integer limit) {
+        return resolve(courseIndex.search(query, clamp(limit)), courses);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${quiz.search.reload-interval-ms:600000}",
+            fixedDelayString = "${quiz.search.reload-interval-ms:600000}")
+    public void reload() {
+        long started = System.nanoTime();
+        synchronized (updateLock) {
+            Set<String> testIds = new HashSet<>();
+            for (TestSummary summary : testRepository.findPublishedSummaries()) {
+                putTest(summary);
+                testIds.add(summary.getId());
+            }
+            removeMissing(tests, testIds, testIndex::remove, testFacets::remove);
+
+            Set<String> courseIds = new HashSet<>();
+            for (Course course : courseRepository.findByPublishedTrue()) {
+                putCourse(course);
+                courseIds.add(course.getId());
+            }
+            removeMissing(courses, courseIds, courseIndex::remove);
+        }
+        log.info("Search index loaded: {} tests, {} courses in {} ms", tests.size(), courses.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onTestChanged(TestChangedEvent event) {
+        synchronized (updateLock) {
+            Test test = event.getTest();
+            if (test != null && Boolean.TRUE.equals(test.getPublished())) {
+                putTest(TestSummary.of(test));
+            } else {
+                tests.remove(event.getTestId());
+                testIndex.remove(event.getTestId());
+                testFacets.remove(event.getTestId());
+            }
+        }
+    }
+
+    @EventListener
+    public void onCourseChanged(CourseChangedEvent event) {
+        synchronized (updateLock) {
+            Course course = event.getCourse();
+            if (course != null && Boolean.TRUE.equals(course.getPublished())) {
+                putCourse(course);
+            } else {
+                courses.remove(event.getCourseId());
+                courseIndex.remove(event.getCourseId());
+            }
+        }
+    }
+
+    // Title counts most, then tags and category, then the description
+    private void putTest(TestSummary test) {
+        List<TextIndex.Field> fields = new ArrayList<>();
+        fields.add(new TextIndex.Field(test.getTitle(), 3f));
+        if (test.getTags() != null) {
+            test.getTags().forEach(tag -> fields.add(new TextIndex.Field(tag, 2f)));
+        }
+        fields.add(new TextIndex.Field(test.getCategory(), 1.5f));
+        fields.add(new TextIndex.Field(test.getDescription(), 1f));
+        testIndex.put(test.getId(), fields);
+        testFacets.put(test.getId(), Map.of(
+                "category", test.getCategory() != null ? List.of(test.getCategory()) : List.of(),
+                "tag", test.getTags() != null ? test.getTags() : List.of(),
+                "difficulty", test.getDifficulty() != null ? List.of(test.getDifficulty().name()) : List.of(),
+                "duration", List.of(durationBucket(test.getDurationMinutes()))));
+        tests.put(test.getId(), test);
+    }
+
+    static String durationBucket(Integer minutes) {
+        if (minutes == null || minutes <= 0) return "untimed";
+        if (minutes <= 15) return "0-15";
+        if (minutes <= 30) return "16-30";
+        if (minutes <= 60) return "31-60";
+        return "60+";
+    }
+
+    // Courses have no tags; module titles play that part
+    private void putCourse(Course course) {
+        List<TextIndex.Field> fields = new ArrayList<>();
+        fields.add(new TextIndex.Field(course.getTitle(), 3f));
+        if (course.getModules() != null) {
+            course.getModules().forEach(module -> fields.add(new TextIndex.Field(module.getTitle(), 1.5f)));
+        }
+        fields.add(new TextIndex.Field(course.getCategory(), 1.5f));
+        fields.add(new TextIndex.Field(course.getDescription(), 1f));
+        courseIndex.put(course.getId(), fields);
+        courses.put(course.getId(), course);
+    }
+
+    @SafeVarargs
+    private static <T> void removeMissing(Map<String, T> documents, Set<String> present, Consumer<String>... indexes) {
+        for (String id : new ArrayList<>(documents.keySet())) {
+            if (!present.contains(id)) {
+                documents.remove(id);
+                for (Consumer<String> index : indexes) index.accept(id);
+            }
+        }
+    }
+
+    private static <T> List<T> resolve(List<TextIndex.Hit> hits, Map<String, T> documents) {
+        return hits.stream().map(hit -> documents.get(hit.id())).filter(Objects::nonNull).toList();
+    }
+
+    private int clamp(Integer limit) {
+        return limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+    }
+}
@@ -34,7 +34,6 @@ public class CertificateService {
 
     private final CertificateRepository certificateRepository;
     private final TestAttemptService attemptService;
-    private final TestService testService;
     private final UserRepository userRepository;
 
     @Value("${app.base-url:http://localhost:3000}")
@@ -47,7 +46,7 @@ public class CertificateService {
         }
 
         TestAttempt attempt = attemptService.getAttemptById(attemptId);
-        Test test = testService.getTestById(attempt.getTestId());
+        Test test = attemptService.getAttemptTest(attempt);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -80,6 +79,11 @@ public class CertificateService {
         return certificateRepository.findByUserId(userId);
     }
 
+    // An index lookup, for answering a conditional download without loading or rendering the certificate
+    public boolean certificateExists(String certificateId) {
+        return certificateRepository.existsById(certificateId);
+    }
+
     public byte[] generateCertificatePdf(String certificateId) {
         Certificate cert = certificateRepository.findById(certificateId)
                 .orElseThrow(() -> new RuntimeException("Certificate not found"));
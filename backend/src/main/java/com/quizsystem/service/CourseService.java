@@ -1,10 +1,18 @@
 package com.quizsystem.service;
 
+import com.quizsystem.dto.CursorPage;
+import com.quizsystem.event.CourseChangedEvent;
 import com.quizsystem.model.Course;
 import com.quizsystem.model.CourseProgress;
 import com.quizsystem.repository.CourseProgressRepository;
 import com.quizsystem.repository.CourseRepository;
+import com.quizsystem.repository.Keyset;
+import com.quizsystem.repository.KeysetPager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -18,9 +26,15 @@ public class CourseService {
 
     private final CourseRepository courseRepository;
     private final CourseProgressRepository courseProgressRepository;
-
-    public List<Course> getAllPublishedCourses() {
-        return courseRepository.findByPublishedTrue();
+    private final KeysetPager keysetPager;
+    private final CatalogSearch catalogSearch;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Served by the {published: 1, _id: 1} index on courses
+    public CursorPage<Course> getPublishedCourses(String cursor, Integer limit, boolean includeTotal) {
+        Query query = new Query(Criteria.where("published").is(true));
+        return keysetPager.page(query, Course.class, Keyset.byId(Sort.Direction.ASC, Course::getId),
+                cursor, limit, includeTotal);
     }
 
     public List<Course> getAllCourses() {
@@ -44,7 +58,9 @@ public class CourseService {
                 }
             });
         }
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     public Course updateCourse(String id, Course course) {
@@ -58,15 +74,19 @@ public class CourseService {
         existing.setModules(course.getModules());
         existing.setTestIds(course.getTestIds());
         existing.setPublished(course.getPublished());
-        return courseRepository.save(existing);
+        Course saved = courseRepository.save(existing);
+        eventPublisher.publishEvent(new CourseChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     public void deleteCourse(String id) {
         courseRepository.deleteById(id);
+        eventPublisher.publishEvent(new CourseChangedEvent(id, null));
     }
 
-    public List<Course> searchCourses(String query) {
-        return courseRepository.findByTitleContainingIgnoreCase(query);
+    // Ranked, answered from the in-memory index; only published courses are indexed
+    public List<Course> searchCourses(String query, Integer limit) {
+        return catalogSearch.searchCourses(query, limit);
     }
 
     public CourseProgress getProgress(String userId, String courseId) {
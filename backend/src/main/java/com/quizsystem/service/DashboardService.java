@@ -0,0 +1,241 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.DashboardSeries;
+import com.quizsystem.dto.DashboardStats;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.AttemptStartedEvent;
+import com.quizsystem.event.TestChangedEvent;
+import com.quizsystem.event.UserChangedEvent;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.TestAttemptRepository;
+import com.quizsystem.repository.TestRepository;
+import com.quizsystem.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin dashboard counters: users, verified users, tests, published tests, attempts started per day
+ * and active attempts (started, not graded yet). They move with UserChangedEvent, TestChangedEvent,
+ * AttemptStartedEvent and AttemptGradedEvent, and are recounted from Mongo at startup and on an
+ * interval, which also picks up changes from other instances or written around the services
+ * (DataInitializer). Every minute the counters are snapshotted into a ring covering the last
+ * quiz.dashboard.series-minutes for charts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    static final int DAYS = 30;
+
+    private static final int USERS = 0;
+    private static final int VERIFIED_USERS = 1;
+    private static final int TESTS = 2;
+    private static final int PUBLISHED_TESTS = 3;
+    private static final int ACTIVE_ATTEMPTS = 4;
+    private static final int ATTEMPTS_STARTED = 5;
+    private static final int METRICS = 6;
+
+    private final UserRepository userRepository;
+    private final TestRepository testRepository;
+    private final TestAttemptRepository attemptRepository;
+
+    @Value("${quiz.dashboard.series-minutes:1440}")
+    private int seriesMinutes;
+
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong verifiedUsers = new AtomicLong();
+    private final AtomicLong publishedTests = new AtomicLong();
+    private final AtomicLong activeAttempts = new AtomicLong();
+    // Only grows; the series records how much it moved each minute
+    private final AtomicLong startedTotal = new AtomicLong();
+    private long startedAtLastSnapshot;
+
+    // testId -> published
+    private final Map<String, Boolean> tests = new ConcurrentHashMap<>();
+
+    // Attempts started per day; slot epochDay % DAYS holds startedDays[slot]. Guarded by this
+    private final long[] startedDays = new long[DAYS];
+    private final long[] startedPerDay = new long[DAYS];
+
+    // Per-minute snapshots; slot epochMinute % seriesMinutes holds minutes[slot]. Guarded by this
+    private long[] minutes;
+    private long[][] series;
+
+    @PostConstruct
+    public void init() {
+        seriesMinutes = Math.max(1, seriesMinutes);
+        minutes = new long[seriesMinutes];
+        series = new long[METRICS][seriesMinutes];
+        Arrays.fill(minutes, Long.MIN_VALUE);
+        Arrays.fill(startedDays, Long.MIN_VALUE);
+    }
+
+    public DashboardStats getStats() {
+        long today = LocalDate.now().toEpochDay();
+        Map<LocalDate, Long> perDay = new LinkedHashMap<>();
+        synchronized (this) {
+            for (long day = today - DAYS + 1; day <= today; day++) {
+                int slot = Math.floorMod(day, DAYS);
+                perDay.put(LocalDate.ofEpochDay(day), startedDays[slot] == day ? startedPerDay[slot] : 0L);
+            }
+        }
+        return DashboardStats.builder()
+                .totalUsers(users.get())
+                .verifiedUsers(verifiedUsers.get())
+                .totalTests((long) tests.size())
+                .publishedTests(publishedTests.get())
+                .activeAttempts(Math.max(0, activeAttempts.get()))
+                .attemptsToday(perDay.get(LocalDate.ofEpochDay(today)))
+                .attemptsPerDay(perDay)
+                .build();
+    }
+
+    // The last `count` minutes (at most quiz.dashboard.series-minutes), oldest first
+    public DashboardSeries getSeries(Integer count) {
+        int size = count == null ? seriesMinutes : Math.max(1, Math.min(count, seriesMinutes));
+        long now = currentMinute();
+        List<List<Long>> points = new ArrayList<>(METRICS);
+        for (int metric = 0; metric < METRICS; metric++) {
+            points.add(new ArrayList<>(size));
+        }
+        synchronized (this) {
+            for (long minute = now - size + 1; minute <= now; minute++) {
+                int slot = Math.floorMod(minute, seriesMinutes);
+                for (int metric = 0; metric < METRICS; metric++) {
+                    points.get(metric).add(minutes[slot] == minute ? series[metric][slot] : null);
+                }
+            }
+        }
+        return DashboardSeries.builder()
+                .start(LocalDateTime.ofInstant(Instant.ofEpochSecond((now - size + 1) * 60), ZoneId.systemDefault()))
+                .stepSeconds(60)
+                .users(points.get(USERS))
+                .verifiedUsers(points.get(VERIFIED_USERS))
+                .tests(points.get(TESTS))
+                .publishedTests(points.get(PUBLISHED_TESTS))
+                .activeAttempts(points.get(ACTIVE_ATTEMPTS))
+                .attemptsStarted(points.get(ATTEMPTS_STARTED))
+                .build();
+    }
+
+    @Scheduled(cron = "0 * * * * *")
+    public synchronized void snapshot() {
+        long minute = currentMinute();
+        int slot = Math.floorMod(minute, seriesMinutes);
+        long started = startedTotal.get();
+        minutes[slot] = minute;
+        series[USERS][slot] = users.get();
+        series[VERIFIED_USERS][slot] = verifiedUsers.get();
+        series[TESTS][slot] = tests.size();
+        series[PUBLISHED_TESTS][slot] = publishedTests.get();
+        series[ACTIVE_ATTEMPTS][slot] = Math.max(0, activeAttempts.get());
+        series[ATTEMPTS_STARTED][slot] = started - startedAtLastSnapshot;
+        startedAtLastSnapshot = started;
+    }
+
+    // Count queries and one grouped aggregation; nothing is loaded document by document
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${quiz.dashboard.resync-interval-ms:600000}",
+            fixedDelayString = "${quiz.dashboard.resync-interval-ms:600000}")
+    public void resync() {
+        long started = System.nanoTime();
+        users.set(userRepository.count());
+        verifiedUsers.set(userRepository.countByEmailVerifiedTrue());
+        activeAttempts.set(attemptRepository.countByStatusIn(
+                List.of(TestAttempt.AttemptStatus.IN_PROGRESS, TestAttempt.AttemptStatus.SUBMITTED)));
+
+        Map<String, Boolean> published = new ConcurrentHashMap<>();
+        for (Test test : testRepository.findAllPublishedFlags()) {
+            published.put(test.getId(), Boolean.TRUE.equals(test.getPublished()));
+        }
+        tests.keySet().retainAll(published.keySet());
+        tests.putAll(published);
+        publishedTests.set(published.values().stream().filter(Boolean::booleanValue).count());
+
+        long today = LocalDate.now().toEpochDay();
+        Map<LocalDate, Long> perDay = attemptRepository.countStartedPerDay(LocalDate.ofEpochDay(today - DAYS + 1).atStartOfDay());
+        synchronized (this) {
+            Arrays.fill(startedDays, Long.MIN_VALUE);
+            Arrays.fill(startedPerDay, 0);
+            perDay.forEach((date, count) -> {
+                long day = date.toEpochDay();
+                if (day > today - DAYS && day <= today) {
+                    int slot = Math.floorMod(day, DAYS);
+                    startedDays[slot] = day;
+                    startedPerDay[slot] = count;
+                }
+            });
+        }
+        log.debug("Dashboard counters recounted in {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        boolean was = event.isWasVerified();
+        if (event.getUser() == null) {
+            users.decrementAndGet();
+            if (was) {
+                verifiedUsers.decrementAndGet();
+            }
+            return;
+        }
+        if (event.isCreated()) {
+            users.incrementAndGet();
+        }
+        boolean is = Boolean.TRUE.equals(event.getUser().getEmailVerified());
+        verifiedUsers.addAndGet((is ? 1 : 0) - (was ? 1 : 0));
+    }
+
+    @EventListener
+    public void onTestChanged(TestChangedEvent event) {
+        boolean published = event.getTest() != null && Boolean.TRUE.equals(event.getTest().getPublished());
+        Boolean previous = event.getTest() == null
+                ? tests.remove(event.getTestId())
+                : tests.put(event.getTestId(), published);
+        publishedTests.addAndGet((published ? 1 : 0) - (Boolean.TRUE.equals(previous) ? 1 : 0));
+    }
+
+    @EventListener
+    public void onAttemptStarted(AttemptStartedEvent event) {
+        activeAttempts.incrementAndGet();
+        startedTotal.incrementAndGet();
+        long today = LocalDate.now().toEpochDay();
+        synchronized (this) {
+            int slot = Math.floorMod(today, DAYS);
+            if (startedDays[slot] != today) {
+                startedDays[slot] = today;
+                startedPerDay[slot] = 0;
+            }
+            startedPerDay[slot]++;
+        }
+    }
+
+    @EventListener
+    public void onAttemptGraded(AttemptGradedEvent event) {
+        activeAttempts.decrementAndGet();
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+}
@@ -0,0 +1,160 @@
+package com.quizsystem.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index for faceted filtering. Every document gets a dense ordinal, and every facet value a
+ * bitmap of the documents that have it, so filtering is OR within a facet and AND across facets,
+ * and facet counts are AND + cardinality. Ordinals of removed documents are reused, which keeps
+ * the bitmaps as small as the catalog.
+ */
+public final class FacetIndex {
+
+    /**
+     * Matching document ids in ordinal order, and per facet the number of matches for each value.
+     * Counts for a facet ignore that facet's own filter, so the other values show what selecting
+     * them would add.
+     */
+    public record Result(List<String> ids, Map<String, Map<String, Integer>> counts) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final List<Map<String, Collection<String>>> values = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    // facet -> value -> documents
+    private final Map<String, Map<String, BitSet>> bitmaps = new TreeMap<>();
+
+    public void put(String id, Map<String, ? extends Collection<String>> facets) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int ordinal = freeOrdinals.isEmpty() ? ids.size() : freeOrdinals.pop();
+            Map<String, Collection<String>> copy = new HashMap<>();
+            facets.forEach((facet, facetValues) -> {
+                Set<String> distinct = new LinkedHashSet<>(facetValues);
+                distinct.remove(null);
+                // A facet without values has no bitmap, so removal must not look for one
+                if (distinct.isEmpty()) return;
+                copy.put(facet, distinct);
+                for (String value : distinct) {
+                    bitmaps.computeIfAbsent(facet, f -> new TreeMap<>())
+                            .computeIfAbsent(value, v -> new BitSet())
+                            .set(ordinal);
+                }
+            });
+            if (ordinal == ids.size()) {
+                ids.add(id);
+                values.add(copy);
+            } else {
+                ids.set(ordinal, id);
+                values.set(ordinal, copy);
+            }
+            ordinals.put(id, ordinal);
+            live.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Documents that have, for every facet in filters, at least one of the selected values.
+     * When restrictTo is not null only those ids are considered (e.g. full-text hits).
+     */
+    public Result query(Map<String, ? extends Collection<String>> filters, Collection<String> restrictTo) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (restrictTo != null) {
+                BitSet allowed = new BitSet();
+                for (String id : restrictTo) {
+                    Integer ordinal = ordinals.get(id);
+                    if (ordinal != null) allowed.set(ordinal);
+                }
+                base.and(allowed);
+            }
+
+            Map<String, BitSet> selected = new HashMap<>();
+            filters.forEach((facet, facetValues) -> {
+                if (facetValues == null || facetValues.isEmpty()) return;
+                BitSet union = new BitSet();
+                Map<String, BitSet> byValue = bitmaps.getOrDefault(facet, Map.of());
+                for (String value : facetValues) {
+                    BitSet bitmap = byValue.get(value);
+                    if (bitmap != null) union.or(bitmap);
+                }
+                selected.put(facet, union);
+            });
+
+            BitSet matches = (BitSet) base.clone();
+            selected.values().forEach(matches::and);
+
+            Map<String, Map<String, Integer>> counts = new TreeMap<>();
+            bitmaps.forEach((facet, byValue) -> {
+                BitSet others = (BitSet) base.clone();
+                selected.forEach((otherFacet, bitmap) -> {
+                    if (!otherFacet.equals(facet)) others.and(bitmap);
+                });
+                Map<String, Integer> facetCounts = new TreeMap<>();
+                byValue.forEach((value, bitmap) -> {
+                    BitSet both = (BitSet) bitmap.clone();
+                    both.and(others);
+                    int count = both.cardinality();
+                    if (count > 0) facetCounts.put(value, count);
+                });
+                counts.put(facet, facetCounts);
+            });
+
+            List<String> matchIds = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                matchIds.add(ids.get(i));
+            }
+            return new Result(matchIds, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        values.get(ordinal).forEach((facet, facetValues) -> {
+            Map<String, BitSet> byValue = bitmaps.get(facet);
+            for (String value : facetValues) {
+                BitSet bitmap = byValue.get(value);
+                bitmap.clear(ordinal);
+                if (bitmap.isEmpty()) byValue.remove(value);
+            }
+            if (byValue.isEmpty()) bitmaps.remove(facet);
+        });
+        ids.set(ordinal, null);
+        values.set(ordinal, Map.of());
+        live.clear(ordinal);
+        freeOrdinals.push(ordinal);
+    }
+}
@@ -0,0 +1,137 @@
+package com.quizsystem.service;
+
+import com.quizsystem.event.AttemptSubmittedEvent;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.TestAttemptRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of grading workers fed with SUBMITTED attempts. The queue lives only in memory:
+ * Mongo is the source of truth, so attempts that were queued when the app stopped (or that did
+ * not fit in the queue) are still SUBMITTED and get picked up again on startup and by the sweep.
+ * Grading is conditional on SUBMITTED, so an attempt queued twice is graded once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GradingWorkerPool {
+
+    private final TestAttemptRepository attemptRepository;
+    private final TestAttemptService attemptService;
+
+    @Value("${quiz.grading.workers:4}")
+    private int workers;
+
+    @Value("${quiz.grading.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // In sync mode submit grades inline, so only attempts stuck this long are recovered
+    @Value("${quiz.grading.stale-after-seconds:60}")
+    private long staleAfterSeconds;
+
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "grading-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @EventListener
+    public void onAttemptSubmitted(AttemptSubmittedEvent event) {
+        enqueue(event.getAttemptId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int queuedNow = enqueueSubmittedBefore(LocalDateTime.now());
+        if (queuedNow > 0) {
+            log.info("Queued {} submitted attempts left ungraded by the previous run", queuedNow);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.grading.sweep-interval-ms:30000}")
+    public void sweep() {
+        int queuedNow = enqueueSubmittedBefore(LocalDateTime.now().minusSeconds(staleAfterSeconds));
+        if (queuedNow > 0) {
+            log.warn("Re-queued {} attempts stuck in SUBMITTED", queuedNow);
+        }
+    }
+
+    public boolean enqueue(String attemptId) {
+        if (!queued.add(attemptId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> grade(attemptId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Left in SUBMITTED; the sweep retries once the queue has drained
+            queued.remove(attemptId);
+            log.warn("Grading queue full, attempt {} deferred", attemptId);
+            return false;
+        }
+    }
+
+    public int queueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Queued attempts stay SUBMITTED in Mongo and are recovered on the next start
+        executor.shutdownNow();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Grading workers did not stop in time");
+        }
+    }
+
+    private void grade(String attemptId) {
+        try {
+            attemptService.gradeSubmission(attemptId);
+        } catch (RuntimeException e) {
+            log.error("Failed to grade attempt {}, will retry on the next sweep: {}", attemptId, e.getMessage());
+        } finally {
+            queued.remove(attemptId);
+        }
+    }
+
+    private int enqueueSubmittedBefore(LocalDateTime before) {
+        int free = executor.getQueue().remainingCapacity();
+        if (free == 0) {
+            return 0;
+        }
+        List<TestAttempt> stuck = attemptRepository.findIdsByStatusAndSubmittedAtBefore(
+                TestAttempt.AttemptStatus.SUBMITTED, before, PageRequest.of(0, free));
+        int count = 0;
+        for (TestAttempt attempt : stuck) {
+            if (enqueue(attempt.getId())) count++;
+        }
+        return count;
+    }
+}
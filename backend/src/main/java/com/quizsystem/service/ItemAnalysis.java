@@ -0,0 +1,178 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.ItemAnalysisReport;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-question counters over the graded attempts of one test version: deliveries, correct and
+ * unanswered counts, picks per choice, and the score sums the point-biserial index needs. All of it
+ * is additive, so partial results over slices of the attempts merge into the result over all of them.
+ * Questions are matched by position for question banks (the attempt's questionIndexes) and answers
+ * by question and choice id. Not thread-safe.
+ */
+final class ItemAnalysis {
+
+    private final List<Test.Question> questions;
+    private final Map<String, Integer> positionById = new HashMap<>();
+    private final List<Map<String, Integer>> choiceIndexes = new ArrayList<>();
+
+    private long attempts;
+    private final long[] delivered;
+    private final long[] correct;
+    private final long[] unanswered;
+    // Over the attempts each question was delivered in: sum and sum of squares of the attempt
+    // score, and the score sum of those that got it right
+    private final double[] scoreSum;
+    private final double[] scoreSquares;
+    private final double[] correctScoreSum;
+    private final long[][] picks;
+
+    ItemAnalysis(Test content) {
+        questions = content.getQuestions() != null ? content.getQuestions() : List.of();
+        int size = questions.size();
+        delivered = new long[size];
+        correct = new long[size];
+        unanswered = new long[size];
+        scoreSum = new double[size];
+        scoreSquares = new double[size];
+        correctScoreSum = new double[size];
+        picks = new long[size][];
+        for (int i = 0; i < size; i++) {
+            Test.Question question = questions.get(i);
+            if (question.getId() != null) {
+                positionById.putIfAbsent(question.getId(), i);
+            }
+            Map<String, Integer> choices = new HashMap<>();
+            List<Test.Choice> source = question.getChoices() != null ? question.getChoices() : List.of();
+            for (int c = 0; c < source.size(); c++) {
+                if (source.get(c).getId() != null) {
+                    choices.putIfAbsent(source.get(c).getId(), c);
+                }
+            }
+            choiceIndexes.add(choices);
+            picks[i] = new long[source.size()];
+        }
+    }
+
+    void add(TestAttempt attempt) {
+        if (attempt.getScore() == null) {
+            return;
+        }
+        double score = attempt.getScore();
+        attempts++;
+        Map<Integer, TestAttempt.Answer> answers = new HashMap<>();
+        if (attempt.getAnswers() != null) {
+            for (TestAttempt.Answer answer : attempt.getAnswers()) {
+                Integer position = answer.getQuestionId() != null ? positionById.get(answer.getQuestionId()) : null;
+                if (position != null) {
+                    answers.put(position, answer);
+                }
+            }
+        }
+        for (int position : AttemptShuffle.questionOrder(questions.size(), attempt.getQuestionIndexes(), null)) {
+            delivered[position]++;
+            scoreSum[position] += score;
+            scoreSquares[position] += score * score;
+            TestAttempt.Answer answer = answers.get(position);
+            if (answer == null || isBlank(answer)) {
+                unanswered[position]++;
+                continue;
+            }
+            if (Boolean.TRUE.equals(answer.getIsCorrect())) {
+                correct[position]++;
+                correctScoreSum[position] += score;
+            }
+            if (answer.getSelectedChoices() != null) {
+                for (String choiceId : answer.getSelectedChoices()) {
+                    Integer choice = choiceIndexes.get(position).get(choiceId);
+                    if (choice != null) {
+                        picks[position][choice]++;
+                    }
+                }
+            }
+        }
+    }
+
+    // Both sides must have been built from the same version
+    ItemAnalysis merge(ItemAnalysis other) {
+        attempts += other.attempts;
+        for (int i = 0; i < questions.size(); i++) {
+            delivered[i] += other.delivered[i];
+            correct[i] += other.correct[i];
+            unanswered[i] += other.unanswered[i];
+            scoreSum[i] += other.scoreSum[i];
+            scoreSquares[i] += other.scoreSquares[i];
+            correctScoreSum[i] += other.correctScoreSum[i];
+            for (int c = 0; c < picks[i].length; c++) {
+                picks[i][c] += other.picks[i][c];
+            }
+        }
+        return this;
+    }
+
+    ItemAnalysisReport report(String testId, String versionId) {
+        List<ItemAnalysisReport.Item> items = new ArrayList<>(questions.size());
+        for (int i = 0; i < questions.size(); i++) {
+            Test.Question question = questions.get(i);
+            long n = delivered[i];
+            List<ItemAnalysisReport.ChoiceStats> choices = new ArrayList<>(picks[i].length);
+            for (int c = 0; c < picks[i].length; c++) {
+                Test.Choice choice = question.getChoices().get(c);
+                choices.add(ItemAnalysisReport.ChoiceStats.builder()
+                        .choiceId(choice.getId())
+                        .text(choice.getText())
+                        .correct(Boolean.TRUE.equals(choice.getIsCorrect()))
+                        .picks(picks[i][c])
+                        .pickRate(n > 0 ? (double) picks[i][c] / n : null)
+                        .build());
+            }
+            items.add(ItemAnalysisReport.Item.builder()
+                    .questionId(question.getId())
+                    .text(question.getText())
+                    .type(question.getType() != null ? question.getType().name() : null)
+                    .delivered(n)
+                    .correct(correct[i])
+                    .unanswered(unanswered[i])
+                    .difficulty(n > 0 ? (double) correct[i] / n : null)
+                    .discrimination(pointBiserial(i))
+                    .choices(choices)
+                    .build());
+        }
+        return ItemAnalysisReport.builder()
+                .testId(testId)
+                .versionId(versionId)
+                .attempts(attempts)
+                .items(items)
+                .build();
+    }
+
+    // (M1 - M0) / s * sqrt(p * q); undefined when everyone or no one got it right, or all scores are equal
+    private Double pointBiserial(int i) {
+        long n = delivered[i];
+        long right = correct[i];
+        if (n < 2 || right == 0 || right == n) {
+            return null;
+        }
+        double mean = scoreSum[i] / n;
+        double variance = scoreSquares[i] / n - mean * mean;
+        if (variance <= 1e-9) {
+            return null;
+        }
+        double meanRight = correctScoreSum[i] / right;
+        double meanWrong = (scoreSum[i] - correctScoreSum[i]) / (n - right);
+        double p = (double) right / n;
+        return (meanRight - meanWrong) / Math.sqrt(variance) * Math.sqrt(p * (1 - p));
+    }
+
+    private static boolean isBlank(TestAttempt.Answer answer) {
+        return (answer.getSelectedChoices() == null || answer.getSelectedChoices().isEmpty())
+                && (answer.getTextAnswer() == null || answer.getTextAnswer().isBlank())
+                && (answer.getNumericAnswer() == null || answer.getNumericAnswer().isBlank());
+    }
+}
@@ -0,0 +1,127 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.ItemAnalysisReport;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.TestRegradedEvent;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.model.TestVersion;
+import com.quizsystem.repository.TestAttemptRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Item analysis per test version: difficulty, point-biserial discrimination and choice picks for
+ * every question. The first request for a version streams its graded attempts from a Mongo cursor
+ * as a parallel stream on a dedicated fork/join pool; each worker fills its own {@link ItemAnalysis}
+ * and the partial results are merged. The result is cached per version and AttemptGradedEvent adds
+ * later attempts to it. A regrade drops the test's cached versions. An attempt graded while its
+ * version is being computed can be missed until then.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemAnalysisService {
+
+    private final TestAttemptRepository attemptRepository;
+    private final TestService testService;
+    private final TestVersionService testVersionService;
+
+    // 0 means one worker per core
+    @Value("${quiz.reports.item-analysis.parallelism:0}")
+    private int parallelism;
+
+    @Value("${quiz.reports.item-analysis.batch-size:1000}")
+    private int batchSize;
+
+    // testId/versionId -> analysis; a completed ItemAnalysis is guarded by its own monitor
+    private final Map<String, CompletableFuture<ItemAnalysis>> byVersion = new ConcurrentHashMap<>();
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Analysis of the given version of the test, or of its current version when versionId is null
+    public ItemAnalysisReport analyze(String testId, String versionId) {
+        Test test = testService.getTestById(testId);
+        TestVersion version = versionId != null ? testVersionService.getVersion(versionId) : testVersionService.current(test);
+        if (!testId.equals(version.getTestId())) {
+            throw new IllegalArgumentException("Version " + versionId + " is not a version of this test");
+        }
+        // Attempts graded before versioning belong to the version that was current when versions were introduced
+        boolean includeUnversioned = version.getId().equals(test.getCurrentVersionId());
+        String key = key(testId, version.getId());
+        CompletableFuture<ItemAnalysis> future = byVersion.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(
+                () -> compute(testId, version, includeUnversioned), pool));
+        ItemAnalysis analysis;
+        try {
+            analysis = future.join();
+        } catch (CompletionException e) {
+            byVersion.remove(key, future);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        synchronized (analysis) {
+            return analysis.report(testId, version.getId());
+        }
+    }
+
+    @EventListener
+    public void onAttemptGraded(AttemptGradedEvent event) {
+        TestAttempt attempt = event.getAttempt();
+        if (attempt.getTestId() == null || attempt.getTestVersionId() == null) {
+            return;
+        }
+        CompletableFuture<ItemAnalysis> future = byVersion.get(key(attempt.getTestId(), attempt.getTestVersionId()));
+        // Not computed yet, or still computing: the cursor will pick the attempt up (or just missed it)
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return;
+        }
+        ItemAnalysis analysis = future.join();
+        synchronized (analysis) {
+            analysis.add(attempt);
+        }
+    }
+
+    // A regrade rewrites correctness and scores and re-pins attempts to the current version
+    @EventListener
+    public void onTestRegraded(TestRegradedEvent event) {
+        String prefix = event.getTestId() + "/";
+        byVersion.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private ItemAnalysis compute(String testId, TestVersion version, boolean includeUnversioned) {
+        long started = System.nanoTime();
+        Test content = version.getContent();
+        ItemAnalysis analysis;
+        try (Stream<TestAttempt> attempts = attemptRepository.streamForItemAnalysis(testId, version.getId(), includeUnversioned, batchSize)) {
+            // Runs on the pool this task was submitted to, not the common pool
+            analysis = attempts.parallel().collect(() -> new ItemAnalysis(content), ItemAnalysis::add, ItemAnalysis::merge);
+        }
+        log.info("Item analysis of test {} version {} computed in {} ms", testId, version.getId(),
+                (System.nanoTime() - started) / 1_000_000);
+        return analysis;
+    }
+
+    private static String key(String testId, String versionId) {
+        return testId + "/" + versionId;
+    }
+}
@@ -0,0 +1,276 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.LeaderboardEntry;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.TestRegradedEvent;
+import com.quizsystem.event.UserChangedEvent;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.model.User;
+import com.quizsystem.repository.TestAttemptRepository;
+import com.quizsystem.repository.TestAttemptRepositoryCustom;
+import com.quizsystem.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Global leaderboard kept in memory: one aggregate per user (points, scores, tests, attempts),
+ * ranked in a {@link RankedSet}, so a page costs O(log n + k) plus one user lookup for the k
+ * rows and "my rank" is O(log n). Aggregates are updated from AttemptGradedEvent and rebuilt
+ * from a Mongo aggregation at startup, after a regrade and on an interval; events that arrive
+ * while a rebuild runs are replayed onto its result through {@link RecentGrades}. The interval
+ * rebuild also picks up grades from other instances.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    // Immutable ranking key; testIds is owned by the board and only touched under its write lock,
+    // testsCompleted is its size at the time, safe to read after the lock is released
+    record Standing(String userId, long totalPoints, double scoreSum, long scored, double bestScore,
+                    long attempts, Set<String> testIds, int testsCompleted) {
+
+        double average() {
+            return scored > 0 ? scoreSum / scored : 0;
+        }
+    }
+
+    // Total points, then average score, both descending; the user id keeps equal standings apart
+    static final Comparator<Standing> ORDER = Comparator.comparingLong(Standing::totalPoints).reversed()
+            .thenComparing(Comparator.comparingDouble(Standing::average).reversed())
+            .thenComparing(Standing::userId);
+
+    private final TestAttemptRepository attemptRepository;
+    private final UserRepository userRepository;
+
+    @Value("${quiz.leaderboard.default-limit:100}")
+    private int defaultLimit;
+
+    @Value("${quiz.leaderboard.max-limit:500}")
+    private int maxLimit;
+
+    @Value("${quiz.leaderboard.replay-window-ms:60000}")
+    private long replayWindowMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Standing> byUser = new HashMap<>();
+    private RankedSet<Standing> ranking = new RankedSet<>(ORDER);
+    private RecentGrades recent;
+    // Bumped whenever a page could change: a grade, a rebuild or a user's name or avatar
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        recent = new RecentGrades(replayWindowMs);
+    }
+
+    public List<LeaderboardEntry> getPage(Integer offset, Integer limit) {
+        int from = Math.max(0, offset != null ? offset : 0);
+        int size = clampLimit(limit);
+        List<Standing> page;
+        lock.readLock().lock();
+        try {
+            page = ranking.slice(from, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toEntries(page, from);
+    }
+
+    int clampLimit(Integer limit) {
+        return limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+    }
+
+    // Rows for standings ranked from + 1 onwards, with one user lookup for the whole page
+    List<LeaderboardEntry> toEntries(List<Standing> page, int from) {
+        Map<String, User> users = loadUsers(page);
+        List<LeaderboardEntry> entries = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            Standing standing = page.get(i);
+            User user = users.get(standing.userId());
+            // Deleted users keep their place until the next rebuild, but are not shown
+            if (user != null) {
+                entries.add(toEntry(standing, from + i + 1, user));
+            }
+        }
+        return entries;
+    }
+
+    // The user's row with their rank, or null when they have no graded attempts
+    public LeaderboardEntry getEntry(String userId) {
+        Standing standing;
+        int rank;
+        lock.readLock().lock();
+        try {
+            standing = byUser.get(userId);
+            if (standing == null) {
+                return null;
+            }
+            rank = ranking.rank(standing) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toEntry(standing, rank, loadUsers(List.of(standing)).get(userId));
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ranking.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${quiz.leaderboard.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${quiz.leaderboard.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime cutoff;
+        lock.writeLock().lock();
+        try {
+            cutoff = recent.pin();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<String, Standing> rebuilt = new HashMap<>();
+        RankedSet<Standing> rebuiltRanking = new RankedSet<>(ORDER);
+        List<TestAttemptRepositoryCustom.UserStanding> rows;
+        try {
+            rows = attemptRepository.aggregateStandings(cutoff);
+        } catch (RuntimeException e) {
+            unpin(cutoff);
+            throw e;
+        }
+        for (TestAttemptRepositoryCustom.UserStanding row : rows) {
+            Standing standing = new Standing(row.userId(), row.totalPoints(), row.scoreSum(), row.scored(),
+                    row.bestScore() != null ? row.bestScore() : 0, row.attempts(),
+                    row.testIds() != null ? new HashSet<>(row.testIds()) : new HashSet<>(),
+                    row.testIds() != null ? row.testIds().size() : 0);
+            rebuilt.put(standing.userId(), standing);
+            rebuiltRanking.add(standing);
+        }
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            List<AttemptGradedEvent> since = recent.unpin(cutoff);
+            since.forEach(event -> apply(rebuilt, rebuiltRanking, event.getAttempt()));
+            replayed = since.size();
+            byUser = rebuilt;
+            ranking = rebuiltRanking;
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Leaderboard rebuilt: {} users, {} recent grades replayed, in {} ms",
+                rebuilt.size(), replayed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onAttemptGraded(AttemptGradedEvent event) {
+        TestAttempt attempt = event.getAttempt();
+        if (attempt.getUserId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(byUser, ranking, attempt);
+            recent.add(event);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Entries show the user's name and avatar, which are read at request time
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    private void unpin(LocalDateTime cutoff) {
+        lock.writeLock().lock();
+        try {
+            recent.unpin(cutoff);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A regrade rewrites scores that were already counted, so the aggregates are recomputed
+    @EventListener
+    public void onTestRegraded(TestRegradedEvent event) {
+        rebuild();
+    }
+
+    private static void apply(Map<String, Standing> byUser, RankedSet<Standing> ranking, TestAttempt attempt) {
+        if (attempt.getUserId() == null) {
+            return;
+        }
+        Standing current = byUser.get(attempt.getUserId());
+        Set<String> testIds = current != null ? current.testIds() : new HashSet<>();
+        if (attempt.getTestId() != null) {
+            testIds.add(attempt.getTestId());
+        }
+        Double score = attempt.getScore();
+        Standing updated = new Standing(attempt.getUserId(),
+                (current != null ? current.totalPoints() : 0) + (attempt.getEarnedPoints() != null ? attempt.getEarnedPoints() : 0),
+                (current != null ? current.scoreSum() : 0) + (score != null ? score : 0),
+                (current != null ? current.scored() : 0) + (score != null ? 1 : 0),
+                Math.max(current != null ? current.bestScore() : 0, score != null ? score : 0),
+                (current != null ? current.attempts() : 0) + 1,
+                testIds, testIds.size());
+        if (current != null) {
+            ranking.remove(current);
+        }
+        ranking.add(updated);
+        byUser.put(updated.userId(), updated);
+    }
+
+    private Map<String, User> loadUsers(List<Standing> standings) {
+        if (standings.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findProfilesByIdIn(standings.stream().map(Standing::userId).toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private static LeaderboardEntry toEntry(Standing standing, int rank, User user) {
+        return LeaderboardEntry.builder()
+                .rank(rank)
+                .userId(standing.userId())
+                .name(user != null ? user.getName() : null)
+                .avatar(user != null ? user.getAvatar() : null)
+                .avgScore(Math.round(standing.average() * 10.0) / 10.0)
+                .bestScore(Math.round(standing.bestScore() * 10.0) / 10.0)
+                .testsCompleted((long) standing.testsCompleted())
+                .totalPoints(standing.totalPoints())
+                .attemptsCount(standing.attempts())
+                .build();
+    }
+}
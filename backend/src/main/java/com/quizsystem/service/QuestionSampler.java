@@ -0,0 +1,135 @@
+package com.quizsystem.service;
+
+import com.quizsystem.model.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws the questions of one attempt from a test's question bank by its sampling rules. Rules
+ * are applied most restrictive first (fewest matching questions, then declaration order); each
+ * picks its count from the matching questions that earlier rules did not take, with a partial
+ * Fisher-Yates over the candidates, so a draw costs O(bank) regardless of how many questions are
+ * picked. The attempt stores the drawn positions, not the questions.
+ */
+public final class QuestionSampler {
+
+    private QuestionSampler() {
+    }
+
+    public static boolean isSampled(Test test) {
+        return test.getSampling() != null && !test.getSampling().isEmpty();
+    }
+
+    // Drawn positions in bank order; the delivery order is applied on top by AttemptShuffle
+    public static List<Integer> sample(Test test, RandomGenerator random) {
+        List<Test.Question> bank = test.getQuestions() != null ? test.getQuestions() : List.of();
+        BitSet taken = new BitSet(bank.size());
+        for (Test.SamplingRule rule : ordered(bank, test.getSampling())) {
+            List<Integer> candidates = candidates(bank, rule, taken);
+            int count = Math.min(rule.getCount() != null ? rule.getCount() : 0, candidates.size());
+            for (int i = 0; i < count; i++) {
+                int j = i + random.nextInt(candidates.size() - i);
+                int picked = candidates.get(j);
+                candidates.set(j, candidates.get(i));
+                candidates.set(i, picked);
+                taken.set(picked);
+            }
+        }
+        List<Integer> drawn = new ArrayList<>(taken.cardinality());
+        taken.stream().forEach(drawn::add);
+        return drawn;
+    }
+
+    /**
+     * Checked on save: every rule must ask for at least one question, and in sampling order must
+     * still find its count after the earlier rules took the most they can of its matches, so no
+     * draw comes up short of drawCount.
+     */
+    public static void validate(Test test) {
+        if (!isSampled(test)) {
+            return;
+        }
+        List<Test.Question> bank = test.getQuestions() != null ? test.getQuestions() : List.of();
+        for (Test.SamplingRule rule : test.getSampling()) {
+            if (rule.getCount() == null || rule.getCount() < 1) {
+                throw new IllegalArgumentException("Sampling rule count must be at least 1");
+            }
+        }
+        List<Test.SamplingRule> rules = ordered(bank, test.getSampling());
+        List<BitSet> matched = new ArrayList<>(rules.size());
+        int total = 0;
+        for (Test.SamplingRule rule : rules) {
+            BitSet matches = matching(bank, rule);
+            int available = matches.cardinality();
+            for (int j = 0; j < matched.size(); j++) {
+                BitSet shared = (BitSet) matched.get(j).clone();
+                shared.and(matches);
+                available -= Math.min(rules.get(j).getCount(), shared.cardinality());
+            }
+            if (available < rule.getCount()) {
+                throw new IllegalArgumentException("Sampling rule " + describe(rule) + " needs " + rule.getCount()
+                        + " questions, the bank has " + Math.max(available, 0) + " left after overlapping rules");
+            }
+            matched.add(matches);
+            total += rule.getCount();
+        }
+        if (total > bank.size()) {
+            throw new IllegalArgumentException("Sampling rules draw " + total + " questions, the bank has " + bank.size());
+        }
+    }
+
+    // Questions in delivery, after sampling; what the catalog shows as the question count
+    public static int drawCount(Test test) {
+        int bankSize = test.getQuestions() != null ? test.getQuestions().size() : 0;
+        if (!isSampled(test)) {
+            return bankSize;
+        }
+        int total = test.getSampling().stream().mapToInt(r -> r.getCount() != null ? r.getCount() : 0).sum();
+        return Math.min(total, bankSize);
+    }
+
+    private static List<Test.SamplingRule> ordered(List<Test.Question> bank, List<Test.SamplingRule> rules) {
+        List<Test.SamplingRule> ordered = new ArrayList<>(rules);
+        // List.sort is stable, so rules with as many matches keep their declared order
+        ordered.sort(Comparator.comparingInt(rule -> matching(bank, rule).cardinality()));
+        return ordered;
+    }
+
+    private static BitSet matching(List<Test.Question> bank, Test.SamplingRule rule) {
+        BitSet matches = new BitSet(bank.size());
+        for (int i = 0; i < bank.size(); i++) {
+            if (matches(bank.get(i), rule)) {
+                matches.set(i);
+            }
+        }
+        return matches;
+    }
+
+    private static List<Integer> candidates(List<Test.Question> bank, Test.SamplingRule rule, BitSet taken) {
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < bank.size(); i++) {
+            if (!taken.get(i) && matches(bank.get(i), rule)) {
+                candidates.add(i);
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean matches(Test.Question question, Test.SamplingRule rule) {
+        if (rule.getDifficulty() != null && rule.getDifficulty() != question.getDifficulty()) {
+            return false;
+        }
+        return rule.getTag() == null || rule.getTag().isBlank()
+                || (question.getTags() != null && question.getTags().contains(rule.getTag()));
+    }
+
+    private static String describe(Test.SamplingRule rule) {
+        String tag = rule.getTag() != null && !rule.getTag().isBlank() ? "tag=" + rule.getTag() : "any tag";
+        String difficulty = rule.getDifficulty() != null ? "difficulty=" + rule.getDifficulty() : "any difficulty";
+        return "(" + tag + ", " + difficulty + ")";
+    }
+}
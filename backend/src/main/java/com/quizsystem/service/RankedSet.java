@@ -0,0 +1,171 @@
+package com.quizsystem.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set with positional access: a treap whose nodes carry their subtree size, so add,
+ * remove, the rank of an element and the element at a rank are all O(log n), and a page of k
+ * elements from any offset is O(log n + k). Elements that compare equal are the same element.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public final class RankedSet<T> {
+
+    private static final class Node<T> {
+        final T value;
+        final int priority;
+        Node<T> left;
+        Node<T> right;
+        int size = 1;
+
+        Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super T> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<T> root;
+
+    public RankedSet(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    // Adds the element, replacing one that compares equal
+    public void add(T value) {
+        root = insert(root, value, random.nextInt());
+    }
+
+    public boolean remove(T value) {
+        int before = size(root);
+        root = delete(root, value);
+        return size(root) < before;
+    }
+
+    // 0-based position of the element, or -1 when it is not in the set
+    public int rank(T value) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(value, node.value);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    // Up to limit elements starting at position offset, in order
+    public List<T> slice(int offset, int limit) {
+        List<T> out = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+        collect(root, offset, offset + limit, 0, out);
+        return out;
+    }
+
+    private void collect(Node<T> node, int from, int to, int base, List<T> out) {
+        if (node == null || base >= to || base + node.size <= from) {
+            return;
+        }
+        int position = base + size(node.left);
+        collect(node.left, from, to, base, out);
+        if (position >= from && position < to) {
+            out.add(node.value);
+        }
+        collect(node.right, from, to, position + 1, out);
+    }
+
+    private Node<T> insert(Node<T> node, T value, int priority) {
+        if (node == null) {
+            return new Node<>(value, priority);
+        }
+        int cmp = comparator.compare(value, node.value);
+        if (cmp == 0) {
+            Node<T> replaced = new Node<>(value, node.priority);
+            replaced.left = node.left;
+            replaced.right = node.right;
+            replaced.size = node.size;
+            return replaced;
+        }
+        if (cmp < 0) {
+            node.left = insert(node.left, value, priority);
+            if (node.left.priority > node.priority) node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, value, priority);
+            if (node.right.priority > node.priority) node = rotateLeft(node);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, T value) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(value, node.value);
+        if (cmp < 0) {
+            node.left = delete(node.left, value);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, value);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    // All of left sorts before all of right
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static <T> int size(Node<T> node) {
+        return node == null ? 0 : node.size;
+    }
+}
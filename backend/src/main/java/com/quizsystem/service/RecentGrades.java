@@ -0,0 +1,69 @@
+package com.quizsystem.service;
+
+import com.quizsystem.event.AttemptGradedEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The AttemptGradedEvents of the last few seconds, kept so a rebuild from Mongo does not lose
+ * events that arrive while it runs. A rebuild aggregates only attempts graded before a cutoff
+ * some seconds in the past (by then their grade writes are visible) and replays the events
+ * graded at or after it onto the result before it replaces the live state. An attempt counts
+ * either in the aggregation or in the replay, never in both. The cutoff stays pinned while the
+ * rebuild runs, so a slow rebuild keeps the events it will need. The cutoff is never earlier
+ * than this process's start, whose events it has all seen. Grades made by other instances after
+ * the cutoff are left to the next rebuild. Not thread-safe; the owner guards it with the same
+ * lock as its live state.
+ */
+final class RecentGrades {
+
+    private final long windowMs;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final Deque<AttemptGradedEvent> events = new ArrayDeque<>();
+    private LocalDateTime pinned;
+
+    RecentGrades(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    void add(AttemptGradedEvent event) {
+        events.addLast(event);
+        LocalDateTime keepFrom = LocalDateTime.now().minusNanos(windowMs * 1_000_000);
+        if (pinned != null && pinned.isBefore(keepFrom)) {
+            keepFrom = pinned;
+        }
+        // Arrival order is close to grade order; a straggler only stays a little longer
+        while (!events.isEmpty() && gradedAt(events.peekFirst()).isBefore(keepFrom)) {
+            events.removeFirst();
+        }
+    }
+
+    // Starts a rebuild: attempts graded before the returned cutoff belong to the aggregation
+    LocalDateTime pin() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(windowMs * 1_000_000);
+        pinned = cutoff.isBefore(createdAt) ? createdAt : cutoff;
+        return pinned;
+    }
+
+    // Ends a rebuild: the events graded at or after its cutoff, oldest first
+    List<AttemptGradedEvent> unpin(LocalDateTime cutoff) {
+        pinned = null;
+        List<AttemptGradedEvent> since = new ArrayList<>();
+        for (AttemptGradedEvent event : events) {
+            if (!gradedAt(event).isBefore(cutoff)) {
+                since.add(event);
+            }
+        }
+        return since;
+    }
+
+    // Attempts graded before gradedAt existed have none; they are long past any cutoff
+    private static LocalDateTime gradedAt(AttemptGradedEvent event) {
+        LocalDateTime gradedAt = event.getAttempt().getGradedAt();
+        return gradedAt != null ? gradedAt : LocalDateTime.MIN;
+    }
+}
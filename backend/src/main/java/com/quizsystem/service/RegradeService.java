@@ -0,0 +1,274 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.RegradeJobResponse;
+import com.quizsystem.event.TestRegradedEvent;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.model.TestVersion;
+import com.quizsystem.repository.TestAttemptRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes the scores of all graded attempts of a test against its current answer key.
+ * Attempts are streamed from a Mongo cursor in chunks; each chunk is graded and written back
+ * (changed attempts only, one unordered bulk write) on a worker pool, with at most a few chunks
+ * in flight so memory stays flat regardless of how many attempts the test has.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RegradeService {
+
+    private final TestAttemptRepository attemptRepository;
+    private final TestService testService;
+    private final AnswerKeyCache answerKeyCache;
+    private final TestVersionService testVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 0 means one worker per core
+    @Value("${quiz.regrade.parallelism:0}")
+    private int parallelism;
+
+    @Value("${quiz.regrade.chunk-size:1000}")
+    private int chunkSize;
+
+    // How long a finished job stays queryable
+    @Value("${quiz.regrade.job-retention-ms:3600000}")
+    private long jobRetentionMs;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> activeByTest = new ConcurrentHashMap<>();
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void start() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        coordinator = Executors.newCachedThreadPool(daemon("regrade-job"));
+        workers = Executors.newFixedThreadPool(parallelism, daemon("regrade-worker"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // Starts a regrade of the test against its current version, or returns the one already running for it
+    public RegradeJobResponse startRegrade(String testId) {
+        TestVersion version = testVersionService.current(testService.getTestById(testId));
+        Job job = new Job(UUID.randomUUID().toString(), version);
+        Job running = activeByTest.putIfAbsent(testId, job);
+        if (running != null) {
+            return running.toResponse();
+        }
+        jobs.put(job.id, job);
+        coordinator.execute(() -> run(job));
+        log.info("Regrade job {} started for test {} (version {})", job.id, testId, version.getId());
+        return job.toResponse();
+    }
+
+    public RegradeJobResponse getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Regrade job not found");
+        }
+        return job.toResponse();
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.regrade.job-retention-ms:3600000}")
+    public void evictFinishedJobs() {
+        long cutoff = System.nanoTime() - jobRetentionMs * 1_000_000;
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedNanos - cutoff < 0);
+    }
+
+    private void run(Job job) {
+        String testId = job.version.getTestId();
+        AnswerKey key = answerKeyCache.get(job.version.getContent());
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        try {
+            job.total.set(attemptRepository.countByTestIdAndStatus(testId, TestAttempt.AttemptStatus.GRADED));
+            try (Stream<TestAttempt> attempts = attemptRepository.streamGradedByTestId(testId, chunkSize)) {
+                Iterator<TestAttempt> cursor = attempts.iterator();
+                while (cursor.hasNext()) {
+                    List<TestAttempt> chunk = new ArrayList<>(chunkSize);
+                    while (cursor.hasNext() && chunk.size() < chunkSize) {
+                        chunk.add(cursor.next());
+                    }
+                    inFlight.acquire();
+                    workers.execute(() -> {
+                        try {
+                            regradeChunk(job, key, chunk);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            inFlight.acquire(parallelism * 2);
+            job.finish(job.failed.get() == 0 ? "COMPLETED" : "COMPLETED_WITH_ERRORS", job.firstError.get());
+            if (job.changed.get() > 0) {
+                eventPublisher.publishEvent(new TestRegradedEvent(testId, job.changed.get()));
+            }
+            log.info("Regrade job {} for test {} done: {} attempts, {} changed, {} failed, {}/s",
+                    job.id, testId, job.processed.get(), job.changed.get(), job.failed.get(),
+                    String.format("%.0f", job.throughput()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish("FAILED", "Interrupted");
+        } catch (RuntimeException e) {
+            log.error("Regrade job {} for test {} failed: {}", job.id, testId, e.getMessage());
+            job.finish("FAILED", e.getMessage());
+        } finally {
+            activeByTest.remove(testId, job);
+        }
+    }
+
+    // An attempt that fails to grade is counted as failed and left as stored; the rest of the chunk goes on
+    private void regradeChunk(Job job, AnswerKey key, List<TestAttempt> chunk) {
+        List<TestAttempt> changed = new ArrayList<>();
+        for (TestAttempt attempt : chunk) {
+            try {
+                if (regradeAttempt(job, key, attempt)) {
+                    changed.add(attempt);
+                }
+            } catch (RuntimeException e) {
+                log.error("Regrade job {}: failed to grade attempt {}: {}", job.id, attempt.getId(), e.getMessage());
+                job.fail("Attempt " + attempt.getId() + ": " + e.getMessage(), 1);
+            }
+        }
+        try {
+            // Conditional on GRADED, so it never races an attempt that is being submitted
+            attemptRepository.saveGrades(changed, TestAttempt.AttemptStatus.GRADED);
+            job.changed.addAndGet(changed.size());
+        } catch (RuntimeException e) {
+            log.error("Regrade job {}: failed to write {} attempts: {}", job.id, changed.size(), e.getMessage());
+            job.fail(e.getMessage(), changed.size());
+        }
+        job.processed.addAndGet(chunk.size());
+    }
+
+    // Grades the attempt in place against the job's version; returns whether anything stored changed
+    private boolean regradeAttempt(Job job, AnswerKey key, TestAttempt attempt) {
+        Double oldScore = attempt.getScore();
+        Integer oldEarned = attempt.getEarnedPoints();
+        Integer oldTotal = attempt.getTotalPoints();
+        String oldVersion = attempt.getTestVersionId();
+        List<Integer> oldSample = attempt.getQuestionIndexes();
+        if (oldSample != null && oldVersion != null && !oldVersion.equals(job.version.getId())) {
+            attempt.setQuestionIndexes(remapSample(oldSample, oldVersion, key));
+        }
+        key.grade(attempt);
+        // Regraded attempts are re-pinned, so review shows the version they were scored against
+        attempt.setTestVersionId(job.version.getId());
+        return !Objects.equals(oldScore, attempt.getScore()) || !Objects.equals(oldEarned, attempt.getEarnedPoints())
+                || !Objects.equals(oldTotal, attempt.getTotalPoints()) || !Objects.equals(oldVersion, job.version.getId())
+                || !Objects.equals(oldSample, attempt.getQuestionIndexes());
+    }
+
+    // Sampled positions point into the pinned version; carry them to the new one by question id.
+    // Questions the new version dropped leave the sample, so they no longer count towards the total
+    private List<Integer> remapSample(List<Integer> sample, String versionId, AnswerKey key) {
+        List<Test.Question> pinned = testVersionService.getVersion(versionId).getContent().getQuestions();
+        List<Integer> remapped = new ArrayList<>(sample.size());
+        for (Integer position : sample) {
+            if (pinned == null || position == null || position < 0 || position >= pinned.size()) continue;
+            Integer current = key.indexOf(pinned.get(position).getId());
+            if (current != null) remapped.add(current);
+        }
+        remapped.sort(null);
+        return remapped;
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicLong threads = new AtomicLong();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Job {
+        private final String id;
+        private final TestVersion version;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong changed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        // Reported as the job's error when it completes with failures
+        private final AtomicReference<String> firstError = new AtomicReference<>();
+        private volatile String status = "RUNNING";
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedNanos;
+
+        private Job(String id, TestVersion version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        private void fail(String error, long attempts) {
+            failed.addAndGet(attempts);
+            firstError.compareAndSet(null, error);
+        }
+
+        private void finish(String status, String error) {
+            this.finishedNanos = System.nanoTime();
+            this.finishedAt = LocalDateTime.now();
+            this.error = error;
+            this.status = status;
+        }
+
+        private double throughput() {
+            long end = finishedAt != null ? finishedNanos : System.nanoTime();
+            double seconds = Duration.ofNanos(end - startedNanos).toMillis() / 1000.0;
+            return seconds > 0 ? processed.get() / seconds : 0;
+        }
+
+        private RegradeJobResponse toResponse() {
+            return RegradeJobResponse.builder()
+                    .jobId(id)
+                    .testId(version.getTestId())
+                    .testVersionId(version.getId())
+                    .status(status)
+                    .total(total.get())
+                    .processed(processed.get())
+                    .changed(changed.get())
+                    .failed(failed.get())
+                    .attemptsPerSecond(Math.round(throughput() * 10) / 10.0)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
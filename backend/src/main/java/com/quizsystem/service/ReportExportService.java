@@ -0,0 +1,231 @@
+package com.quizsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.model.TestVersion;
+import com.quizsystem.model.User;
+import com.quizsystem.repository.TestAttemptRepository;
+import com.quizsystem.repository.TestVersionRepository;
+import com.quizsystem.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams all attempts of a test as CSV or NDJSON straight from a Mongo cursor. Rows are written
+ * in chunks of batch-size attempts; only the current chunk and the names of its users are held in
+ * memory, so an export of millions of attempts runs in constant heap.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportExportService {
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+
+    private static final List<String> COLUMNS = List.of("attemptId", "userId", "userName", "userEmail", "status",
+            "testVersionId", "startedAt", "submittedAt", "score", "earnedPoints", "totalPoints");
+
+    private final TestAttemptRepository attemptRepository;
+    private final TestVersionRepository testVersionRepository;
+    private final UserRepository userRepository;
+    private final TestService testService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${quiz.reports.export.batch-size:1000}")
+    private int batchSize;
+
+    // Resolves the test and its question columns up front, so a bad id fails before streaming starts
+    public StreamingResponseBody export(String testId, Format format) {
+        Test test = testService.getTestById(testId);
+        List<String> questionIds = questionColumns(test);
+        return out -> write(testId, questionIds, format, out);
+    }
+
+    // Questions of the current version in order, then any that only older versions had
+    private List<String> questionColumns(Test test) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (test.getQuestions() != null) {
+            test.getQuestions().forEach(q -> ids.add(q.getId()));
+        }
+        for (TestVersion version : testVersionRepository.findByTestIdOrderByCreatedAtAsc(test.getId())) {
+            if (version.getContent().getQuestions() != null) {
+                version.getContent().getQuestions().forEach(q -> ids.add(q.getId()));
+            }
+        }
+        ids.remove(null);
+        return new ArrayList<>(ids);
+    }
+
+    private void write(String testId, List<String> questionIds, Format format, OutputStream out) throws IOException {
+        long rows = 0;
+        long started = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writeCsvHeader(writer, questionIds);
+        }
+        try (Stream<TestAttempt> attempts = attemptRepository.streamForExport(testId, batchSize)) {
+            Iterator<TestAttempt> cursor = attempts.iterator();
+            List<TestAttempt> chunk = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() == batchSize || !cursor.hasNext()) {
+                    Map<String, User> users = loadUsers(chunk);
+                    for (TestAttempt attempt : chunk) {
+                        if (format == Format.CSV) {
+                            writeCsvRow(writer, attempt, users.get(attempt.getUserId()), questionIds);
+                        } else {
+                            writeJsonRow(writer, attempt, users.get(attempt.getUserId()));
+                        }
+                    }
+                    rows += chunk.size();
+                    chunk.clear();
+                    // Hand each chunk to the client right away instead of at the end
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} attempts of test {} as {} in {} ms", rows, testId, format,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // One query per chunk for the distinct users in it
+    private Map<String, User> loadUsers(List<TestAttempt> chunk) {
+        Set<String> ids = chunk.stream().map(TestAttempt::getUserId).filter(id -> id != null)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findNamesByIdIn(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private void writeCsvHeader(Writer writer, List<String> questionIds) throws IOException {
+        StringBuilder line = new StringBuilder(String.join(",", COLUMNS));
+        for (String questionId : questionIds) {
+            line.append(',').append(csv("q:" + questionId));
+        }
+        writer.write(line.append("\r\n").toString());
+    }
+
+    // Question cells are 1 (correct), 0 (wrong) or empty (not answered or not graded yet)
+    private void writeCsvRow(Writer writer, TestAttempt attempt, User user, List<String> questionIds) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        line.append(csv(attempt.getId())).append(',')
+                .append(csv(attempt.getUserId())).append(',')
+                .append(csv(user != null ? user.getName() : null)).append(',')
+                .append(csv(user != null ? user.getEmail() : null)).append(',')
+                .append(value(attempt.getStatus())).append(',')
+                .append(csv(attempt.getTestVersionId())).append(',')
+                .append(value(attempt.getStartedAt())).append(',')
+                .append(value(attempt.getSubmittedAt())).append(',')
+                .append(attempt.getScore() != null ? String.format(Locale.ROOT, "%.2f", attempt.getScore()) : "").append(',')
+                .append(value(attempt.getEarnedPoints())).append(',')
+                .append(value(attempt.getTotalPoints()));
+
+        Map<String, Boolean> correct = correctness(attempt);
+        for (String questionId : questionIds) {
+            Boolean isCorrect = correct.get(questionId);
+            line.append(',').append(isCorrect == null ? "" : isCorrect ? "1" : "0");
+        }
+        writer.write(line.append("\r\n").toString());
+    }
+
+    private void writeJsonRow(Writer writer, TestAttempt attempt, User user) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("attemptId", attempt.getId());
+        row.put("userId", attempt.getUserId());
+        row.put("userName", user != null ? user.getName() : null);
+        row.put("userEmail", user != null ? user.getEmail() : null);
+        row.put("status", attempt.getStatus());
+        row.put("testVersionId", attempt.getTestVersionId());
+        row.put("startedAt", attempt.getStartedAt());
+        row.put("submittedAt", attempt.getSubmittedAt());
+        row.put("score", attempt.getScore());
+        row.put("earnedPoints", attempt.getEarnedPoints());
+        row.put("totalPoints", attempt.getTotalPoints());
+        row.put("correct", correctness(attempt));
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    private static Map<String, Boolean> correctness(TestAttempt attempt) {
+        if (attempt.getAnswers() == null || attempt.getAnswers().isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Boolean> correct = new HashMap<>();
+        for (TestAttempt.Answer answer : attempt.getAnswers()) {
+            if (answer.getQuestionId() != null && answer.getIsCorrect() != null) {
+                correct.putIfAbsent(answer.getQuestionId(), answer.getIsCorrect());
+            }
+        }
+        return correct;
+    }
+
+    private static String value(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    // RFC 4180 quoting; text starting with a formula character is prefixed so spreadsheets don't evaluate it
+    private static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String text = "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
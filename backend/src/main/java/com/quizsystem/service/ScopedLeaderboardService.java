@@ -0,0 +1,337 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.LeaderboardEntry;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.TestRegradedEvent;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.TestAttemptRepository;
+import com.quizsystem.repository.TestAttemptRepositoryCustom;
+import com.quizsystem.repository.TestRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Leaderboards per test and per category, all-time or over a rolling window, and the global board
+ * over a window (the all-time global board is {@link LeaderboardService}). Each scope keeps per-user
+ * tallies in a ring of daily buckets, so a window is a merge of at most {@value #RING_DAYS}
+ * pre-aggregated buckets rather than a scan of test_attempts. Buckets are filled from
+ * AttemptGradedEvent and rebuilt from one Mongo aggregation at startup, after a regrade and on the
+ * leaderboard rebuild interval; events that arrive while a rebuild runs are replayed onto its result
+ * through {@link RecentGrades}. A merged and sorted window is cached until its scope changes or the
+ * day rolls over.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScopedLeaderboardService {
+
+    public enum Window {
+        DAY(1), WEEK(7), MONTH(30), ALL(0);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+
+        public static Window parse(String value) {
+            if (value == null || value.isBlank()) {
+                return ALL;
+            }
+            for (Window window : values()) {
+                if (window.name().equalsIgnoreCase(value)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Unknown leaderboard window: " + value);
+        }
+    }
+
+    // Longest window; one bucket per day
+    static final int RING_DAYS = 30;
+
+    private static final String GLOBAL = "global";
+    private static final String TEST = "test:";
+    private static final String CATEGORY = "category:";
+
+    private final TestAttemptRepository attemptRepository;
+    private final TestRepository testRepository;
+    private final LeaderboardService leaderboardService;
+
+    @Value("${quiz.leaderboard.replay-window-ms:60000}")
+    private long replayWindowMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Scope> scopes = new HashMap<>();
+    private long mutations;
+    private RecentGrades recent;
+
+    // Sorted windows by scope and window; entries are only made for scopes that exist
+    private final Map<String, Ranked> ranked = new ConcurrentHashMap<>();
+
+    private record Ranked(long version, long today, List<LeaderboardService.Standing> standings) {
+    }
+
+    @PostConstruct
+    public void init() {
+        recent = new RecentGrades(replayWindowMs);
+    }
+
+    // Changes whenever a scope does; rows also carry names, which LeaderboardService#version tracks
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return mutations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LeaderboardEntry> getGlobalPage(Window window, Integer offset, Integer limit) {
+        if (window == Window.ALL) {
+            return leaderboardService.getPage(offset, limit);
+        }
+        return getPage(GLOBAL, window, offset, limit);
+    }
+
+    public List<LeaderboardEntry> getTestPage(String testId, Window window, Integer offset, Integer limit) {
+        return getPage(TEST + testId, window, offset, limit);
+    }
+
+    public List<LeaderboardEntry> getCategoryPage(String category, Window window, Integer offset, Integer limit) {
+        return getPage(CATEGORY + category, window, offset, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${quiz.leaderboard.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${quiz.leaderboard.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        long today = LocalDate.now().toEpochDay();
+        LocalDateTime since = LocalDate.ofEpochDay(today - RING_DAYS + 1).atStartOfDay();
+        LocalDateTime cutoff;
+        lock.writeLock().lock();
+        try {
+            cutoff = recent.pin();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<String, String> categories;
+        List<TestAttemptRepositoryCustom.UserTestStanding> rows;
+        try {
+            categories = testRepository.findAllCategories().stream()
+                    .filter(test -> test.getCategory() != null)
+                    .collect(Collectors.toMap(Test::getId, Test::getCategory));
+            rows = attemptRepository.aggregateTestStandings(since, cutoff);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                recent.unpin(cutoff);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        Map<String, Scope> rebuilt = new HashMap<>();
+        for (TestAttemptRepositoryCustom.UserTestStanding row : rows) {
+            Tally delta = new Tally();
+            delta.attempts = row.attempts();
+            delta.points = row.totalPoints();
+            delta.scoreSum = row.scoreSum();
+            delta.scored = row.scored();
+            delta.best = row.bestScore() != null ? row.bestScore() : 0;
+            delta.testIds.add(row.testId());
+            record(rebuilt, row.userId(), row.testId(), categories.get(row.testId()), row.day(), delta, today, 0);
+        }
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            List<AttemptGradedEvent> recentGrades = recent.unpin(cutoff);
+            long now = LocalDate.now().toEpochDay();
+            recentGrades.forEach(event -> apply(rebuilt, event, now, 0));
+            replayed = recentGrades.size();
+            scopes = rebuilt;
+            ranked.clear();
+            mutations++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Scoped leaderboards rebuilt: {} scopes, {} recent grades replayed, in {} ms",
+                rebuilt.size(), replayed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onAttemptGraded(AttemptGradedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(scopes, event, LocalDate.now().toEpochDay(), ++mutations);
+            recent.add(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A regrade rewrites scores that were already counted, so the buckets are recomputed
+    @EventListener
+    public void onTestRegraded(TestRegradedEvent event) {
+        rebuild();
+    }
+
+    private static void apply(Map<String, Scope> target, AttemptGradedEvent event, long today, long version) {
+        TestAttempt attempt = event.getAttempt();
+        if (attempt.getUserId() == null || attempt.getTestId() == null) {
+            return;
+        }
+        Tally delta = new Tally();
+        delta.attempts = 1;
+        delta.points = attempt.getEarnedPoints() != null ? attempt.getEarnedPoints() : 0;
+        delta.scoreSum = attempt.getScore() != null ? attempt.getScore() : 0;
+        delta.scored = attempt.getScore() != null ? 1 : 0;
+        delta.best = delta.scoreSum;
+        delta.testIds.add(attempt.getTestId());
+        LocalDate day = attempt.getSubmittedAt() != null ? attempt.getSubmittedAt().toLocalDate() : LocalDate.now();
+        String category = event.getTest() != null ? event.getTest().getCategory() : null;
+        record(target, attempt.getUserId(), attempt.getTestId(), category, day, delta, today, version);
+    }
+
+    private List<LeaderboardEntry> getPage(String key, Window window, Integer offset, Integer limit) {
+        int from = Math.max(0, offset != null ? offset : 0);
+        int size = leaderboardService.clampLimit(limit);
+        List<LeaderboardService.Standing> standings = ranking(key, window);
+        if (from >= standings.size()) {
+            return List.of();
+        }
+        return leaderboardService.toEntries(standings.subList(from, Math.min(standings.size(), from + size)), from);
+    }
+
+    private List<LeaderboardService.Standing> ranking(String key, Window window) {
+        long today = LocalDate.now().toEpochDay();
+        String cacheKey = key + '|' + window;
+        lock.readLock().lock();
+        try {
+            Scope scope = scopes.get(key);
+            if (scope == null) {
+                return List.of();
+            }
+            Ranked cached = ranked.get(cacheKey);
+            if (cached != null && cached.version() == scope.version && cached.today() == today) {
+                return cached.standings();
+            }
+            List<LeaderboardService.Standing> standings = scope.rank(window, today);
+            ranked.put(cacheKey, new Ranked(scope.version, today, standings));
+            return standings;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void record(Map<String, Scope> target, String userId, String testId, String category,
+                               LocalDate day, Tally delta, long today, long version) {
+        target.computeIfAbsent(GLOBAL, key -> new Scope(false)).add(userId, day, delta, today, version);
+        target.computeIfAbsent(TEST + testId, key -> new Scope(true)).add(userId, day, delta, today, version);
+        if (category != null && !category.isBlank()) {
+            target.computeIfAbsent(CATEGORY + category, key -> new Scope(true)).add(userId, day, delta, today, version);
+        }
+    }
+
+    // Per-user totals; testIds backs testsCompleted
+    private static final class Tally {
+        long attempts;
+        long points;
+        double scoreSum;
+        long scored;
+        double best;
+        final Set<String> testIds = new HashSet<>();
+
+        void merge(Tally other) {
+            attempts += other.attempts;
+            points += other.points;
+            scoreSum += other.scoreSum;
+            scored += other.scored;
+            best = Math.max(best, other.best);
+            testIds.addAll(other.testIds);
+        }
+    }
+
+    /**
+     * Tallies of one scope. Bucket i holds the day days[i], the one day in the ring with
+     * day % RING_DAYS == i; a bucket still holding an older day is stale and is reset on its next
+     * write and skipped by reads. allTime is not kept for the global scope.
+     */
+    private static final class Scope {
+        final long[] days = new long[RING_DAYS];
+        final List<Map<String, Tally>> buckets = new ArrayList<>(RING_DAYS);
+        final Map<String, Tally> allTime;
+        long version;
+
+        Scope(boolean keepAllTime) {
+            Arrays.fill(days, Long.MIN_VALUE);
+            for (int i = 0; i < RING_DAYS; i++) {
+                buckets.add(new HashMap<>());
+            }
+            allTime = keepAllTime ? new HashMap<>() : null;
+        }
+
+        void add(String userId, LocalDate day, Tally delta, long today, long version) {
+            this.version = version;
+            if (allTime != null) {
+                allTime.computeIfAbsent(userId, key -> new Tally()).merge(delta);
+            }
+            if (day == null || day.toEpochDay() <= today - RING_DAYS) {
+                return;
+            }
+            long epochDay = day.toEpochDay();
+            int slot = (int) Math.floorMod(epochDay, RING_DAYS);
+            if (days[slot] > epochDay) {
+                return;
+            }
+            if (days[slot] != epochDay) {
+                buckets.get(slot).clear();
+                days[slot] = epochDay;
+            }
+            buckets.get(slot).computeIfAbsent(userId, key -> new Tally()).merge(delta);
+        }
+
+        List<LeaderboardService.Standing> rank(Window window, long today) {
+            Map<String, Tally> merged = new HashMap<>();
+            if (window == Window.ALL) {
+                if (allTime != null) {
+                    allTime.forEach((userId, tally) -> merged.computeIfAbsent(userId, key -> new Tally()).merge(tally));
+                }
+            } else {
+                for (long day = today - window.days + 1; day <= today; day++) {
+                    int slot = (int) Math.floorMod(day, RING_DAYS);
+                    if (days[slot] == day) {
+                        buckets.get(slot).forEach((userId, tally) -> merged.computeIfAbsent(userId, key -> new Tally()).merge(tally));
+                    }
+                }
+            }
+            List<LeaderboardService.Standing> standings = new ArrayList<>(merged.size());
+            merged.forEach((userId, tally) -> standings.add(new LeaderboardService.Standing(userId, tally.points,
+                    tally.scoreSum, tally.scored, tally.best, tally.attempts, tally.testIds, tally.testIds.size())));
+            standings.sort(LeaderboardService.ORDER);
+            return standings;
+        }
+    }
+}
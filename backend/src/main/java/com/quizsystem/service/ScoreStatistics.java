@@ -0,0 +1,143 @@
+package com.quizsystem.service;
+
+/**
+ * Mergeable summary of scores in [0, 100]: count, mean and variance by Welford's method (Chan's
+ * formula when two summaries merge), min and max, and a histogram of {@value #BINS_PER_POINT} bins
+ * per point that doubles as the quantile sketch. Scores are bounded, so the sketch is a fixed array,
+ * merging is element-wise addition and a quantile is within half a bin (0.125 points) of the exact
+ * one. Counts at or above a whole-number threshold are exact. Not thread-safe.
+ */
+public final class ScoreStatistics {
+
+    static final int BINS_PER_POINT = 4;
+    static final int BINS = 100 * BINS_PER_POINT + 1;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min;
+    private double max;
+    private final long[] bins = new long[BINS];
+
+    public void add(double score) {
+        double x = Math.max(0, Math.min(100, score));
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        min = count == 1 ? x : Math.min(min, x);
+        max = count == 1 ? x : Math.max(max, x);
+        bins[bin(x)]++;
+    }
+
+    public ScoreStatistics merge(ScoreStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        for (int i = 0; i < BINS; i++) {
+            bins[i] += other.bins[i];
+        }
+        return this;
+    }
+
+    // Rebuilds a summary from its persisted parts; the sums give back mean and m2 up to rounding
+    public static ScoreStatistics restore(long count, double sum, double sumOfSquares, double min, double max, long[] bins) {
+        ScoreStatistics statistics = new ScoreStatistics();
+        if (count <= 0) {
+            return statistics;
+        }
+        statistics.count = count;
+        statistics.mean = sum / count;
+        statistics.m2 = Math.max(0, sumOfSquares - sum * sum / count);
+        statistics.min = min;
+        statistics.max = max;
+        System.arraycopy(bins, 0, statistics.bins, 0, Math.min(bins.length, BINS));
+        return statistics;
+    }
+
+    public ScoreStatistics copy() {
+        return new ScoreStatistics().merge(this);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    // Population variance: the summary covers every graded attempt, not a sample of them
+    public double variance() {
+        return count > 0 ? m2 / count : 0;
+    }
+
+    public double sum() {
+        return mean * count;
+    }
+
+    public double sumOfSquares() {
+        return m2 + mean * mean * count;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public long countAtLeast(double threshold) {
+        long at = 0;
+        for (int i = Math.max(0, (int) Math.ceil(threshold * BINS_PER_POINT)); i < BINS; i++) {
+            at += bins[i];
+        }
+        return at;
+    }
+
+    // Nearest-rank q-quantile, q in [0, 1]: the middle of the bin holding it, kept within [min, max]
+    public Double quantile(double q) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += bins[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, (i + 0.5) / BINS_PER_POINT));
+            }
+        }
+        return max;
+    }
+
+    // Counts over `buckets` equal ranges of [0, 100]; a score of 100 goes into the last one
+    public long[] histogram(int buckets) {
+        long[] histogram = new long[buckets];
+        for (int i = 0; i < BINS; i++) {
+            histogram[Math.min(buckets - 1, i * buckets / (BINS - 1))] += bins[i];
+        }
+        return histogram;
+    }
+
+    public long[] bins() {
+        return bins.clone();
+    }
+
+    private static int bin(double score) {
+        return Math.min(BINS - 1, (int) (score * BINS_PER_POINT));
+    }
+}
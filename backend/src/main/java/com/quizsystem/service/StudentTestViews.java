@@ -0,0 +1,113 @@
+package com.quizsystem.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizsystem.dto.TestSummary;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Student-facing views of a test version. The public JSON is a {@link TestSummary}: details and
+ * the number of questions an attempt draws, but no questions, so a question bank is only ever seen
+ * through the attempts that drew from it. It is rendered once per version to UTF-8 bytes and
+ * optionally gzipped; versions are immutable, so rendered views stay valid until they fall out of
+ * the LRU. The answer-free test (no isCorrect flags, no correct answers) is kept alongside, and
+ * attempt delivery (sampled, shuffled, paged) is cut from it rather than from the full version.
+ */
+@Slf4j
+@Component
+public class StudentTestViews {
+
+    public record RenderedView(String versionId, Test test, byte[] json, byte[] gzip) {
+    }
+
+    private final ObjectMapper viewMapper;
+    private final boolean gzipEnabled;
+    private final Map<String, RenderedView> views;
+
+    public StudentTestViews(ObjectMapper objectMapper,
+                            @Value("${quiz.tests.student-view.gzip:true}") boolean gzipEnabled,
+                            @Value("${quiz.tests.student-view.cache-size:500}") int cacheSize) {
+        this.viewMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.gzipEnabled = gzipEnabled;
+        this.views = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RenderedView> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+
+    // Renders under the map lock, so a burst of requests for a new version renders it once
+    public RenderedView get(TestVersion version) {
+        return views.computeIfAbsent(version.getId(), id -> render(version));
+    }
+
+    private RenderedView render(TestVersion version) {
+        try {
+            Test view = studentView(version.getContent());
+            byte[] json = viewMapper.writeValueAsBytes(TestSummary.of(version.getContent()));
+            byte[] gzip = gzipEnabled ? gzip(json) : null;
+            log.debug("Rendered student view of test {} version {}: {} bytes, {} gzipped",
+                    version.getTestId(), version.getId(), json.length, gzip != null ? gzip.length : 0);
+            return new RenderedView(version.getId(), view, json, gzip);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render test " + version.getTestId(), e);
+        }
+    }
+
+    static Test studentView(Test test) {
+        List<Test.Question> questions = test.getQuestions() == null ? null : test.getQuestions().stream()
+                .map(q -> Test.Question.builder()
+                        .id(q.getId())
+                        .type(q.getType())
+                        .text(q.getText())
+                        .imageUrl(q.getImageUrl())
+                        .points(q.getPoints())
+                        .choices(q.getChoices() == null ? null : q.getChoices().stream()
+                                .map(c -> Test.Choice.builder().id(c.getId()).text(c.getText()).build())
+                                .toList())
+                        .build())
+                .toList();
+        return Test.builder()
+                .id(test.getId())
+                .title(test.getTitle())
+                .description(test.getDescription())
+                .durationMinutes(test.getDurationMinutes())
+                .passingScore(test.getPassingScore())
+                .tags(test.getTags())
+                .category(test.getCategory())
+                .difficulty(test.getDifficulty())
+                .maxAttempts(test.getMaxAttempts())
+                .currentVersionId(test.getCurrentVersionId())
+                .questions(questions)
+                .build();
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,17 +1,38 @@
 package com.quizsystem.service;
 
 import com.quizsystem.dto.AnswerRequest;
+import com.quizsystem.dto.AnswerSaveResponse;
+import com.quizsystem.dto.CursorPage;
+import com.quizsystem.dto.QuestionPage;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.AttemptStartedEvent;
+import com.quizsystem.event.AttemptSubmittedEvent;
+import com.quizsystem.model.AttemptCounter;
 import com.quizsystem.model.Test;
 import com.quizsystem.model.TestAttempt;
+import com.quizsystem.model.TestVersion;
+import com.quizsystem.repository.AttemptCounterRepository;
+import com.quizsystem.repository.Keyset;
+import com.quizsystem.repository.KeysetPager;
 import com.quizsystem.repository.TestAttemptRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @Service
@@ -20,63 +41,214 @@ public class TestAttemptService {
 
     private final TestAttemptRepository attemptRepository;
     private final TestService testService;
+    private final AnswerKeyCache answerKeyCache;
+    private final AnswerWriteBehindBuffer answerBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AttemptCounterRepository counterRepository;
+    private final TestVersionService testVersionService;
+    private final KeysetPager keysetPager;
+    private final StudentTestViews studentTestViews;
+
+    // Newest first; served by the {userId|testId: 1, startedAt: -1, _id: -1} indexes on test_attempts
+    private static final Keyset<TestAttempt> BY_STARTED_DESC = Keyset.by("startedAt", Sort.Direction.DESC,
+            LocalDateTime.class, TestAttempt::getStartedAt, TestAttempt::getId);
+
+    // How often, and how far apart, a start that lost the reservation looks for the winner's attempt
+    private static final int CONCURRENT_START_RETRIES = 5;
+    private static final long CONCURRENT_START_RETRY_DELAY_MS = 20;
+
+    // Submit only records SUBMITTED and returns; GradingWorkerPool grades in the background
+    @Value("${quiz.grading.async:false}")
+    private boolean asyncGrading;
+
+    // New attempts get a shuffle seed; existing attempts keep the order they were started with
+    @Value("${quiz.attempts.shuffle.enabled:true}")
+    private boolean shuffleEnabled;
+
+    @Value("${quiz.attempts.questions.page-size:10}")
+    private int questionPageSize;
+
+    @Value("${quiz.attempts.questions.max-page-size:100}")
+    private int maxQuestionPageSize;
 
     public TestAttempt startAttempt(String testId, String userId) {
         log.debug("Starting attempt for test {} by user {}", testId, userId);
-        Test test = testService.getTestById(testId);
+        // New attempts pin the test's current version; grading and review use that version from now on
+        TestVersion version = testVersionService.current(testService.getTestById(testId));
+        Test test = version.getContent();
 
         // Check max attempts limit
         int maxAttempts = test.getMaxAttempts() != null ? test.getMaxAttempts() : 3;
-        List<TestAttempt> completedAttempts = attemptRepository.findByUserIdAndTestId(userId, testId)
-                .stream()
-                .filter(a -> a.getStatus() == TestAttempt.AttemptStatus.GRADED
-                        || a.getStatus() == TestAttempt.AttemptStatus.SUBMITTED)
-                .collect(Collectors.toList());
-
-        if (completedAttempts.size() >= maxAttempts) {
-            log.warn("Max attempts reached for user {} on test {} ({}/{})", userId, testId, completedAttempts.size(), maxAttempts);
+        AttemptCounter counter = getCounter(userId, testId);
+
+        if (counter.getCompleted() >= maxAttempts) {
+            log.warn("Max attempts reached for user {} on test {} ({}/{})", userId, testId, counter.getCompleted(), maxAttempts);
             throw new RuntimeException("MAX_ATTEMPTS_REACHED");
         }
 
         // Also check for an existing in-progress attempt and return it instead of creating a new one
-        List<TestAttempt> inProgressAttempts = attemptRepository.findByUserIdAndTestId(userId, testId)
-                .stream()
-                .filter(a -> a.getStatus() == TestAttempt.AttemptStatus.IN_PROGRESS)
-                .collect(Collectors.toList());
-
-        if (!inProgressAttempts.isEmpty()) {
-            TestAttempt existing = inProgressAttempts.get(0);
+        if (counter.getInProgressAttemptId() != null) {
+            TestAttempt existing = attemptRepository.findById(counter.getInProgressAttemptId()).orElse(null);
+            boolean completed = existing != null && existing.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS;
             // Check if the in-progress attempt has timed out
-            if (isAttemptTimedOut(existing, test)) {
-                existing.setSubmittedAt(LocalDateTime.now());
-                existing.setStatus(TestAttempt.AttemptStatus.SUBMITTED);
-                gradeAttempt(existing);
-                attemptRepository.save(existing);
-                log.info("Auto-submitted timed-out attempt {} for user {}", existing.getId(), userId);
-                // After auto-submitting, check again if max attempts reached
-                if (completedAttempts.size() + 1 >= maxAttempts) {
-                    throw new RuntimeException("MAX_ATTEMPTS_REACHED");
-                }
-            } else {
+            if (existing != null && !completed && !isAttemptTimedOut(existing, getAttemptTest(existing))) {
                 log.info("Returning existing in-progress attempt {} for user {} on test {}", existing.getId(), userId, testId);
                 return existing;
             }
+            if (existing != null && !completed) {
+                TestAttempt claimed = attemptRepository.claimSubmission(existing.getId(), LocalDateTime.now());
+                if (claimed != null) {
+                    completeSubmission(claimed, getAttemptTest(claimed));
+                    log.info("Auto-submitted timed-out attempt {} for user {}", existing.getId(), userId);
+                }
+                completed = true;
+            }
+            // Deleted attempts free the slot without counting towards the limit
+            counterRepository.release(counter.getId(), counter.getInProgressAttemptId(), completed);
         }
 
+        // Claim the in-progress slot atomically so concurrent starts cannot exceed maxAttempts
+        String attemptId = new ObjectId().toHexString();
+        if (!counterRepository.reserve(counter.getId(), attemptId, maxAttempts)) {
+            AttemptCounter current = counterRepository.findById(counter.getId()).orElse(counter);
+            if (current.getInProgressAttemptId() != null) {
+                TestAttempt concurrent = findConcurrentStart(current.getInProgressAttemptId());
+                if (concurrent != null && concurrent.getStatus() == TestAttempt.AttemptStatus.IN_PROGRESS) {
+                    log.info("Returning concurrently started attempt {} for user {} on test {}", concurrent.getId(), userId, testId);
+                    return concurrent;
+                }
+                // The slot is held by a start that has not saved its attempt yet, or by one being
+                // submitted right now; either way the limit is not what stopped this start
+                if (current.getCompleted() < maxAttempts) {
+                    log.info("Start of test {} by user {} raced attempt {}, asking to retry", testId, userId,
+                            current.getInProgressAttemptId());
+                    throw new RuntimeException("ATTEMPT_START_CONFLICT");
+                }
+            }
+            log.warn("Max attempts reached for user {} on test {} ({}/{})", userId, testId, current.getCompleted(), maxAttempts);
+            throw new RuntimeException("MAX_ATTEMPTS_REACHED");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
         TestAttempt attempt = TestAttempt.builder()
+                .id(attemptId)
                 .testId(testId)
+                .testVersionId(version.getId())
+                .shuffleSeed(shuffleEnabled ? ThreadLocalRandom.current().nextLong() : null)
+                // Tests with a question bank: draw this attempt's questions now, only their positions are stored
+                .questionIndexes(QuestionSampler.isSampled(test) ? QuestionSampler.sample(test, ThreadLocalRandom.current()) : null)
                 .userId(userId)
-                .startedAt(LocalDateTime.now())
+                .startedAt(now)
+                .deadline(test.getDurationMinutes() != null ? now.plusMinutes(test.getDurationMinutes()) : null)
                 .status(TestAttempt.AttemptStatus.IN_PROGRESS)
                 .answers(new ArrayList<>())
                 .build();
 
         TestAttempt saved = attemptRepository.save(attempt);
+        if (answerBuffer.isEnabled()) {
+            answerBuffer.open(saved.getId(), saved.getDeadline());
+        }
+        eventPublisher.publishEvent(new AttemptStartedEvent(saved.getId(), testId, userId, saved.getDeadline()));
         log.info("New attempt {} created for user {} on test {}", saved.getId(), userId, testId);
         return saved;
     }
 
+    // The winner of the reservation saves its attempt right after reserving; give it a moment to appear
+    private TestAttempt findConcurrentStart(String attemptId) {
+        for (int i = 0; ; i++) {
+            TestAttempt attempt = attemptRepository.findById(attemptId).orElse(null);
+            if (attempt != null || i == CONCURRENT_START_RETRIES) {
+                return attempt;
+            }
+            try {
+                Thread.sleep(CONCURRENT_START_RETRY_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
     public TestAttempt saveAnswer(String attemptId, AnswerRequest answerRequest) {
+        return applyAnswers(attemptId, List.of(toAnswer(answerRequest)));
+    }
+
+    // Single conditional update on test_attempts; only falls back to saveAnswer to report why it did not match
+    public AnswerSaveResponse saveAnswerAtomic(String attemptId, AnswerRequest answerRequest) {
+        LocalDateTime now = LocalDateTime.now();
+        TestAttempt.Answer answer = toAnswer(answerRequest);
+        if (!bufferAnswers(attemptId, List.of(answer), now)
+                && !attemptRepository.upsertAnswer(attemptId, answer, now)) {
+            log.debug("Atomic answer save did not match attempt {}, using full path", attemptId);
+            saveAnswer(attemptId, answerRequest);
+        }
+
+        return AnswerSaveResponse.builder()
+                .attemptId(attemptId)
+                .questionId(answerRequest.getQuestionId())
+                .saved(true)
+                .savedAt(now)
+                .build();
+    }
+
+    // Applies a batch of answers in one write. Later entries for the same question win.
+    public List<AnswerSaveResponse> saveAnswers(String attemptId, List<AnswerRequest> answerRequests) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AnswerSaveResponse> results = new ArrayList<>(answerRequests.size());
+        Map<String, TestAttempt.Answer> answers = new LinkedHashMap<>();
+
+        for (AnswerRequest request : answerRequests) {
+            AnswerSaveResponse.AnswerSaveResponseBuilder result = AnswerSaveResponse.builder()
+                    .attemptId(attemptId)
+                    .questionId(request.getQuestionId());
+            if (request.getQuestionId() == null || request.getQuestionId().isBlank()) {
+                results.add(result.saved(false).error("questionId is required").build());
+                continue;
+            }
+            answers.remove(request.getQuestionId());
+            answers.put(request.getQuestionId(), toAnswer(request));
+            results.add(result.saved(true).savedAt(now).build());
+        }
+
+        if (answers.isEmpty()) {
+            return results;
+        }
+
+        List<TestAttempt.Answer> batch = new ArrayList<>(answers.values());
+        if (!bufferAnswers(attemptId, batch, now) && !attemptRepository.upsertAnswers(attemptId, batch, now)) {
+            log.debug("Batch answer save did not match attempt {}, using full path", attemptId);
+            applyAnswers(attemptId, batch);
+        }
+        log.debug("Saved {} answers for attempt {}", batch.size(), attemptId);
+        return results;
+    }
+
+    // With write-behind enabled, journals the answers of a known open attempt instead of writing to Mongo
+    private boolean bufferAnswers(String attemptId, List<TestAttempt.Answer> answers, LocalDateTime now) {
+        if (!answerBuffer.isEnabled()) {
+            return false;
+        }
+        if (!answerBuffer.isOpen(attemptId, now)) {
+            TestAttempt attempt = attemptRepository.findById(attemptId).orElse(null);
+            if (attempt == null || attempt.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS
+                    || (attempt.getDeadline() != null && !now.isBefore(attempt.getDeadline()))) {
+                return false;
+            }
+            answerBuffer.open(attemptId, attempt.getDeadline());
+        }
+        // False once submit has sealed the attempt; the direct write below then rejects the save
+        return answerBuffer.append(attemptId, answers, now);
+    }
+
+    // Makes sure answers still sitting in the write-behind buffer are in the document; re-reads it if any were
+    private TestAttempt flushBufferedAnswers(TestAttempt attempt) {
+        if (answerBuffer.isEnabled() && answerBuffer.flushAttempt(attempt.getId())) {
+            return attemptRepository.findById(attempt.getId()).orElse(attempt);
+        }
+        return attempt;
+    }
+
+    private TestAttempt applyAnswers(String attemptId, List<TestAttempt.Answer> answers) {
         TestAttempt attempt = attemptRepository.findById(attemptId)
                 .orElseThrow(() -> new RuntimeException("Attempt not found"));
 
@@ -85,60 +257,198 @@ public class TestAttemptService {
         }
 
         // Server-side timer check
-        Test test = testService.getTestById(attempt.getTestId());
+        Test test = getAttemptTest(attempt);
         if (isAttemptTimedOut(attempt, test)) {
             log.warn("Time expired for attempt {}, auto-submitting with current answers", attemptId);
-            attempt.setSubmittedAt(LocalDateTime.now());
-            attempt.setStatus(TestAttempt.AttemptStatus.SUBMITTED);
-            gradeAttempt(attempt);
-            attemptRepository.save(attempt);
+            TestAttempt claimed = attemptRepository.claimSubmission(attemptId, LocalDateTime.now());
+            // A concurrent submit may have won the transition; either way the attempt is closed
+            if (claimed != null) {
+                completeSubmission(claimed, test);
+            }
             throw new RuntimeException("TIME_EXPIRED");
         }
+        attempt = flushBufferedAnswers(attempt);
+
+        for (TestAttempt.Answer answer : answers) {
+            attempt.getAnswers().removeIf(a -> a.getQuestionId().equals(answer.getQuestionId()));
+            attempt.getAnswers().add(answer);
+        }
+        attempt.setRevision((attempt.getRevision() != null ? attempt.getRevision() : 0) + 1);
 
-        attempt.getAnswers().removeIf(a -> a.getQuestionId().equals(answerRequest.getQuestionId()));
+        return attemptRepository.save(attempt);
+    }
 
-        TestAttempt.Answer answer = TestAttempt.Answer.builder()
+    private TestAttempt.Answer toAnswer(AnswerRequest answerRequest) {
+        return TestAttempt.Answer.builder()
                 .questionId(answerRequest.getQuestionId())
                 .selectedChoices(answerRequest.getSelectedChoices())
                 .textAnswer(answerRequest.getTextAnswer())
                 .numericAnswer(answerRequest.getNumericAnswer())
                 .build();
-
-        attempt.getAnswers().add(answer);
-
-        return attemptRepository.save(attempt);
     }
 
     public TestAttempt submitAttempt(String attemptId) {
         log.info("Processing submit for attempt {}", attemptId);
-        TestAttempt attempt = attemptRepository.findById(attemptId)
-                .orElseThrow(() -> new RuntimeException("Attempt not found"));
-
-        if (attempt.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS) {
-            throw new RuntimeException("Attempt already submitted");
+        // Stop buffering answers first: with async grading the attempt waits in SUBMITTED, and answers
+        // the buffer took after the claim would still be flushed into it before it is graded
+        if (answerBuffer.isEnabled()) {
+            answerBuffer.seal(attemptId);
+        }
+        // Claim IN_PROGRESS -> SUBMITTED and read the attempt in one round trip; only one caller wins
+        TestAttempt attempt = attemptRepository.claimSubmission(attemptId, LocalDateTime.now());
+        if (attempt == null) {
+            if (answerBuffer.isEnabled()) {
+                // Not IN_PROGRESS, so saves are rejected by the status check without the seal
+                answerBuffer.forget(attemptId);
+            }
+            TestAttempt current = attemptRepository.findById(attemptId)
+                    .orElseThrow(() -> new RuntimeException("Attempt not found"));
+            // Repeated submit (double click, or raced with auto-submit): return the stored state. An attempt
+            // still SUBMITTED is being graded by whoever claimed it; one left behind by a crash is picked up
+            // by the GradingWorkerPool sweep once it is older than quiz.grading.stale-after-seconds
+            log.info("Attempt {} already {}, returning stored state", attemptId, current.getStatus());
+            return current;
         }
 
         // Server-side timer check — allow a small grace period (30 seconds)
-        Test test = testService.getTestById(attempt.getTestId());
+        Test test = getAttemptTest(attempt);
         if (test.getDurationMinutes() != null && attempt.getStartedAt() != null) {
             LocalDateTime deadline = attempt.getStartedAt()
                     .plusMinutes(test.getDurationMinutes())
                     .plusSeconds(30); // 30s grace
-            if (LocalDateTime.now().isAfter(deadline)) {
+            if (attempt.getSubmittedAt().isAfter(deadline)) {
                 log.warn("Attempt {} submitted after deadline, auto-grading with current answers", attemptId);
             }
         }
 
-        attempt.setSubmittedAt(LocalDateTime.now());
-        attempt.setStatus(TestAttempt.AttemptStatus.SUBMITTED);
+        return completeSubmission(attempt, test);
+    }
 
-        gradeAttempt(attempt);
+    // Entry point for the grading workers; a no-op unless the attempt is still waiting in SUBMITTED
+    public TestAttempt gradeSubmission(String attemptId) {
+        TestAttempt attempt = attemptRepository.findById(attemptId)
+                .orElseThrow(() -> new RuntimeException("Attempt not found"));
+        if (attempt.getStatus() != TestAttempt.AttemptStatus.SUBMITTED) {
+            return attempt;
+        }
+        return gradeSubmitted(attempt, getAttemptTest(attempt));
+    }
 
-        TestAttempt result = attemptRepository.save(attempt);
+    // Called by whoever moved the attempt to SUBMITTED: grades it now, or frees the user's
+    // attempt slot and leaves grading to the workers in async mode
+    private TestAttempt completeSubmission(TestAttempt claimed, Test test) {
+        if (!asyncGrading) {
+            return gradeSubmitted(claimed, test);
+        }
+        releaseCounter(claimed);
+        eventPublisher.publishEvent(new AttemptSubmittedEvent(claimed.getId()));
+        log.info("Attempt {} submitted, queued for grading", claimed.getId());
+        return claimed;
+    }
+
+    private TestAttempt gradeSubmitted(TestAttempt attempt, Test test) {
+        attempt = flushBufferedAnswers(attempt);
+        gradeAttempt(attempt, test);
+
+        // Conditional on SUBMITTED, so an attempt graded concurrently is written, announced and released once;
+        // the loser returns what the winner stored
+        if (attemptRepository.saveGrades(List.of(attempt), TestAttempt.AttemptStatus.SUBMITTED) == 0) {
+            log.info("Attempt {} was graded concurrently, returning stored result", attempt.getId());
+            return attemptRepository.findById(attempt.getId()).orElse(attempt);
+        }
+        eventPublisher.publishEvent(new AttemptGradedEvent(attempt, test));
+        releaseCounter(attempt);
         log.info("Attempt {} graded: score={}%, earned={}/{} points",
-                attemptId, String.format("%.1f", result.getScore()),
-                result.getEarnedPoints(), result.getTotalPoints());
-        return result;
+                attempt.getId(), String.format("%.1f", attempt.getScore()),
+                attempt.getEarnedPoints(), attempt.getTotalPoints());
+        return attempt;
+    }
+
+    // Submits attempts whose deadline has passed; called in batches by AttemptDeadlineScheduler
+    public int autoSubmitExpired(Collection<String> attemptIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Test> tests = new HashMap<>();
+        int submitted = 0;
+
+        for (TestAttempt attempt : attemptRepository.findAllById(attemptIds)) {
+            if (attempt.getStatus() != TestAttempt.AttemptStatus.IN_PROGRESS) {
+                continue;
+            }
+            try {
+                String testKey = attempt.getTestVersionId() != null ? attempt.getTestVersionId() : attempt.getTestId();
+                Test test = tests.computeIfAbsent(testKey, key -> getAttemptTest(attempt));
+                if (!isAttemptTimedOut(attempt, test)) {
+                    continue;
+                }
+                // Attempts submitted by their user in the meantime are left alone
+                TestAttempt claimed = attemptRepository.claimSubmission(attempt.getId(), now);
+                if (claimed == null) {
+                    continue;
+                }
+                submitted++;
+                releaseCounter(claimed);
+                if (asyncGrading) {
+                    eventPublisher.publishEvent(new AttemptSubmittedEvent(claimed.getId()));
+                    continue;
+                }
+                claimed = flushBufferedAnswers(claimed);
+                gradeAttempt(claimed, test);
+                // Written one by one and conditional on SUBMITTED, like gradeSubmitted: a grading worker may have
+                // picked the attempt up meanwhile, and only the write that matched is announced
+                if (attemptRepository.saveGrades(List.of(claimed), TestAttempt.AttemptStatus.SUBMITTED) > 0) {
+                    eventPublisher.publishEvent(new AttemptGradedEvent(claimed, test));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Skipping auto-submit of attempt {}: {}", attempt.getId(), e.getMessage());
+            }
+        }
+        return submitted;
+    }
+
+    // The test exactly as the attempt saw it; attempts from before versioning use the live test
+    public Test getAttemptTest(TestAttempt attempt) {
+        if (attempt.getTestVersionId() != null) {
+            return testVersionService.getVersion(attempt.getTestVersionId()).getContent();
+        }
+        return testService.getTestById(attempt.getTestId());
+    }
+
+    /**
+     * What the student sees while taking the attempt: no correct answers, only the sampled
+     * questions, in the attempt's order. Without questions it is just the test's details, for
+     * clients that page through them with {@link #getDeliveryQuestions}.
+     */
+    public Test getDeliveryTest(String attemptId, boolean includeQuestions) {
+        TestAttempt attempt = getAttemptById(attemptId);
+        Test test = studentTest(attempt);
+        if (!includeQuestions) {
+            return test.toBuilder().questions(null).build();
+        }
+        return AttemptShuffle.apply(test, attempt.getQuestionIndexes(), attempt.getShuffleSeed());
+    }
+
+    // One page of the attempt's questions; only the questions on the page are copied out of the shared view
+    public QuestionPage getDeliveryQuestions(String attemptId, Integer offset, Integer limit) {
+        TestAttempt attempt = getAttemptById(attemptId);
+        Test test = studentTest(attempt);
+        List<Test.Question> bank = test.getQuestions() != null ? test.getQuestions() : List.of();
+        int[] order = AttemptShuffle.questionOrder(bank.size(), attempt.getQuestionIndexes(), attempt.getShuffleSeed());
+        int from = Math.max(0, Math.min(offset != null ? offset : 0, order.length));
+        int size = limit == null ? questionPageSize : Math.max(1, Math.min(limit, maxQuestionPageSize));
+        int to = Math.min(order.length, from + size);
+        List<Test.Question> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(AttemptShuffle.question(bank.get(order[i]), order[i], attempt.getShuffleSeed()));
+        }
+        return QuestionPage.builder().items(items).offset(from).total(order.length).build();
+    }
+
+    // The pinned version's shared answer-free view; attempts from before versioning render the live test
+    private Test studentTest(TestAttempt attempt) {
+        if (attempt.getTestVersionId() != null) {
+            return studentTestViews.get(testVersionService.getVersion(attempt.getTestVersionId())).test();
+        }
+        return StudentTestViews.studentView(testService.getTestById(attempt.getTestId()));
     }
 
     private boolean isAttemptTimedOut(TestAttempt attempt, Test test) {
@@ -150,82 +460,51 @@ public class TestAttemptService {
     }
 
     public long getCompletedAttemptsCount(String userId, String testId) {
-        return attemptRepository.findByUserIdAndTestId(userId, testId)
-                .stream()
-                .filter(a -> a.getStatus() == TestAttempt.AttemptStatus.GRADED
-                        || a.getStatus() == TestAttempt.AttemptStatus.SUBMITTED)
-                .count();
+        return getCounter(userId, testId).getCompleted();
     }
 
-    private void gradeAttempt(TestAttempt attempt) {
-        Test test = testService.getTestById(attempt.getTestId());
-
-        int totalPoints = 0;
-        int earnedPoints = 0;
-
-        for (Test.Question question : test.getQuestions()) {
-            totalPoints += question.getPoints();
-
-            TestAttempt.Answer answer = attempt.getAnswers().stream()
-                    .filter(a -> a.getQuestionId().equals(question.getId()))
+    // Counters are created lazily; the first lookup for a (user, test) pair seeds it from attempt history
+    private AttemptCounter getCounter(String userId, String testId) {
+        String counterId = AttemptCounter.idOf(userId, testId);
+        return counterRepository.findById(counterId).orElseGet(() -> {
+            List<TestAttempt> history = attemptRepository.findStatusesByUserIdAndTestId(userId, testId);
+            long completed = history.stream()
+                    .filter(a -> a.getStatus() == TestAttempt.AttemptStatus.GRADED
+                            || a.getStatus() == TestAttempt.AttemptStatus.SUBMITTED)
+                    .count();
+            String inProgress = history.stream()
+                    .filter(a -> a.getStatus() == TestAttempt.AttemptStatus.IN_PROGRESS)
+                    .map(TestAttempt::getId)
                     .findFirst()
                     .orElse(null);
+            return counterRepository.initialize(AttemptCounter.builder()
+                    .id(counterId)
+                    .userId(userId)
+                    .testId(testId)
+                    .started((long) history.size())
+                    .completed(completed)
+                    .inProgressAttemptId(inProgress)
+                    .build());
+        });
+    }
 
-            if (answer != null) {
-                boolean isCorrect = checkAnswer(question, answer);
-                answer.setIsCorrect(isCorrect);
-                answer.setPointsAwarded(isCorrect ? question.getPoints() : 0);
-                earnedPoints += answer.getPointsAwarded();
-            }
-        }
+    private void releaseCounter(TestAttempt attempt) {
+        counterRepository.release(AttemptCounter.idOf(attempt.getUserId(), attempt.getTestId()), attempt.getId(), true);
+    }
 
-        attempt.setTotalPoints(totalPoints);
-        attempt.setEarnedPoints(earnedPoints);
-        attempt.setScore(totalPoints > 0 ? (double) earnedPoints / totalPoints * 100 : 0);
+    private void gradeAttempt(TestAttempt attempt, Test test) {
+        answerKeyCache.get(test).grade(attempt);
         attempt.setStatus(TestAttempt.AttemptStatus.GRADED);
+        attempt.setGradedAt(LocalDateTime.now());
     }
 
-    private boolean checkAnswer(Test.Question question, TestAttempt.Answer answer) {
-        switch (question.getType()) {
-            case SINGLE:
-                if (answer.getSelectedChoices() == null || answer.getSelectedChoices().isEmpty()) {
-                    return false;
-                }
-                String selectedChoice = answer.getSelectedChoices().get(0);
-                return question.getChoices().stream()
-                        .anyMatch(c -> c.getId().equals(selectedChoice) && c.getIsCorrect());
-
-            case MULTIPLE:
-                if (answer.getSelectedChoices() == null) {
-                    return false;
-                }
-                List<String> correctChoices = question.getChoices().stream()
-                        .filter(Test.Choice::getIsCorrect)
-                        .map(Test.Choice::getId)
-                        .collect(Collectors.toList());
-                return answer.getSelectedChoices().size() == correctChoices.size() &&
-                        answer.getSelectedChoices().containsAll(correctChoices);
-
-            case TRUEFALSE:
-                if (answer.getSelectedChoices() == null || answer.getSelectedChoices().isEmpty()) {
-                    return false;
-                }
-                String selected = answer.getSelectedChoices().get(0);
-                return question.getChoices().stream()
-                        .anyMatch(c -> c.getId().equals(selected) && c.getIsCorrect());
-
-            case NUMERIC:
-                if (answer.getNumericAnswer() == null || question.getCorrectAnswer() == null) {
-                    return false;
-                }
-                return answer.getNumericAnswer().trim().equals(question.getCorrectAnswer().trim());
-
-            case OPEN:
-                return false;
-
-            default:
-                return false;
+    // Full test (with correct answers) for reviewing a finished attempt, in the order it was taken
+    public Test getReviewTest(String attemptId) {
+        TestAttempt attempt = getAttemptById(attemptId);
+        if (attempt.getStatus() == TestAttempt.AttemptStatus.IN_PROGRESS) {
+            throw new RuntimeException("Attempt is still in progress");
         }
+        return AttemptShuffle.apply(getAttemptTest(attempt), attempt.getQuestionIndexes(), attempt.getShuffleSeed());
     }
 
     public TestAttempt getAttemptById(String attemptId) {
@@ -233,15 +512,31 @@ public class TestAttemptService {
                 .orElseThrow(() -> new RuntimeException("Attempt not found"));
     }
 
-    public List<TestAttempt> getUserAttempts(String userId) {
-        return attemptRepository.findByUserId(userId);
+    // Answers the conditional GETs of an attempt without loading its answers
+    public TestAttempt getAttemptStamp(String attemptId) {
+        TestAttempt stamp = attemptRepository.findStamp(attemptId);
+        if (stamp == null) {
+            throw new RuntimeException("Attempt not found");
+        }
+        return stamp;
+    }
+
+    // The version the attempt is delivered and reviewed from; attempts from before versioning follow the live test
+    public String getDeliveredVersionId(TestAttempt attempt) {
+        return attempt.getTestVersionId() != null
+                ? attempt.getTestVersionId()
+                : testService.getCurrentVersion(attempt.getTestId()).getId();
     }
 
-    public List<TestAttempt> getTestAttempts(String testId) {
-        return attemptRepository.findByTestId(testId);
+    public CursorPage<TestAttempt> getUserAttempts(String userId, String cursor, Integer limit, boolean includeTotal) {
+        Query query = new Query(Criteria.where("userId").is(userId));
+        return keysetPager.page(query, TestAttempt.class, BY_STARTED_DESC, cursor, limit, includeTotal);
     }
 
-    public List<TestAttempt> getAllGradedAttempts() {
-        return attemptRepository.findByStatus(TestAttempt.AttemptStatus.GRADED);
+    // Report listing; answers are left out, a test can have tens of thousands of attempts
+    public CursorPage<TestAttempt> getTestAttempts(String testId, String cursor, Integer limit, boolean includeTotal) {
+        Query query = new Query(Criteria.where("testId").is(testId));
+        query.fields().exclude("answers");
+        return keysetPager.page(query, TestAttempt.class, BY_STARTED_DESC, cursor, limit, includeTotal);
     }
 }
@@ -1,26 +1,89 @@
 package com.quizsystem.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizsystem.dto.CatalogBrowseResponse;
+import com.quizsystem.dto.CursorPage;
+import com.quizsystem.dto.TestSummary;
+import com.quizsystem.event.TestChangedEvent;
 import com.quizsystem.model.Test;
+import com.quizsystem.model.TestVersion;
+import com.quizsystem.repository.Keyset;
+import com.quizsystem.repository.KeysetPager;
 import com.quizsystem.repository.TestRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 public class TestService {
 
     private final TestRepository testRepository;
+    private final TestVersionService testVersionService;
+    private final ObjectMapper objectMapper;
+    private final KeysetPager keysetPager;
+    private final CatalogSearch catalogSearch;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Upper bound on staleness for writes this instance did not see (other nodes, direct DB edits)
+    @Value("${quiz.catalog.cache-ttl-seconds:300}")
+    private long catalogTtlSeconds;
+
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    private volatile CatalogSnapshot catalog;
+
+    // Published catalog, reloaded on the first read after a test is created, edited or deleted
+    public List<TestSummary> getPublishedSummaries() {
+        return getPublishedCatalog().tests();
+    }
+
+    // Same catalog plus its pre-rendered JSON and ETag; a cache hit does not touch Mongo
+    public PublishedCatalog getPublishedCatalog() {
+        CatalogSnapshot current = catalog;
+        long generation = catalogGeneration.get();
+        if (current != null && current.generation() == generation
+                && System.nanoTime() - current.loadedAt() < TimeUnit.SECONDS.toNanos(catalogTtlSeconds)) {
+            return current.catalog();
+        }
+        // Tagged with the generation read before loading, so an edit made meanwhile forces another reload
+        PublishedCatalog loaded = render(List.copyOf(testRepository.findPublishedSummaries()));
+        catalog = new CatalogSnapshot(loaded, generation, System.nanoTime());
+        return loaded;
+    }
 
-    public List<Test> getAllPublishedTests() {
-        return testRepository.findByPublishedTrue();
+    private PublishedCatalog render(List<TestSummary> tests) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(tests);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            // Content hash, so reloads that change nothing keep the clients' cached copy valid
+            String etag = "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, 16)) + "\"";
+            return new PublishedCatalog(tests, json, etag);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to render test catalog", e);
+        }
     }
 
-    public List<Test> getAllTests() {
-        return testRepository.findAll();
+    // Admin listing in creation order, drafts included
+    public CursorPage<Test> getTests(String cursor, Integer limit, boolean includeTotal) {
+        return keysetPager.page(new Query(), Test.class, Keyset.byId(Sort.Direction.ASC, Test::getId),
+                cursor, limit, includeTotal);
     }
 
     public Test getTestById(String id) {
@@ -28,10 +91,23 @@ public class TestService {
                 .orElseThrow(() -> new RuntimeException("Test not found"));
     }
 
+    // The version a test currently shows, reading only its currentVersionId from Mongo
+    public TestVersion getCurrentVersion(String id) {
+        Test ref = testRepository.findVersionRefById(id)
+                .orElseThrow(() -> new RuntimeException("Test not found"));
+        if (ref.getCurrentVersionId() != null) {
+            return testVersionService.getVersion(ref.getCurrentVersionId());
+        }
+        return testVersionService.current(getTestById(id));
+    }
+
     public Test createTest(Test test, String createdBy) {
         test.setCreatedBy(createdBy);
         test.setCreatedAt(LocalDateTime.now());
         test.setPublished(false);
+        if (test.getId() == null) {
+            test.setId(new ObjectId().toHexString());
+        }
 
         
         if (test.getQuestions() != null) {
@@ -49,7 +125,12 @@ public class TestService {
             });
         }
 
-        return testRepository.save(test);
+        QuestionSampler.validate(test);
+        test.setCurrentVersionId(testVersionService.snapshot(test).getId());
+        Test saved = testRepository.save(test);
+        catalogGeneration.incrementAndGet();
+        eventPublisher.publishEvent(new TestChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     public Test updateTest(String id, Test test) {
@@ -63,6 +144,7 @@ public class TestService {
         existingTest.setPublished(test.getPublished());
         existingTest.setMaxAttempts(test.getMaxAttempts());
         existingTest.setQuestions(test.getQuestions());
+        existingTest.setSampling(test.getSampling());
 
         
         if (existingTest.getQuestions() != null) {
@@ -80,14 +162,34 @@ public class TestService {
             });
         }
 
-        return testRepository.save(existingTest);
+        QuestionSampler.validate(existingTest);
+        // Attempts already started keep the version they pinned
+        existingTest.setCurrentVersionId(testVersionService.snapshot(existingTest).getId());
+        Test saved = testRepository.save(existingTest);
+        catalogGeneration.incrementAndGet();
+        eventPublisher.publishEvent(new TestChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     public void deleteTest(String id) {
         testRepository.deleteById(id);
+        catalogGeneration.incrementAndGet();
+        eventPublisher.publishEvent(new TestChangedEvent(id, null));
+    }
+
+    // Ranked, answered from the in-memory index; only published tests are indexed
+    public List<TestSummary> searchTests(String query, Integer limit) {
+        return catalogSearch.searchTests(query, limit);
+    }
+
+    // Faceted filtering from the in-memory bitmap index
+    public CatalogBrowseResponse browseTests(String query, Map<String, ? extends Collection<String>> filters, Integer limit) {
+        return catalogSearch.browseTests(query, filters, limit);
+    }
+
+    public record PublishedCatalog(List<TestSummary> tests, byte[] json, String etag) {
     }
 
-    public List<Test> searchTests(String query) {
-        return testRepository.findByTitleContainingIgnoreCase(query);
+    private record CatalogSnapshot(PublishedCatalog catalog, long generation, long loadedAt) {
     }
 }
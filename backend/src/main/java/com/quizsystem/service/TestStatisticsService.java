@@ -0,0 +1,168 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.TestScoreStats;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.TestRegradedEvent;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.TestAttemptRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Score statistics per test, kept in a {@link ScoreStatistics} that AttemptGradedEvent updates, so a
+ * report reads a snapshot instead of scanning attempts. Rebuilt at startup and on an interval with one
+ * cursor over every graded score, accumulated in parallel and merged per test; a regraded test is
+ * rebuilt on its own. Grades that arrive while a rebuild runs are replayed onto its result through
+ * {@link RecentGrades}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TestStatisticsService {
+
+    private static final Collector<TestAttempt, ScoreStatistics, ScoreStatistics> SUMMARIZE = Collector.of(
+            ScoreStatistics::new, (stats, attempt) -> stats.add(attempt.getScore()), ScoreStatistics::merge);
+
+    private final TestAttemptRepository attemptRepository;
+
+    @Value("${quiz.reports.stats.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${quiz.reports.stats.replay-window-ms:60000}")
+    private long replayWindowMs;
+
+    // Each ScoreStatistics is guarded by its own monitor; lock orders grades against a rebuild's swap
+    private final Map<String, ScoreStatistics> byTest = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private RecentGrades recent;
+
+    @PostConstruct
+    public void init() {
+        recent = new RecentGrades(replayWindowMs);
+    }
+
+    public TestScoreStats getStats(String testId, double passingScore) {
+        ScoreStatistics stats = byTest.get(testId);
+        ScoreStatistics snapshot;
+        if (stats == null) {
+            snapshot = new ScoreStatistics();
+        } else {
+            synchronized (stats) {
+                snapshot = stats.copy();
+            }
+        }
+        long attempts = snapshot.count();
+        if (attempts == 0) {
+            return TestScoreStats.builder().attempts(0L).build();
+        }
+        long passed = snapshot.countAtLeast(passingScore);
+        return TestScoreStats.builder()
+                .attempts(attempts)
+                .averageScore(snapshot.mean())
+                .scoreStdDev(Math.sqrt(snapshot.variance()))
+                .minScore(snapshot.min())
+                .maxScore(snapshot.max())
+                .medianScore(snapshot.quantile(0.5))
+                .p90Score(snapshot.quantile(0.9))
+                .passedCount(passed)
+                .passRate((double) passed / attempts * 100)
+                .histogram(Arrays.stream(snapshot.histogram(10)).boxed().toList())
+                .build();
+    }
+
+    @EventListener
+    public void onAttemptGraded(AttemptGradedEvent event) {
+        TestAttempt attempt = event.getAttempt();
+        if (attempt.getTestId() == null || attempt.getScore() == null) {
+            return;
+        }
+        synchronized (lock) {
+            add(byTest, attempt);
+            recent.add(event);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${quiz.reports.stats.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${quiz.reports.stats.rebuild-interval-ms:21600000}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = pin();
+        Map<String, ScoreStatistics> rebuilt = summarize(null, cutoff);
+        int replayed;
+        synchronized (lock) {
+            List<AttemptGradedEvent> since = recent.unpin(cutoff);
+            since.forEach(event -> add(rebuilt, event.getAttempt()));
+            replayed = since.size();
+            byTest.keySet().retainAll(rebuilt.keySet());
+            byTest.putAll(rebuilt);
+        }
+        log.info("Test statistics rebuilt: {} tests, {} recent grades replayed, in {} ms",
+                rebuilt.size(), replayed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // A regrade rewrites scores that were already counted
+    @EventListener
+    public synchronized void onTestRegraded(TestRegradedEvent event) {
+        String testId = event.getTestId();
+        LocalDateTime cutoff = pin();
+        Map<String, ScoreStatistics> rebuilt = summarize(testId, cutoff);
+        synchronized (lock) {
+            recent.unpin(cutoff).stream()
+                    .filter(grade -> testId.equals(grade.getAttempt().getTestId()))
+                    .forEach(grade -> add(rebuilt, grade.getAttempt()));
+            ScoreStatistics stats = rebuilt.get(testId);
+            if (stats != null) {
+                byTest.put(testId, stats);
+            } else {
+                byTest.remove(testId);
+            }
+        }
+    }
+
+    private LocalDateTime pin() {
+        synchronized (lock) {
+            return recent.pin();
+        }
+    }
+
+    private static void add(Map<String, ScoreStatistics> byTest, TestAttempt attempt) {
+        if (attempt.getTestId() == null || attempt.getScore() == null) {
+            return;
+        }
+        ScoreStatistics stats = byTest.computeIfAbsent(attempt.getTestId(), testId -> new ScoreStatistics());
+        synchronized (stats) {
+            stats.add(attempt.getScore());
+        }
+    }
+
+    // The cursor is read in order, but the parallel stream accumulates its batches on several threads
+    private Map<String, ScoreStatistics> summarize(String testId, LocalDateTime gradedBefore) {
+        try (Stream<TestAttempt> attempts = attemptRepository.streamGradedScores(testId, gradedBefore, batchSize)) {
+            return attempts.parallel()
+                    .filter(attempt -> attempt.getTestId() != null && attempt.getScore() != null)
+                    .collect(Collectors.groupingBy(TestAttempt::getTestId, SUMMARIZE));
+        } catch (RuntimeException e) {
+            // A failed rebuild must not keep recent grades pinned
+            synchronized (lock) {
+                recent.unpin(gradedBefore);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.quizsystem.service;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestVersion;
+import com.quizsystem.repository.TestRepository;
+import com.quizsystem.repository.TestVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class TestVersionService {
+
+    private static final int CACHE_SIZE = 1000;
+
+    private final TestVersionRepository versionRepository;
+    private final TestRepository testRepository;
+    private final ObjectMapper canonicalMapper;
+
+    // Versions never change, so cached entries never go stale; the bound only caps memory
+    private final Map<String, TestVersion> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TestVersion> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    public TestVersionService(TestVersionRepository versionRepository, TestRepository testRepository,
+                              ObjectMapper objectMapper) {
+        this.versionRepository = versionRepository;
+        this.testRepository = testRepository;
+        // Stable property and map key order, so equal content always hashes the same
+        ObjectMapper canonical = objectMapper.copy();
+        canonical.setConfig(canonical.getSerializationConfig()
+                .with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+        this.canonicalMapper = canonical;
+    }
+
+    /**
+     * Returns the version for the test's current content, storing it the first time that content
+     * is seen. The test must already have an id.
+     */
+    public TestVersion snapshot(Test test) {
+        byte[] canonical = canonicalContent(test);
+        String versionId = hash(canonical);
+
+        TestVersion cached = cache.get(versionId);
+        if (cached != null) {
+            return cached;
+        }
+        TestVersion version = versionRepository.findById(versionId).orElseGet(() -> {
+            // A detached copy, so later changes to the caller's test cannot leak into the version
+            Test content = readContent(canonical);
+            content.setCurrentVersionId(versionId);
+            TestVersion created = TestVersion.builder()
+                    .id(versionId)
+                    .testId(test.getId())
+                    .createdAt(LocalDateTime.now())
+                    .content(content)
+                    .build();
+            try {
+                return versionRepository.insert(created);
+            } catch (DuplicateKeyException e) {
+                // Saved concurrently; same id means same content
+                return created;
+            }
+        });
+        cache.put(versionId, version);
+        return version;
+    }
+
+    public TestVersion getVersion(String versionId) {
+        TestVersion cached = cache.get(versionId);
+        if (cached != null) {
+            return cached;
+        }
+        TestVersion version = versionRepository.findById(versionId)
+                .orElseThrow(() -> new RuntimeException("Test version not found"));
+        cache.put(versionId, version);
+        return version;
+    }
+
+    // The version a loaded test currently shows
+    public TestVersion current(Test test) {
+        return test.getCurrentVersionId() != null ? getVersion(test.getCurrentVersionId()) : snapshot(test);
+    }
+
+    // Tests saved before versioning (or by DataInitializer) get their first version on startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void snapshotUnversionedTests() {
+        int migrated = 0;
+        for (Test test : testRepository.findByCurrentVersionIdIsNull()) {
+            test.setCurrentVersionId(snapshot(test).getId());
+            testRepository.save(test);
+            migrated++;
+        }
+        if (migrated > 0) {
+            log.info("Created initial versions for {} tests", migrated);
+        }
+    }
+
+    // Only what attempts are graded and displayed against; publishing or re-assigning the author is not a new version
+    private byte[] canonicalContent(Test test) {
+        Test content = Test.builder()
+                .id(test.getId())
+                .title(test.getTitle())
+                .description(test.getDescription())
+                .durationMinutes(test.getDurationMinutes())
+                .passingScore(test.getPassingScore())
+                .tags(test.getTags())
+                .category(test.getCategory())
+                .difficulty(test.getDifficulty())
+                .maxAttempts(test.getMaxAttempts())
+                .questions(test.getQuestions())
+                .sampling(test.getSampling())
+                .build();
+        try {
+            return canonicalMapper.writeValueAsBytes(content);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize test " + test.getId(), e);
+        }
+    }
+
+    private Test readContent(byte[] canonical) {
+        try {
+            return canonicalMapper.readValue(canonical, Test.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to copy test content", e);
+        }
+    }
+
+    private static String hash(byte[] canonical) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.quizsystem.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index with BM25 ranking over weighted fields. Terms are kept in a sorted map,
+ * so the last word of a query also matches as a prefix (search-as-you-type). Tokenization folds
+ * case and Unicode forms and strips a few common English, Russian and Kazakh endings, so "tests",
+ * "тесты" and "тесттер" meet "test", "тест" and "тест". Documents are added, replaced and removed
+ * one at a time; readers and writers are coordinated with a read/write lock.
+ */
+public final class TextIndex {
+
+    public record Field(String text, float weight) {
+    }
+
+    public record Hit(String id, double score) {
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // A prefix match ranks below the same word typed out in full
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MIN_STEM = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "an", "and", "or", "of", "to", "in", "for", "on", "with", "is", "are", "by", "at",
+            "на", "по", "для", "не", "что", "как", "это", "из", "от", "до", "или", "при",
+            "және", "мен", "бен", "пен", "үшін", "бұл", "да", "де", "та", "те", "пе");
+
+    // Tried longest first; one ending is stripped at most
+    private static final List<String> ENDINGS = Stream.of(
+            // ru
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "иях", "ов", "ев", "ей", "ой", "ий", "ый",
+            "ая", "яя", "ое", "ее", "ые", "ие", "ых", "их", "ам", "ям", "ах", "ях", "ом", "ем", "ию", "ия",
+            // kz
+            "лардың", "лердің", "дардың", "дердің", "тардың", "тердің", "лары", "лері", "дары", "дері",
+            "тары", "тері", "лар", "лер", "дар", "дер", "тар", "тер", "ның", "нің", "дың", "дің", "тың", "тің",
+            "дан", "ден", "тан", "тен", "нан", "нен", "ға", "ге", "қа", "ке",
+            // en
+            "ing", "ies", "es", "ed", "s",
+            // single vowels (ru/kz)
+            "ы", "и", "а", "я", "е", "у", "ю", "о")
+            .sorted(Comparator.comparingInt(String::length).reversed())
+            .toList();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<String, Float>> postings = new TreeMap<>();
+    private final Map<String, Map<String, Float>> documents = new HashMap<>();
+    private final Map<String, Float> lengths = new HashMap<>();
+    private double totalLength;
+
+    public void put(String id, List<Field> fields) {
+        Map<String, Float> terms = new HashMap<>();
+        float length = 0;
+        for (Field field : fields) {
+            if (field.text() == null) continue;
+            for (String term : tokenize(field.text())) {
+                terms.merge(term, field.weight(), Float::sum);
+                length += field.weight();
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (terms.isEmpty()) {
+                return;
+            }
+            terms.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, tf));
+            documents.put(id, terms);
+            lengths.put(id, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            lengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents matching any query word, best first. The last word also matches terms it is a
+     * prefix of, unless the query ends with a space (the word is complete).
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> words = tokenizeRaw(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            int n = documents.size();
+            if (n == 0) {
+                return List.of();
+            }
+            double avgLength = totalLength / n;
+            Map<String, Double> scores = new HashMap<>();
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                String stem = stem(word);
+                if (i == words.size() - 1 && lastIsPrefix) {
+                    // Completions of what was typed so far; the full stem itself scores as an exact match
+                    int expanded = 0;
+                    for (Map.Entry<String, Map<String, Float>> entry : prefixRange(word).entrySet()) {
+                        if (expanded++ == MAX_PREFIX_TERMS) break;
+                        double factor = entry.getKey().equals(stem) ? 1.0 : PREFIX_FACTOR;
+                        score(entry.getValue(), n, avgLength, factor, scores);
+                    }
+                    if (!stem.startsWith(word)) {
+                        Map<String, Float> exact = postings.get(stem);
+                        if (exact != null) score(exact, n, avgLength, 1.0, scores);
+                    }
+                } else if (!STOP_WORDS.contains(word)) {
+                    Map<String, Float> exact = postings.get(stem);
+                    if (exact != null) score(exact, n, avgLength, 1.0, scores);
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(e -> new Hit(e.getKey(), e.getValue()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(Map<String, Float> posting, int n, double avgLength, double factor, Map<String, Double> scores) {
+        int df = posting.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        posting.forEach((id, tf) -> {
+            double norm = K1 * (1 - B + B * lengths.get(id) / avgLength);
+            scores.merge(id, factor * idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+        });
+    }
+
+    private NavigableMap<String, Map<String, Float>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void removeLocked(String id) {
+        Map<String, Float> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<String, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) postings.remove(term);
+            }
+        }
+        totalLength -= lengths.remove(id);
+    }
+
+    // Index terms: normalized words without stop words, stemmed
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : tokenizeRaw(text)) {
+            if (!STOP_WORDS.contains(word)) {
+                terms.add(stem(word));
+            }
+        }
+        return terms;
+    }
+
+    // Lower-cased runs of letters and digits (any script), at least two characters long
+    static List<String> tokenizeRaw(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return words;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replace('ё', 'е');
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                word.appendCodePoint(cp);
+            } else if (!word.isEmpty()) {
+                addWord(words, word);
+            }
+        }
+        if (!word.isEmpty()) {
+            addWord(words, word);
+        }
+        return words;
+    }
+
+    private static void addWord(List<String> words, StringBuilder word) {
+        if (word.length() >= 2) {
+            words.add(word.toString());
+        }
+        word.setLength(0);
+    }
+
+    static String stem(String word) {
+        for (String ending : ENDINGS) {
+            if (word.length() - ending.length() >= MIN_STEM && word.endsWith(ending)) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+}
@@ -1,19 +1,27 @@
 package com.quizsystem.service;
 
+import com.quizsystem.dto.CursorPage;
 import com.quizsystem.dto.UserResponse;
+import com.quizsystem.event.UserChangedEvent;
 import com.quizsystem.model.User;
+import com.quizsystem.repository.Keyset;
+import com.quizsystem.repository.KeysetPager;
 import com.quizsystem.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
+    private final KeysetPager keysetPager;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserResponse getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
@@ -27,14 +35,17 @@ public class UserService {
         return mapToResponse(user);
     }
 
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    // Registration order (ObjectIds grow over time); createdAt is not reliably set on old users
+    public CursorPage<UserResponse> getUsers(String cursor, Integer limit, boolean includeTotal) {
+        return keysetPager.page(new Query(), User.class, Keyset.byId(Sort.Direction.ASC, User::getId),
+                cursor, limit, includeTotal).map(this::mapToResponse);
     }
 
     public void deleteUser(String id) {
-        userRepository.deleteById(id);
+        userRepository.findById(id).ifPresent(user -> {
+            userRepository.deleteById(id);
+            eventPublisher.publishEvent(new UserChangedEvent(id, null, false, Boolean.TRUE.equals(user.getEmailVerified())));
+        });
     }
 
     public UserResponse updateUserRole(String id, User.UserRole role) {
@@ -50,6 +61,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setAvatar(avatar);
         user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user, false, Boolean.TRUE.equals(user.getEmailVerified())));
         return mapToResponse(user);
     }
 
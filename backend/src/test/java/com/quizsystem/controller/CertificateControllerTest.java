@@ -0,0 +1,64 @@
+package com.quizsystem.controller;
+
+import com.quizsystem.repository.UserRepository;
+import com.quizsystem.service.CertificateService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CertificateControllerTest {
+
+    @Mock private CertificateService certificateService;
+    @Mock private UserRepository userRepository;
+
+    @InjectMocks
+    private CertificateController certificateController;
+
+    @Nested
+    @DisplayName("GET /api/certificates/{id}/download")
+    class DownloadEndpoint {
+
+        @Test
+        @DisplayName("Should return 304 for a cached certificate without rendering it")
+        void notModified() {
+            when(certificateService.certificateExists("cert-1")).thenReturn(true);
+
+            ResponseEntity<byte[]> response = certificateController.downloadCertificate("cert-1", "\"cert-cert-1\"");
+
+            assertEquals(304, response.getStatusCode().value());
+            verify(certificateService, never()).generateCertificatePdf(any());
+        }
+
+        @Test
+        @DisplayName("Should not answer 304 for a certificate that does not exist")
+        void missingCertificate() {
+            when(certificateService.certificateExists("missing")).thenReturn(false);
+            when(certificateService.generateCertificatePdf("missing"))
+                    .thenThrow(new RuntimeException("Certificate not found"));
+
+            assertThrows(RuntimeException.class, () -> certificateController.downloadCertificate("missing", "*"));
+        }
+
+        @Test
+        @DisplayName("Should render the certificate without a conditional header")
+        void unconditional() {
+            when(certificateService.generateCertificatePdf("cert-1")).thenReturn(new byte[]{1, 2, 3});
+
+            ResponseEntity<byte[]> response = certificateController.downloadCertificate("cert-1", null);
+
+            assertEquals(200, response.getStatusCode().value());
+            assertEquals("\"cert-cert-1\"", response.getHeaders().getETag());
+            verify(certificateService, never()).certificateExists(any());
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.quizsystem.controller;
 import com.quizsystem.model.Test;
 import com.quizsystem.model.TestAttempt;
 import com.quizsystem.model.User;
+import com.quizsystem.dto.LeaderboardEntry;
 import com.quizsystem.repository.UserRepository;
+import com.quizsystem.service.LeaderboardService;
+import com.quizsystem.service.ScopedLeaderboardService;
 import com.quizsystem.service.TestAttemptService;
 import com.quizsystem.service.TestService;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +21,7 @@ import org.springframework.security.core.Authentication;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -31,6 +35,8 @@ class TestControllerTest {
     @Mock private TestService testService;
     @Mock private TestAttemptService attemptService;
     @Mock private UserRepository userRepository;
+    @Mock private LeaderboardService leaderboardService;
+    @Mock private ScopedLeaderboardService scopedLeaderboardService;
     @Mock private Authentication authentication;
 
     @InjectMocks
@@ -73,6 +79,20 @@ class TestControllerTest {
             assertEquals("MAX_ATTEMPTS_REACHED", body.get("error"));
         }
 
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should return a retryable 409 when the start raced another one")
+        void startTestConflict() {
+            when(authentication.getName()).thenReturn("user@test.com");
+            when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.of(testUser));
+            when(attemptService.startAttempt("test-1", "user-1"))
+                    .thenThrow(new RuntimeException("ATTEMPT_START_CONFLICT"));
+
+            ResponseEntity<?> response = testController.startTest("test-1", authentication);
+
+            assertEquals(409, response.getStatusCode().value());
+            assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        }
+
         @org.junit.jupiter.api.Test
         @DisplayName("Should return 200 with attempt on success")
         void startTestSuccess() {
@@ -151,4 +171,84 @@ class TestControllerTest {
             assertFalse((Boolean) body.get("canStart"));
         }
     }
+
+    @Nested
+    @DisplayName("Conditional GET")
+    class ConditionalGet {
+
+        private TestAttempt stamp(long revision) {
+            return TestAttempt.builder().id("attempt-1").testId("test-1").testVersionId("v1")
+                    .status(TestAttempt.AttemptStatus.GRADED).revision(revision).build();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should return 304 for an unchanged attempt without loading it")
+        void attemptNotModified() {
+            when(attemptService.getAttemptStamp("attempt-1")).thenReturn(stamp(3));
+            when(attemptService.getAttemptById("attempt-1")).thenReturn(stamp(3));
+
+            ResponseEntity<TestAttempt> first = testController.getAttempt("attempt-1", null);
+            String etag = first.getHeaders().getETag();
+            assertEquals(200, first.getStatusCode().value());
+            assertNotNull(etag);
+
+            ResponseEntity<TestAttempt> second = testController.getAttempt("attempt-1", etag);
+            assertEquals(304, second.getStatusCode().value());
+            assertNull(second.getBody());
+            verify(attemptService, times(1)).getAttemptById("attempt-1");
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should return the attempt again once its revision moves")
+        void attemptChanged() {
+            when(attemptService.getAttemptStamp("attempt-1")).thenReturn(stamp(3), stamp(4));
+            when(attemptService.getAttemptById("attempt-1")).thenReturn(stamp(4));
+
+            String etag = testController.getAttempt("attempt-1", null).getHeaders().getETag();
+            ResponseEntity<TestAttempt> second = testController.getAttempt("attempt-1", etag);
+
+            assertEquals(200, second.getStatusCode().value());
+            assertNotEquals(etag, second.getHeaders().getETag());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should never answer 304 for the review of an attempt in progress")
+        void reviewInProgress() {
+            TestAttempt inProgress = stamp(1);
+            inProgress.setStatus(TestAttempt.AttemptStatus.IN_PROGRESS);
+            when(attemptService.getAttemptStamp("attempt-1")).thenReturn(inProgress);
+            when(attemptService.getDeliveredVersionId(inProgress)).thenReturn("v1");
+            when(attemptService.getReviewTest("attempt-1")).thenThrow(new RuntimeException("Attempt is still in progress"));
+
+            assertThrows(RuntimeException.class, () -> testController.getReviewTest("attempt-1", "*"));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should return 304 for an unchanged leaderboard without building the page")
+        void leaderboardNotModified() {
+            when(leaderboardService.version()).thenReturn(7L);
+            when(scopedLeaderboardService.version()).thenReturn(2L);
+            when(scopedLeaderboardService.getGlobalPage(any(), any(), any())).thenReturn(List.of(new LeaderboardEntry()));
+
+            String etag = testController.getLeaderboard(null, null, null, null).getHeaders().getETag();
+            ResponseEntity<List<LeaderboardEntry>> second = testController.getLeaderboard(null, null, null, etag);
+
+            assertEquals(304, second.getStatusCode().value());
+            verify(scopedLeaderboardService, times(1)).getGlobalPage(any(), any(), any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should change the leaderboard ETag when a board changes")
+        void leaderboardChanged() {
+            when(leaderboardService.version()).thenReturn(7L, 8L);
+            when(scopedLeaderboardService.version()).thenReturn(2L);
+            when(scopedLeaderboardService.getTestPage(eq("test-1"), any(), any(), any())).thenReturn(List.of());
+
+            String etag = testController.getTestLeaderboard("test-1", null, null, null, null).getHeaders().getETag();
+            ResponseEntity<List<LeaderboardEntry>> second = testController.getTestLeaderboard("test-1", null, null, null, etag);
+
+            assertEquals(200, second.getStatusCode().value());
+            assertNotEquals(etag, second.getHeaders().getETag());
+        }
+    }
 }
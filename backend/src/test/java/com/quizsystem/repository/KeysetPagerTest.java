@@ -0,0 +1,155 @@
+package com.quizsystem.repository;
+
+import com.quizsystem.config.GlobalExceptionHandler;
+import com.quizsystem.dto.CursorPage;
+import com.quizsystem.model.TestAttempt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeysetPagerTest {
+
+    private static final Keyset<TestAttempt> BY_STARTED_DESC = Keyset.by("startedAt", Sort.Direction.DESC,
+            LocalDateTime.class, TestAttempt::getStartedAt, TestAttempt::getId);
+    private static final Keyset<TestAttempt> BY_ID = Keyset.byId(Sort.Direction.ASC, TestAttempt::getId);
+
+    @Mock private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private KeysetPager keysetPager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(keysetPager, "defaultSize", 2);
+        ReflectionTestUtils.setField(keysetPager, "maxSize", 10);
+    }
+
+    private static TestAttempt attempt(String id, LocalDateTime startedAt) {
+        return TestAttempt.builder().id(id).startedAt(startedAt).build();
+    }
+
+    private static String cursor(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The criteria the second page was queried with
+    private Query secondPage(Keyset<TestAttempt> keyset, TestAttempt... firstPage) {
+        when(mongoTemplate.find(any(Query.class), eq(TestAttempt.class))).thenReturn(List.of(firstPage));
+        CursorPage<TestAttempt> page = keysetPager.page(new Query(), TestAttempt.class, keyset, null, null, false);
+        assertTrue(page.isHasMore());
+        assertNotNull(page.getNextCursor());
+
+        keysetPager.page(new Query(), TestAttempt.class, keyset, page.getNextCursor(), null, false);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(TestAttempt.class));
+        return queries.getAllValues().get(1);
+    }
+
+    @Nested
+    @DisplayName("Cursor round trip")
+    class RoundTrip {
+
+        @Test
+        @DisplayName("Should continue after the last row's sort value and id")
+        void continuesAfterLastRow() {
+            LocalDateTime started = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+            Query next = secondPage(BY_STARTED_DESC,
+                    attempt("a3", started.plusHours(1)), attempt("a2", started), attempt("a1", started.minusHours(1)));
+
+            assertEquals(BY_STARTED_DESC.after(started, "a2").getCriteriaObject(), next.getQueryObject());
+            assertEquals(3, next.getLimit());
+        }
+
+        @Test
+        @DisplayName("Should round-trip a row without a sort value")
+        void nullSortValue() {
+            Query next = secondPage(BY_STARTED_DESC, attempt("a3", null), attempt("a2", null), attempt("a1", null));
+
+            assertEquals(BY_STARTED_DESC.after(null, "a2").getCriteriaObject(), next.getQueryObject());
+        }
+
+        @Test
+        @DisplayName("Should page by id alone")
+        void byIdOnly() {
+            Query next = secondPage(BY_ID, attempt("a1", null), attempt("a2", null), attempt("a3", null));
+
+            assertEquals(BY_ID.after(null, "a2").getCriteriaObject(), next.getQueryObject());
+        }
+
+        @Test
+        @DisplayName("Should end without a cursor when no extra row comes back")
+        void lastPage() {
+            when(mongoTemplate.find(any(Query.class), eq(TestAttempt.class)))
+                    .thenReturn(List.of(attempt("a1", null), attempt("a2", null)));
+
+            CursorPage<TestAttempt> page = keysetPager.page(new Query(), TestAttempt.class, BY_ID, null, null, false);
+
+            assertFalse(page.isHasMore());
+            assertNull(page.getNextCursor());
+            assertEquals(2, page.getItems().size());
+            verify(mongoTemplate, never()).count(any(Query.class), eq(TestAttempt.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalid cursors")
+    class InvalidCursors {
+
+        private IllegalArgumentException reject(String cursor) {
+            return assertThrows(IllegalArgumentException.class, () -> keysetPager.page(
+                    new Query(), TestAttempt.class, BY_STARTED_DESC, cursor, null, false));
+        }
+
+        @Test
+        @DisplayName("Should reject malformed cursors")
+        void malformed() {
+            reject("not base64!");
+            reject(cursor("no separator"));
+            reject(cursor("|a1"));
+            reject(cursor("=2024-03-01T10:15:30|"));
+            verifyNoInteractions(mongoTemplate);
+        }
+
+        @Test
+        @DisplayName("Should reject tampered cursors")
+        void tampered() {
+            reject(cursor("x2024-03-01T10:15:30|a1"));
+            reject(cursor("~2024-03-01T10:15:30|a1"));
+            reject(cursor("=yesterday|a1"));
+            verifyNoInteractions(mongoTemplate);
+        }
+
+        @Test
+        @DisplayName("Should map a rejected cursor to 400")
+        void mappedToBadRequest() {
+            IllegalArgumentException e = reject(cursor("=yesterday|a1"));
+
+            ResponseEntity<Map<String, Object>> response = new GlobalExceptionHandler().handleIllegalArgument(e);
+
+            assertEquals(400, response.getStatusCode().value());
+            assertEquals("Invalid cursor", response.getBody().get("message"));
+        }
+    }
+}
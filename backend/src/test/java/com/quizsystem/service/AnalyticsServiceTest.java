@@ -0,0 +1,218 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.AnalyticsReport;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.AttemptStartedEvent;
+import com.quizsystem.model.AnalyticsSketch;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.AnalyticsSketchRepository;
+import com.quizsystem.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock private AnalyticsSketchRepository sketchRepository;
+    @Mock private CourseRepository courseRepository;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    // Stands in for analytics_sketches: merge folds a delta in the way the $max/$inc upsert does
+    private final Map<String, AnalyticsSketch> stored = new HashMap<>();
+
+    private final LocalDate today = LocalDate.now();
+    private final LocalDate yesterday = today.minusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(analyticsService, "flushIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(analyticsService, "cacheSize", 64);
+        ReflectionTestUtils.setField(analyticsService, "maxDays", 366);
+        lenient().when(courseRepository.findAllTestRefs()).thenReturn(List.of());
+        lenient().when(sketchRepository.merge(any())).thenAnswer(invocation -> {
+            AnalyticsSketch delta = invocation.getArgument(0);
+            return stored.merge(delta.getId(), delta, AnalyticsServiceTest::fold);
+        });
+        lenient().when(sketchRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return ids.stream().map(stored::get).filter(Objects::nonNull).toList();
+        });
+        analyticsService.loadCourses();
+    }
+
+    private static AnalyticsSketch fold(AnalyticsSketch current, AnalyticsSketch delta) {
+        Map<String, Integer> users = new HashMap<>(current.getUsers());
+        delta.getUsers().forEach((register, value) -> users.merge(register, value, Math::max));
+        Map<String, Long> bins = new HashMap<>(current.getBins());
+        delta.getBins().forEach((bin, count) -> bins.merge(bin, count, Long::sum));
+        long count = current.getCount() + delta.getCount();
+        return AnalyticsSketch.builder()
+                .id(current.getId())
+                .scope(current.getScope())
+                .scopeId(current.getScopeId())
+                .day(current.getDay())
+                .users(users)
+                .bins(bins)
+                .count(count)
+                .scoreSum(sum(current.getScoreSum(), delta.getScoreSum()))
+                .scoreSquares(sum(current.getScoreSquares(), delta.getScoreSquares()))
+                .scoreMin(pick(current.getScoreMin(), delta.getScoreMin(), Math::min))
+                .scoreMax(pick(current.getScoreMax(), delta.getScoreMax(), Math::max))
+                .build();
+    }
+
+    private static Double sum(Double a, Double b) {
+        return a == null ? b : b == null ? a : a + b;
+    }
+
+    private static Double pick(Double a, Double b, BinaryOperator<Double> choose) {
+        return a == null ? b : b == null ? a : choose.apply(a, b);
+    }
+
+    private void start(String userId) {
+        analyticsService.onAttemptStarted(new AttemptStartedEvent("a-" + userId, "test-1", userId, null));
+    }
+
+    private void grade(double score, LocalDate day) {
+        TestAttempt attempt = TestAttempt.builder()
+                .testId("test-1")
+                .score(score)
+                .submittedAt(day.atTime(12, 0))
+                .build();
+        analyticsService.onAttemptGraded(new AttemptGradedEvent(attempt, null));
+    }
+
+    private AnalyticsReport report() {
+        return analyticsService.getTestReport("test-1", yesterday, today);
+    }
+
+    @Nested
+    @DisplayName("Pending and flushed sketches")
+    class PendingAndFlushed {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should count pending events before the first flush")
+        void pendingCounted() {
+            start("u1");
+            grade(80, today);
+
+            AnalyticsReport report = report();
+            assertEquals(1, report.getDistinctUsers());
+            assertEquals(1, report.getAttempts());
+            verify(sketchRepository, never()).merge(any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should not count a flushed delta again from the cache")
+        void flushedNotDoubleCounted() {
+            start("u1");
+            grade(80, today);
+            grade(60, yesterday);
+            report();
+
+            analyticsService.flush();
+
+            AnalyticsReport report = report();
+            assertEquals(1, report.getDistinctUsers());
+            assertEquals(2, report.getAttempts());
+            assertEquals(70.0, report.getAverageScore(), 1e-9);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should not count a flushed delta again when the day is reread")
+        void rereadNotDoubleCounted() {
+            ReflectionTestUtils.setField(analyticsService, "flushIntervalMs", 0L);
+            start("u1");
+            grade(80, today);
+            analyticsService.flush();
+
+            AnalyticsReport report = report();
+            assertEquals(1, report.getAttempts());
+            assertEquals(1, report.getDistinctUsers());
+            verify(sketchRepository, atLeastOnce()).findAllById(any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should add a new pending delta to the flushed state exactly once")
+        void flushedPlusPending() {
+            start("u1");
+            grade(80, today);
+            analyticsService.flush();
+
+            start("u2");
+            grade(40, today);
+
+            AnalyticsReport beforeFlush = report();
+            assertEquals(2, beforeFlush.getAttempts());
+            assertEquals(2, beforeFlush.getDistinctUsers());
+
+            analyticsService.flush();
+
+            AnalyticsReport afterFlush = report();
+            assertEquals(2, afterFlush.getAttempts());
+            assertEquals(2, afterFlush.getDistinctUsers());
+            assertEquals(60.0, afterFlush.getAverageScore(), 1e-9);
+            assertEquals(2, stored.get(AnalyticsSketch.idOf("test", "test-1", today)).getCount());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should keep a delta pending when its flush fails, and count it once")
+        void failedFlushKeptPending() {
+            grade(80, today);
+            doThrow(new RuntimeException("mongo down")).when(sketchRepository).merge(any());
+            analyticsService.flush();
+
+            assertEquals(1, report().getAttempts());
+            assertTrue(stored.isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Ranges")
+    class Ranges {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should reject a range that ends before it starts")
+        void invertedRange() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> analyticsService.getTestReport("test-1", today, yesterday));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should reject a range longer than the limit")
+        void rangeTooLong() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> analyticsService.getGlobalReport(today.minusDays(366), today));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should report nothing for days without events")
+        void emptyRange() {
+            AnalyticsReport report = report();
+
+            assertEquals(0, report.getDistinctUsers());
+            assertEquals(0, report.getAttempts());
+            assertNull(report.getAverageScore());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.quizsystem.service;
 
 import com.quizsystem.dto.AuthResponse;
 import com.quizsystem.dto.RegisterRequest;
+import com.quizsystem.event.UserChangedEvent;
 import com.quizsystem.model.EmailVerificationToken;
 import com.quizsystem.model.User;
 import com.quizsystem.repository.EmailVerificationTokenRepository;
@@ -17,6 +18,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -42,6 +44,7 @@ class AuthServiceTest {
     @Mock private AuthenticationManager authenticationManager;
     @Mock private UserDetailsService userDetailsService;
     @Mock private EmailService emailService;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private AuthService authService;
@@ -88,6 +91,7 @@ class AuthServiceTest {
             verify(emailService).sendEmailVerificationCode(eq("new@example.com"), eq("Test"), anyString());
             verify(verificationTokenRepository).deleteByEmail("new@example.com");
             verify(verificationTokenRepository).save(any(EmailVerificationToken.class));
+            verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
         }
 
         @Test
@@ -0,0 +1,119 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.TestSummary;
+import com.quizsystem.event.TestChangedEvent;
+import com.quizsystem.model.Test;
+import com.quizsystem.repository.CourseRepository;
+import com.quizsystem.repository.TestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSearchTest {
+
+    @Mock private TestRepository testRepository;
+    @Mock private CourseRepository courseRepository;
+
+    @InjectMocks
+    private CatalogSearch catalogSearch;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogSearch, "defaultLimit", 20);
+        ReflectionTestUtils.setField(catalogSearch, "maxLimit", 100);
+        lenient().when(courseRepository.findByPublishedTrue()).thenReturn(List.of());
+    }
+
+    private static Test test(String id, String title, boolean published) {
+        return Test.builder()
+                .id(id)
+                .title(title)
+                .category("Science")
+                .durationMinutes(20)
+                .published(published)
+                .build();
+    }
+
+    private List<String> search(String query) {
+        return catalogSearch.searchTests(query, null).stream().map(TestSummary::getId).toList();
+    }
+
+    @Nested
+    @DisplayName("Test index")
+    class TestIndex {
+
+        @BeforeEach
+        void setUp() {
+            when(testRepository.findPublishedSummaries()).thenReturn(List.of(
+                    TestSummary.of(test("t1", "Organic chemistry", true)),
+                    TestSummary.of(test("t2", "Cell biology", true))));
+            catalogSearch.reload();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should find published tests loaded at startup")
+        void findsLoadedTests() {
+            assertEquals(List.of("t1"), search("chemistry "));
+            assertEquals(List.of("t2"), search("bio"));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should not index a test saved as unpublished")
+        void unpublishedTestExcluded() {
+            catalogSearch.onTestChanged(new TestChangedEvent("t3", test("t3", "Physical chemistry", false)));
+
+            assertEquals(List.of("t1"), search("chemistry "));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should reindex a test under its new title when it is edited")
+        void editReindexes() {
+            catalogSearch.onTestChanged(new TestChangedEvent("t1", test("t1", "Inorganic compounds", true)));
+
+            assertTrue(search("chemistry ").isEmpty());
+            assertEquals(List.of("t1"), search("compounds "));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should remove a test that is unpublished")
+        void unpublishRemoves() {
+            catalogSearch.onTestChanged(new TestChangedEvent("t1", test("t1", "Organic chemistry", false)));
+
+            assertTrue(search("chemistry ").isEmpty());
+            assertTrue(catalogSearch.browseTests(null, Map.of(), null).getItems().stream()
+                    .noneMatch(summary -> summary.getId().equals("t1")));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should remove a deleted test")
+        void deleteRemoves() {
+            catalogSearch.onTestChanged(new TestChangedEvent("t2", null));
+
+            assertTrue(search("biology ").isEmpty());
+            assertEquals(1, catalogSearch.browseTests(null, Map.of(), null).getTotal());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should drop tests that are no longer published on reload")
+        void reloadDropsMissing() {
+            when(testRepository.findPublishedSummaries()).thenReturn(List.of(
+                    TestSummary.of(test("t2", "Cell biology", true))));
+            catalogSearch.reload();
+
+            assertTrue(search("chemistry ").isEmpty());
+            assertEquals(List.of("t2"), search("biology "));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.DashboardStats;
+import com.quizsystem.event.UserChangedEvent;
+import com.quizsystem.model.User;
+import com.quizsystem.repository.TestAttemptRepository;
+import com.quizsystem.repository.TestRepository;
+import com.quizsystem.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock private UserRepository userRepository;
+    @Mock private TestRepository testRepository;
+    @Mock private TestAttemptRepository attemptRepository;
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    private static User user(Boolean emailVerified) {
+        return User.builder().id("user-1").email("user@test.com").emailVerified(emailVerified).build();
+    }
+
+    @Nested
+    @DisplayName("User counters")
+    class UserCounters {
+
+        @Test
+        @DisplayName("Should count a registration once and its verification once")
+        void registerAndVerify() {
+            dashboardService.onUserChanged(new UserChangedEvent("user-1", user(false), true, false));
+            dashboardService.onUserChanged(new UserChangedEvent("user-1", user(true), false, false));
+
+            DashboardStats stats = dashboardService.getStats();
+            assertEquals(1L, stats.getTotalUsers());
+            assertEquals(1L, stats.getVerifiedUsers());
+        }
+
+        @Test
+        @DisplayName("Should not count an avatar change of a user without emailVerified as a new user")
+        void avatarChangeLeavesCounts() {
+            dashboardService.onUserChanged(new UserChangedEvent("user-1", user(null), false, false));
+            dashboardService.onUserChanged(new UserChangedEvent("user-1", user(null), false, false));
+
+            DashboardStats stats = dashboardService.getStats();
+            assertEquals(0L, stats.getTotalUsers());
+            assertEquals(0L, stats.getVerifiedUsers());
+        }
+
+        @Test
+        @DisplayName("Should uncount a deleted verified user")
+        void deleteVerified() {
+            dashboardService.onUserChanged(new UserChangedEvent("user-1", user(false), true, false));
+            dashboardService.onUserChanged(new UserChangedEvent("user-1", user(true), false, false));
+            dashboardService.onUserChanged(new UserChangedEvent("user-1", null, false, true));
+
+            DashboardStats stats = dashboardService.getStats();
+            assertEquals(0L, stats.getTotalUsers());
+            assertEquals(0L, stats.getVerifiedUsers());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.quizsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest {
+
+    private FacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex();
+        index.put("t1", Map.of("category", List.of("Math"), "tag", List.of("algebra", "exam")));
+        index.put("t2", Map.of("category", List.of("Math"), "tag", List.of("geometry")));
+        index.put("t3", Map.of("category", List.of("Physics"), "tag", List.of("exam")));
+        index.put("t4", Map.of("category", List.of("Chemistry"), "tag", List.of()));
+    }
+
+    private List<String> ids(Map<String, List<String>> filters) {
+        return index.query(filters, null).ids().stream().sorted().toList();
+    }
+
+    @Nested
+    @DisplayName("Filtering")
+    class Filtering {
+
+        @Test
+        @DisplayName("Should return every document when there are no filters")
+        void noFilters() {
+            assertEquals(List.of("t1", "t2", "t3", "t4"), ids(Map.of()));
+            assertEquals(List.of("t1", "t2", "t3", "t4"), ids(Map.of("tag", List.of())));
+        }
+
+        @Test
+        @DisplayName("Should OR the values within a facet")
+        void orWithinFacet() {
+            assertEquals(List.of("t1", "t2", "t3"), ids(Map.of("category", List.of("Math", "Physics"))));
+        }
+
+        @Test
+        @DisplayName("Should AND across facets")
+        void andAcrossFacets() {
+            assertEquals(List.of("t1", "t3"), ids(Map.of("tag", List.of("exam"))));
+            assertEquals(List.of("t1"), ids(Map.of("category", List.of("Math"), "tag", List.of("exam"))));
+            assertEquals(List.of("t1", "t3"), ids(Map.of(
+                    "category", List.of("Math", "Physics"), "tag", List.of("exam", "algebra"))));
+        }
+
+        @Test
+        @DisplayName("Should match nothing for an unknown value or facet")
+        void unknownValue() {
+            assertTrue(ids(Map.of("category", List.of("History"))).isEmpty());
+            assertTrue(ids(Map.of("level", List.of("hard"))).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should only consider the given ids when restricted")
+        void restrictTo() {
+            FacetIndex.Result result = index.query(Map.of("tag", List.of("exam")), List.of("t3", "t4", "missing"));
+
+            assertEquals(List.of("t3"), result.ids());
+            assertEquals(Map.of("Chemistry", 1, "Physics", 1), index.query(Map.of(), List.of("t3", "t4")).counts().get("category"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Counts")
+    class Counts {
+
+        @Test
+        @DisplayName("Should count every value over all documents without filters")
+        void countsWithoutFilters() {
+            Map<String, Map<String, Integer>> counts = index.query(Map.of(), null).counts();
+
+            assertEquals(Map.of("Math", 2, "Physics", 1, "Chemistry", 1), counts.get("category"));
+            assertEquals(Map.of("algebra", 1, "exam", 2, "geometry", 1), counts.get("tag"));
+        }
+
+        @Test
+        @DisplayName("Should count a facet under the other facets' filters but not its own")
+        void countsIgnoreOwnFacet() {
+            Map<String, Map<String, Integer>> counts = index.query(Map.of("category", List.of("Math")), null).counts();
+
+            assertEquals(Map.of("Math", 2, "Physics", 1, "Chemistry", 1), counts.get("category"));
+            assertEquals(Map.of("algebra", 1, "exam", 1, "geometry", 1), counts.get("tag"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class Updates {
+
+        @Test
+        @DisplayName("Should move a document between facet values when it is updated")
+        void updateMovesBetweenValues() {
+            index.put("t2", Map.of("category", List.of("Physics"), "tag", List.of("exam")));
+
+            assertEquals(List.of("t1"), ids(Map.of("category", List.of("Math"))));
+            assertEquals(List.of("t2", "t3"), ids(Map.of("category", List.of("Physics"))));
+            assertTrue(ids(Map.of("tag", List.of("geometry"))).isEmpty());
+
+            Map<String, Map<String, Integer>> counts = index.query(Map.of(), null).counts();
+            assertEquals(Map.of("Math", 1, "Physics", 2, "Chemistry", 1), counts.get("category"));
+            assertEquals(Map.of("algebra", 1, "exam", 3), counts.get("tag"));
+        }
+
+        @Test
+        @DisplayName("Should drop a removed document from filters and counts")
+        void removeDropsDocument() {
+            index.remove("t1");
+
+            assertEquals(List.of("t3"), ids(Map.of("tag", List.of("exam"))));
+            Map<String, Map<String, Integer>> counts = index.query(Map.of(), null).counts();
+            assertEquals(Map.of("Math", 1, "Physics", 1, "Chemistry", 1), counts.get("category"));
+            assertEquals(Map.of("exam", 1, "geometry", 1), counts.get("tag"));
+        }
+
+        @Test
+        @DisplayName("Should remove a document that has a facet without values")
+        void removeWithEmptyFacet() {
+            index.remove("t4");
+            index.put("t2", Map.of("category", List.of("Math"), "tag", List.of()));
+            index.remove("t2");
+
+            assertEquals(List.of("t1", "t3"), ids(Map.of()));
+            assertEquals(Map.of("algebra", 1, "exam", 2), index.query(Map.of(), null).counts().get("tag"));
+        }
+
+        @Test
+        @DisplayName("Should reuse the ordinal of a removed document")
+        void reusesOrdinals() {
+            index.remove("t2");
+            index.put("t5", Map.of("category", List.of("Biology")));
+
+            assertEquals(List.of("t1", "t5", "t3", "t4"), index.query(Map.of(), null).ids());
+            assertEquals(List.of("t5"), ids(Map.of("category", List.of("Biology"))));
+        }
+    }
+}
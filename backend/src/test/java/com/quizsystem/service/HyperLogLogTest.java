@@ -0,0 +1,121 @@
+package com.quizsystem.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    // 1.04 / sqrt(registers), about 1.6%
+    private static final double STANDARD_ERROR = 1.04 / Math.sqrt(HyperLogLog.REGISTERS);
+
+    private static HyperLogLog of(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add("user-" + i);
+        }
+        return sketch;
+    }
+
+    private static void assertWithin3Sigma(long expected, long estimate) {
+        double error = Math.abs(estimate - expected) / (double) expected;
+        assertTrue(error <= 3 * STANDARD_ERROR,
+                "estimate " + estimate + " for " + expected + " is off by " + error);
+    }
+
+    @Nested
+    @DisplayName("Estimates")
+    class Estimates {
+
+        @Test
+        @DisplayName("Should estimate large cardinalities within three standard errors")
+        void largeCardinalities() {
+            for (int n : new int[]{20_000, 100_000, 1_000_000}) {
+                assertWithin3Sigma(n, of(0, n).estimate());
+            }
+        }
+
+        @Test
+        @DisplayName("Should not count a value twice")
+        void duplicatesIgnored() {
+            HyperLogLog sketch = of(0, 50_000);
+            long once = sketch.estimate();
+            for (int i = 0; i < 50_000; i++) {
+                sketch.add("user-" + i);
+            }
+            assertEquals(once, sketch.estimate());
+        }
+    }
+
+    @Nested
+    @DisplayName("Small-range correction")
+    class SmallRange {
+
+        @Test
+        @DisplayName("Should estimate zero for an empty sketch")
+        void emptySketch() {
+            assertEquals(0, new HyperLogLog().estimate());
+        }
+
+        @Test
+        @DisplayName("Should be close to exact for small sets, where the raw estimate is far off")
+        void smallSets() {
+            for (int n : new int[]{1, 10, 100, 1000, 5000}) {
+                long estimate = of(0, n).estimate();
+                assertTrue(Math.abs(estimate - n) <= 0.02 * n + 1, "estimate " + estimate + " for " + n);
+            }
+        }
+
+        @Test
+        @DisplayName("Should switch to the raw estimate smoothly above the small range")
+        void aroundThreshold() {
+            for (int n : new int[]{9_000, 10_240, 12_000}) {
+                assertWithin3Sigma(n, of(0, n).estimate());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Merging")
+    class Merging {
+
+        @Test
+        @DisplayName("Should equal the sketch of the union")
+        void mergeEqualsUnion() {
+            HyperLogLog left = of(0, 60_000);
+            HyperLogLog right = of(40_000, 100_000);
+            HyperLogLog union = of(0, 100_000);
+
+            HyperLogLog merged = left.copy().merge(right);
+
+            for (int i = 0; i < HyperLogLog.REGISTERS; i++) {
+                assertEquals(union.get(i), merged.get(i), "register " + i);
+            }
+            assertEquals(union.estimate(), merged.estimate());
+            assertWithin3Sigma(100_000, merged.estimate());
+        }
+
+        @Test
+        @DisplayName("Should leave the source untouched when merging into a copy")
+        void copyIsIndependent() {
+            HyperLogLog sketch = of(0, 1000);
+            long before = sketch.estimate();
+
+            sketch.copy().merge(of(1000, 50_000));
+
+            assertEquals(before, sketch.estimate());
+        }
+
+        @Test
+        @DisplayName("Should only raise registers when set")
+        void setKeepsMaximum() {
+            HyperLogLog sketch = new HyperLogLog();
+            sketch.set(7, 5);
+            sketch.set(7, 3);
+
+            assertEquals(5, sketch.get(7));
+        }
+    }
+}
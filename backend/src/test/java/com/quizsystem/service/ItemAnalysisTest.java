@@ -0,0 +1,200 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.ItemAnalysisReport;
+import com.quizsystem.model.Test;
+import com.quizsystem.model.TestAttempt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemAnalysisTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private Test content;
+
+    @BeforeEach
+    void setUp() {
+        content = Test.builder()
+                .id("test-1")
+                .questions(List.of(question("q1", "a", "b"), question("q2", "c", "d"), question("q3", "e", "f")))
+                .build();
+    }
+
+    // The first choice is the correct one
+    private static Test.Question question(String id, String right, String wrong) {
+        return Test.Question.builder()
+                .id(id)
+                .text("Question " + id)
+                .type(Test.QuestionType.SINGLE)
+                .choices(List.of(
+                        Test.Choice.builder().id(right).text(right).isCorrect(true).build(),
+                        Test.Choice.builder().id(wrong).text(wrong).isCorrect(false).build()))
+                .build();
+    }
+
+    private static TestAttempt.Answer picked(String questionId, String choiceId, boolean correct) {
+        return TestAttempt.Answer.builder()
+                .questionId(questionId)
+                .selectedChoices(List.of(choiceId))
+                .isCorrect(correct)
+                .build();
+    }
+
+    private static TestAttempt attempt(double score, TestAttempt.Answer... answers) {
+        return TestAttempt.builder().score(score).answers(List.of(answers)).build();
+    }
+
+    /*
+     * score | q1    | q2    | q3
+     *   100 | a ok  | d     | e ok
+     *    50 | a ok  | d     | e ok
+     *     0 | b     | c ok  | f
+     *    50 | b     | c ok  | blank
+     *
+     * Scores have mean 50 and standard deviation sqrt(1250). q1 and q3 split them 75 (right)
+     * against 25 (wrong or blank) with p = 0.5, so r = 50 / sqrt(1250) * 0.5 = 1 / sqrt(2);
+     * q2 is the mirror image, r = -1 / sqrt(2).
+     */
+    private List<TestAttempt> attempts() {
+        return List.of(
+                attempt(100, picked("q1", "a", true), picked("q2", "d", false), picked("q3", "e", true)),
+                attempt(50, picked("q1", "a", true), picked("q2", "d", false), picked("q3", "e", true)),
+                attempt(0, picked("q1", "b", false), picked("q2", "c", true), picked("q3", "f", false)),
+                attempt(50, picked("q1", "b", false), picked("q2", "c", true),
+                        TestAttempt.Answer.builder().questionId("q3").selectedChoices(List.of()).build()));
+    }
+
+    private ItemAnalysisReport analyse(List<TestAttempt> attempts) {
+        ItemAnalysis analysis = new ItemAnalysis(content);
+        attempts.forEach(analysis::add);
+        return analysis.report("test-1", "v1");
+    }
+
+    @Nested
+    @DisplayName("Fixed data set")
+    class FixedDataSet {
+
+        private ItemAnalysisReport report;
+
+        @BeforeEach
+        void setUp() {
+            report = analyse(attempts());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should count attempts, deliveries, correct and unanswered answers")
+        void counts() {
+            assertEquals(4, report.getAttempts());
+            ItemAnalysisReport.Item q3 = report.getItems().get(2);
+            assertEquals(4, q3.getDelivered());
+            assertEquals(2, q3.getCorrect());
+            assertEquals(1, q3.getUnanswered());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should compute difficulty as the proportion correct")
+        void difficulty() {
+            for (ItemAnalysisReport.Item item : report.getItems()) {
+                assertEquals(0.5, item.getDifficulty(), EPSILON, item.getQuestionId());
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should compute the point-biserial index, negative when weak students do better")
+        void pointBiserial() {
+            double r = 1 / Math.sqrt(2);
+            assertEquals(r, report.getItems().get(0).getDiscrimination(), EPSILON);
+            assertEquals(-r, report.getItems().get(1).getDiscrimination(), EPSILON);
+            assertEquals(r, report.getItems().get(2).getDiscrimination(), EPSILON);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should count picks per choice and their share of deliveries")
+        void picks() {
+            List<ItemAnalysisReport.ChoiceStats> q3 = report.getItems().get(2).getChoices();
+            assertEquals("e", q3.get(0).getChoiceId());
+            assertTrue(q3.get(0).getCorrect());
+            assertEquals(2, q3.get(0).getPicks());
+            assertEquals(0.5, q3.get(0).getPickRate(), EPSILON);
+            assertEquals(1, q3.get(1).getPicks());
+            assertEquals(0.25, q3.get(1).getPickRate(), EPSILON);
+
+            List<ItemAnalysisReport.ChoiceStats> q1 = report.getItems().get(0).getChoices();
+            assertEquals(2, q1.get(0).getPicks());
+            assertEquals(2, q1.get(1).getPicks());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should give the same report when partial results are merged")
+        void mergeEqualsSinglePass() {
+            List<TestAttempt> all = attempts();
+            ItemAnalysis first = new ItemAnalysis(content);
+            ItemAnalysis second = new ItemAnalysis(content);
+            all.subList(0, 1).forEach(first::add);
+            all.subList(1, all.size()).forEach(second::add);
+
+            assertEquals(report, first.merge(second).report("test-1", "v1"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Undefined discrimination")
+    class UndefinedDiscrimination {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should leave discrimination null when every score is the same")
+        void zeroVariance() {
+            ItemAnalysisReport report = analyse(List.of(
+                    attempt(50, picked("q1", "a", true), picked("q2", "c", true), picked("q3", "f", false)),
+                    attempt(50, picked("q1", "b", false), picked("q2", "d", false), picked("q3", "e", true))));
+
+            for (ItemAnalysisReport.Item item : report.getItems()) {
+                assertEquals(0.5, item.getDifficulty(), EPSILON);
+                assertNull(item.getDiscrimination(), item.getQuestionId());
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should leave discrimination null when everyone or no one is right")
+        void noSplit() {
+            ItemAnalysisReport report = analyse(List.of(
+                    attempt(100, picked("q1", "a", true), picked("q2", "d", false)),
+                    attempt(40, picked("q1", "a", true), picked("q2", "d", false))));
+
+            assertEquals(1.0, report.getItems().get(0).getDifficulty(), EPSILON);
+            assertNull(report.getItems().get(0).getDiscrimination());
+            assertEquals(0.0, report.getItems().get(1).getDifficulty(), EPSILON);
+            assertNull(report.getItems().get(1).getDiscrimination());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should leave difficulty and pick rates null for a question never delivered")
+        void neverDelivered() {
+            TestAttempt sampled = attempt(80, picked("q1", "a", true));
+            sampled.setQuestionIndexes(List.of(0));
+            ItemAnalysisReport report = analyse(List.of(sampled));
+
+            ItemAnalysisReport.Item q2 = report.getItems().get(1);
+            assertEquals(0, q2.getDelivered());
+            assertNull(q2.getDifficulty());
+            assertNull(q2.getDiscrimination());
+            assertNull(q2.getChoices().get(0).getPickRate());
+            assertEquals(1, report.getItems().get(0).getDelivered());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should skip attempts without a score")
+        void skipsUnscored() {
+            List<TestAttempt> attempts = new ArrayList<>(attempts());
+            attempts.add(TestAttempt.builder().answers(List.of(picked("q1", "a", true))).build());
+
+            assertEquals(analyse(attempts()), analyse(attempts));
+        }
+    }
+}
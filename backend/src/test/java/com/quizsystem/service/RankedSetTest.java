@@ -0,0 +1,192 @@
+package com.quizsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedSetTest {
+
+    // Leaderboard order: higher score first, ties broken by user id
+    private record Entry(String userId, int score) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparing(Entry::userId);
+
+    private RankedSet<Entry> set;
+
+    @BeforeEach
+    void setUp() {
+        set = new RankedSet<>(ORDER);
+    }
+
+    @Nested
+    @DisplayName("Empty set")
+    class EmptySet {
+
+        @Test
+        @DisplayName("Should have size zero and no ranks")
+        void emptySetHasNothing() {
+            assertEquals(0, set.size());
+            assertEquals(-1, set.rank(new Entry("u1", 10)));
+            assertFalse(set.remove(new Entry("u1", 10)));
+        }
+
+        @Test
+        @DisplayName("Should return empty slices for any offset")
+        void emptySetSlices() {
+            assertTrue(set.slice(0, 10).isEmpty());
+            assertTrue(set.slice(5, 10).isEmpty());
+            assertTrue(set.slice(0, 0).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should be empty again after removing the last element")
+        void removeLastElement() {
+            set.add(new Entry("u1", 10));
+            assertTrue(set.remove(new Entry("u1", 10)));
+            assertEquals(0, set.size());
+            assertTrue(set.slice(0, 1).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should be empty after clear")
+        void clearEmptiesSet() {
+            set.add(new Entry("u1", 10));
+            set.add(new Entry("u2", 20));
+            set.clear();
+            assertEquals(0, set.size());
+            assertEquals(-1, set.rank(new Entry("u1", 10)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Ordering and ties")
+    class Ordering {
+
+        @Test
+        @DisplayName("Should rank higher scores first")
+        void ranksByScore() {
+            set.add(new Entry("u1", 50));
+            set.add(new Entry("u2", 90));
+            set.add(new Entry("u3", 70));
+
+            assertEquals(0, set.rank(new Entry("u2", 90)));
+            assertEquals(1, set.rank(new Entry("u3", 70)));
+            assertEquals(2, set.rank(new Entry("u1", 50)));
+        }
+
+        @Test
+        @DisplayName("Should order equal scores by the tie-breaker")
+        void tiesUseTieBreaker() {
+            set.add(new Entry("c", 80));
+            set.add(new Entry("a", 80));
+            set.add(new Entry("b", 80));
+
+            assertEquals(List.of(new Entry("a", 80), new Entry("b", 80), new Entry("c", 80)), set.slice(0, 3));
+        }
+
+        @Test
+        @DisplayName("Should replace an element that compares equal instead of adding it twice")
+        void addReplacesEqual() {
+            Comparator<Entry> byScore = Comparator.comparingInt(Entry::score);
+            RankedSet<Entry> scores = new RankedSet<>(byScore);
+            scores.add(new Entry("u1", 80));
+            scores.add(new Entry("u2", 80));
+
+            assertEquals(1, scores.size());
+            assertEquals(List.of(new Entry("u2", 80)), scores.slice(0, 1));
+        }
+
+        @Test
+        @DisplayName("Should move an element when it is removed and re-added with a new score")
+        void updateMovesElement() {
+            set.add(new Entry("u1", 50));
+            set.add(new Entry("u2", 60));
+            set.remove(new Entry("u1", 50));
+            set.add(new Entry("u1", 70));
+
+            assertEquals(0, set.rank(new Entry("u1", 70)));
+            assertEquals(-1, set.rank(new Entry("u1", 50)));
+            assertEquals(2, set.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Slices")
+    class Slices {
+
+        @Test
+        @DisplayName("Should clip a slice that runs past the end")
+        void sliceClipsAtEnd() {
+            for (int i = 0; i < 5; i++) {
+                set.add(new Entry("u" + i, i));
+            }
+            assertEquals(2, set.slice(3, 10).size());
+            assertTrue(set.slice(5, 10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should return the element at a rank as a one-element slice")
+        void selectByRank() {
+            for (int i = 0; i < 5; i++) {
+                set.add(new Entry("u" + i, i));
+            }
+            assertEquals(List.of(new Entry("u4", 4)), set.slice(0, 1));
+            assertEquals(List.of(new Entry("u0", 0)), set.slice(4, 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Against a sorted list")
+    class AgainstSortedList {
+
+        @Test
+        @DisplayName("Should match a sorted list over random inserts and removes")
+        void randomOperationsMatchOracle() {
+            Random random = new Random(42);
+            List<Entry> oracle = new ArrayList<>();
+
+            for (int step = 0; step < 5000; step++) {
+                // Few users and scores so that replacements, ties and misses all happen
+                Entry entry = new Entry("u" + random.nextInt(200), random.nextInt(20));
+                if (random.nextInt(3) == 0) {
+                    int at = Collections.binarySearch(oracle, entry, ORDER);
+                    boolean present = at >= 0;
+                    if (present) {
+                        oracle.remove(at);
+                    }
+                    assertEquals(present, set.remove(entry));
+                } else {
+                    int at = Collections.binarySearch(oracle, entry, ORDER);
+                    if (at >= 0) {
+                        oracle.set(at, entry);
+                    } else {
+                        oracle.add(-at - 1, entry);
+                    }
+                    set.add(entry);
+                }
+                assertEquals(oracle.size(), set.size());
+            }
+
+            assertEquals(oracle, set.slice(0, oracle.size()));
+            for (int i = 0; i < oracle.size(); i++) {
+                assertEquals(i, set.rank(oracle.get(i)));
+                assertEquals(List.of(oracle.get(i)), set.slice(i, 1));
+            }
+            for (int offset = 0; offset <= oracle.size(); offset += 7) {
+                int end = Math.min(oracle.size(), offset + 10);
+                assertEquals(oracle.subList(offset, end), set.slice(offset, 10));
+            }
+        }
+    }
+}
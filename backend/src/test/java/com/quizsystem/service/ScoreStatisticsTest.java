@@ -0,0 +1,193 @@
+package com.quizsystem.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreStatisticsTest {
+
+    private static final double EPSILON = 1e-9;
+    private static final double BIN_WIDTH = 1.0 / ScoreStatistics.BINS_PER_POINT;
+
+    // Scores as the grader produces them: two decimals, some on the bounds, most near a mean
+    private static List<Double> scores(long seed, int n) {
+        Random random = new Random(seed);
+        List<Double> scores = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double score = switch (random.nextInt(10)) {
+                case 0 -> 0;
+                case 1 -> 100;
+                default -> Math.max(0, Math.min(100, 65 + random.nextGaussian() * 20));
+            };
+            scores.add(Math.round(score * 100) / 100.0);
+        }
+        return scores;
+    }
+
+    private static ScoreStatistics of(List<Double> scores) {
+        ScoreStatistics statistics = new ScoreStatistics();
+        scores.forEach(statistics::add);
+        return statistics;
+    }
+
+    private static double mean(List<Double> scores) {
+        return scores.stream().mapToDouble(Double::doubleValue).sum() / scores.size();
+    }
+
+    private static double variance(List<Double> scores) {
+        double mean = mean(scores);
+        return scores.stream().mapToDouble(x -> (x - mean) * (x - mean)).sum() / scores.size();
+    }
+
+    @Nested
+    @DisplayName("Moments")
+    class Moments {
+
+        @Test
+        @DisplayName("Should match a direct computation of count, mean, variance, min and max")
+        void matchesDirectComputation() {
+            List<Double> data = scores(1, 2000);
+            ScoreStatistics statistics = of(data);
+
+            assertEquals(data.size(), statistics.count());
+            assertEquals(mean(data), statistics.mean(), EPSILON);
+            assertEquals(variance(data), statistics.variance(), 1e-6);
+            assertEquals(data.stream().mapToDouble(Double::doubleValue).min().orElseThrow(), statistics.min());
+            assertEquals(data.stream().mapToDouble(Double::doubleValue).max().orElseThrow(), statistics.max());
+            assertEquals(data.stream().mapToDouble(Double::doubleValue).sum(), statistics.sum(), 1e-6);
+        }
+
+        @Test
+        @DisplayName("Should compute the pass rate exactly for whole-number passing scores")
+        void passRateIsExact() {
+            List<Double> data = new ArrayList<>(scores(2, 1000));
+            data.addAll(List.of(70.0, 69.99, 70.01));
+            ScoreStatistics statistics = of(data);
+
+            for (int passing : new int[]{0, 50, 70, 100}) {
+                long passed = data.stream().filter(x -> x >= passing).count();
+                assertEquals(passed, statistics.countAtLeast(passing), "passing score " + passing);
+            }
+        }
+
+        @Test
+        @DisplayName("Should clamp scores into [0, 100]")
+        void clampsScores() {
+            ScoreStatistics statistics = of(List.of(-5.0, 120.0));
+
+            assertEquals(0, statistics.min());
+            assertEquals(100, statistics.max());
+            assertEquals(50, statistics.mean(), EPSILON);
+        }
+
+        @Test
+        @DisplayName("Should report zeros and no quantile when empty")
+        void emptySummary() {
+            ScoreStatistics statistics = new ScoreStatistics();
+
+            assertEquals(0, statistics.count());
+            assertEquals(0, statistics.variance());
+            assertEquals(0, statistics.countAtLeast(0));
+            assertNull(statistics.quantile(0.5));
+        }
+    }
+
+    @Nested
+    @DisplayName("Merging")
+    class Merging {
+
+        @Test
+        @DisplayName("Should equal one pass over the combined data")
+        void mergeEqualsSinglePass() {
+            List<Double> left = scores(3, 700);
+            List<Double> right = scores(4, 1300);
+            List<Double> all = new ArrayList<>(left);
+            all.addAll(right);
+
+            ScoreStatistics merged = of(left).merge(of(right));
+            ScoreStatistics single = of(all);
+
+            assertEquals(single.count(), merged.count());
+            assertEquals(single.mean(), merged.mean(), EPSILON);
+            assertEquals(single.variance(), merged.variance(), 1e-6);
+            assertEquals(single.min(), merged.min());
+            assertEquals(single.max(), merged.max());
+            assertArrayEquals(single.bins(), merged.bins());
+        }
+
+        @Test
+        @DisplayName("Should treat an empty summary as the identity")
+        void mergeWithEmpty() {
+            List<Double> data = scores(5, 100);
+            ScoreStatistics statistics = of(data);
+
+            ScoreStatistics intoEmpty = new ScoreStatistics().merge(statistics);
+            statistics.merge(new ScoreStatistics());
+
+            for (ScoreStatistics merged : List.of(intoEmpty, statistics)) {
+                assertEquals(data.size(), merged.count());
+                assertEquals(mean(data), merged.mean(), EPSILON);
+                assertEquals(variance(data), merged.variance(), 1e-6);
+            }
+        }
+
+        @Test
+        @DisplayName("Should restore a summary from its persisted sums")
+        void restoreRoundTrip() {
+            ScoreStatistics statistics = of(scores(6, 500));
+            ScoreStatistics restored = ScoreStatistics.restore(statistics.count(), statistics.sum(),
+                    statistics.sumOfSquares(), statistics.min(), statistics.max(), statistics.bins());
+
+            assertEquals(statistics.count(), restored.count());
+            assertEquals(statistics.mean(), restored.mean(), EPSILON);
+            assertEquals(statistics.variance(), restored.variance(), 1e-6);
+            assertEquals(statistics.quantile(0.9), restored.quantile(0.9));
+        }
+    }
+
+    @Nested
+    @DisplayName("Quantiles")
+    class Quantiles {
+
+        @Test
+        @DisplayName("Should stay within one bin of the exact nearest-rank quantile")
+        void quantilesWithinOneBin() {
+            List<Double> data = scores(7, 3000);
+            double[] sorted = data.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            ScoreStatistics statistics = of(data);
+
+            for (double q : new double[]{0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1}) {
+                double exact = sorted[(int) Math.max(0, Math.ceil(q * sorted.length) - 1)];
+                assertEquals(exact, statistics.quantile(q), BIN_WIDTH, "q=" + q);
+            }
+        }
+
+        @Test
+        @DisplayName("Should return the score itself for a single score")
+        void singleScore() {
+            ScoreStatistics statistics = of(List.of(73.0));
+
+            assertEquals(73.0, statistics.quantile(0.0));
+            assertEquals(73.0, statistics.quantile(1.0));
+        }
+
+        @Test
+        @DisplayName("Should put every score into exactly one histogram bucket")
+        void histogramCountsEveryScore() {
+            ScoreStatistics statistics = of(List.of(0.0, 9.99, 10.0, 55.5, 99.99, 100.0));
+            long[] histogram = statistics.histogram(10);
+
+            assertEquals(6, Arrays.stream(histogram).sum());
+            assertEquals(2, histogram[0]);
+            assertEquals(1, histogram[1]);
+            assertEquals(2, histogram[9]);
+        }
+    }
+}
@@ -1,22 +1,38 @@
 package com.quizsystem.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quizsystem.dto.AnswerRequest;
+import com.quizsystem.dto.AnswerSaveResponse;
+import com.quizsystem.dto.QuestionPage;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.AttemptStartedEvent;
+import com.quizsystem.event.AttemptSubmittedEvent;
 import com.quizsystem.model.Test;
 import com.quizsystem.model.TestAttempt;
+import com.quizsystem.model.TestVersion;
+import com.quizsystem.model.AttemptCounter;
+import com.quizsystem.repository.AttemptCounterRepository;
+import com.quizsystem.repository.KeysetPager;
 import com.quizsystem.repository.TestAttemptRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -27,6 +43,13 @@ class TestAttemptServiceTest {
 
     @Mock private TestAttemptRepository attemptRepository;
     @Mock private TestService testService;
+    @Spy private AnswerKeyCache answerKeyCache = new AnswerKeyCache();
+    @Mock private AnswerWriteBehindBuffer answerBuffer;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private AttemptCounterRepository counterRepository;
+    @Mock private TestVersionService testVersionService;
+    @Mock private KeysetPager keysetPager;
+    @Spy private StudentTestViews studentTestViews = new StudentTestViews(new ObjectMapper(), false, 10);
 
     @InjectMocks
     private TestAttemptService attemptService;
@@ -67,6 +90,9 @@ class TestAttemptServiceTest {
                 .status(TestAttempt.AttemptStatus.IN_PROGRESS)
                 .answers(new ArrayList<>())
                 .build();
+
+        lenient().when(testVersionService.current(any(Test.class))).thenAnswer(inv ->
+                TestVersion.builder().id("v1").testId("test-1").content(inv.getArgument(0)).build());
     }
 
     @Nested
@@ -77,8 +103,7 @@ class TestAttemptServiceTest {
         @DisplayName("Should allow start when under limit")
         void startAttemptUnderLimit() {
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.findByUserIdAndTestId("user-1", "test-1"))
-                    .thenReturn(Collections.emptyList());
+            givenHistory(Collections.emptyList());
             when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> {
                 TestAttempt a = inv.getArgument(0);
                 a.setId("new-attempt");
@@ -100,8 +125,7 @@ class TestAttemptServiceTest {
             );
 
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.findByUserIdAndTestId("user-1", "test-1"))
-                    .thenReturn(gradedAttempts);
+            givenHistory(gradedAttempts);
 
             RuntimeException ex = assertThrows(RuntimeException.class,
                     () -> attemptService.startAttempt("test-1", "user-1"));
@@ -113,8 +137,7 @@ class TestAttemptServiceTest {
         @DisplayName("Should return existing in-progress attempt")
         void startAttemptReturnsExisting() {
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.findByUserIdAndTestId("user-1", "test-1"))
-                    .thenReturn(List.of(inProgressAttempt));
+            givenHistory(List.of(inProgressAttempt));
 
             TestAttempt result = attemptService.startAttempt("test-1", "user-1");
 
@@ -130,13 +153,77 @@ class TestAttemptServiceTest {
             TestAttempt graded2 = createGradedAttempt("a2");
 
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.findByUserIdAndTestId("user-1", "test-1"))
-                    .thenReturn(List.of(graded1, graded2, inProgressAttempt));
+            givenHistory(List.of(graded1, graded2, inProgressAttempt));
 
             // In-progress attempt exists — should return it, not create a new one
             TestAttempt result = attemptService.startAttempt("test-1", "user-1");
             assertEquals("attempt-1", result.getId());
         }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should block a concurrent start that loses the counter reservation")
+        void startAttemptReservationLost() {
+            AttemptCounter counter = AttemptCounter.builder()
+                    .id("user-1:test-1").userId("user-1").testId("test-1").started(2L).completed(2L).build();
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            when(counterRepository.findById("user-1:test-1")).thenReturn(Optional.of(counter))
+                    .thenReturn(Optional.of(counter.toBuilder().completed(3L).build()));
+            when(counterRepository.reserve(eq("user-1:test-1"), any(), eq(3))).thenReturn(false);
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> attemptService.startAttempt("test-1", "user-1"));
+            assertEquals("MAX_ATTEMPTS_REACHED", ex.getMessage());
+            verify(attemptRepository, never()).save(any());
+            verify(attemptRepository, never()).findStatusesByUserIdAndTestId(any(), any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should return the winner's attempt once it is saved after losing the reservation")
+        void startAttemptWaitsForWinner() {
+            AttemptCounter counter = AttemptCounter.builder()
+                    .id("user-1:test-1").userId("user-1").testId("test-1").started(2L).completed(2L).build();
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            when(counterRepository.findById("user-1:test-1")).thenReturn(Optional.of(counter))
+                    .thenReturn(Optional.of(counter.toBuilder().started(3L).inProgressAttemptId("attempt-1").build()));
+            when(counterRepository.reserve(eq("user-1:test-1"), any(), eq(3))).thenReturn(false);
+            // Not saved yet on the first lookup
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.empty())
+                    .thenReturn(Optional.of(inProgressAttempt));
+
+            TestAttempt result = attemptService.startAttempt("test-1", "user-1");
+
+            assertSame(inProgressAttempt, result);
+            verify(attemptRepository, never()).save(any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should ask to retry, not report the limit, when the winner's attempt does not appear")
+        void startAttemptConflict() {
+            AttemptCounter counter = AttemptCounter.builder()
+                    .id("user-1:test-1").userId("user-1").testId("test-1").started(1L).completed(1L).build();
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            when(counterRepository.findById("user-1:test-1")).thenReturn(Optional.of(counter))
+                    .thenReturn(Optional.of(counter.toBuilder().started(2L).inProgressAttemptId("attempt-1").build()));
+            when(counterRepository.reserve(eq("user-1:test-1"), any(), eq(3))).thenReturn(false);
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.empty());
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> attemptService.startAttempt("test-1", "user-1"));
+            assertEquals("ATTEMPT_START_CONFLICT", ex.getMessage());
+            verify(attemptRepository, never()).save(any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should free the counter slot when an attempt is submitted")
+        void submitReleasesCounter() {
+            inProgressAttempt.setStartedAt(LocalDateTime.now().minusMinutes(5));
+            givenClaimed();
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+
+            attemptService.submitAttempt("attempt-1");
+
+            verify(counterRepository).release("user-1:test-1", "attempt-1", true);
+        }
     }
 
     @Nested
@@ -169,14 +256,14 @@ class TestAttemptServiceTest {
 
             when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
+            givenClaimed();
 
             RuntimeException ex = assertThrows(RuntimeException.class,
                     () -> attemptService.saveAnswer("attempt-1", request));
             assertEquals("TIME_EXPIRED", ex.getMessage());
 
-            verify(attemptRepository).save(argThat(a ->
-                    a.getStatus() == TestAttempt.AttemptStatus.GRADED && a.getSubmittedAt() != null));
+            verify(attemptRepository).saveGrades(argThat(batch -> batch.get(0).getStatus() == TestAttempt.AttemptStatus.GRADED
+                    && batch.get(0).getSubmittedAt() != null), eq(TestAttempt.AttemptStatus.SUBMITTED));
         }
 
         @org.junit.jupiter.api.Test
@@ -206,14 +293,16 @@ class TestAttemptServiceTest {
                     .build();
 
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.findByUserIdAndTestId("user-1", "test-1"))
-                    .thenReturn(List.of(timedOutAttempt));
+            givenHistory(List.of(timedOutAttempt));
+            givenClaimed(timedOutAttempt);
             when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
 
             TestAttempt result = attemptService.startAttempt("test-1", "user-1");
 
             // The timed-out attempt should have been graded
-            verify(attemptRepository, times(2)).save(any(TestAttempt.class));
+            verify(attemptRepository).saveGrades(argThat(batch -> batch.get(0).getId().equals("old-attempt")),
+                    eq(TestAttempt.AttemptStatus.SUBMITTED));
+            verify(attemptRepository).save(any(TestAttempt.class));
             // The new attempt should be IN_PROGRESS
             assertEquals(TestAttempt.AttemptStatus.IN_PROGRESS, result.getStatus());
         }
@@ -223,9 +312,8 @@ class TestAttemptServiceTest {
         void submitAttemptWithinTime() {
             inProgressAttempt.setStartedAt(LocalDateTime.now().minusMinutes(10));
 
-            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+            givenClaimed();
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
 
             TestAttempt result = attemptService.submitAttempt("attempt-1");
 
@@ -239,13 +327,312 @@ class TestAttemptServiceTest {
         void submitAttemptAfterDeadline() {
             inProgressAttempt.setStartedAt(LocalDateTime.now().minusMinutes(31));
 
+            givenClaimed();
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+
+            // submit still works, just logs a warning
+            TestAttempt result = attemptService.submitAttempt("attempt-1");
+            assertEquals(TestAttempt.AttemptStatus.GRADED, result.getStatus());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should return the stored result on a repeated submit without regrading")
+        void submitIsIdempotent() {
+            TestAttempt graded = createGradedAttempt("attempt-1");
+            when(attemptRepository.claimSubmission(eq("attempt-1"), any())).thenReturn(null);
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(graded));
+
+            TestAttempt result = attemptService.submitAttempt("attempt-1");
+
+            assertSame(graded, result);
+            verify(attemptRepository, never()).saveGrades(any(), any());
+            verify(counterRepository, never()).release(any(), any(), anyBoolean());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should leave an attempt still in SUBMITTED to the one grading it")
+        void submitDoesNotRegradeSubmitted() {
+            inProgressAttempt.setStatus(TestAttempt.AttemptStatus.SUBMITTED);
+            inProgressAttempt.setSubmittedAt(LocalDateTime.now());
+            when(attemptRepository.claimSubmission(eq("attempt-1"), any())).thenReturn(null);
             when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+
+            TestAttempt result = attemptService.submitAttempt("attempt-1");
+
+            assertSame(inProgressAttempt, result);
+            assertEquals(TestAttempt.AttemptStatus.SUBMITTED, result.getStatus());
+            verify(attemptRepository, never()).saveGrades(any(), any());
+            verify(counterRepository, never()).release(any(), any(), anyBoolean());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should return the stored grade and not release twice when grading loses a race")
+        void gradeLosingRaceReturnsStored() {
+            inProgressAttempt.setStatus(TestAttempt.AttemptStatus.SUBMITTED);
+            TestAttempt stored = createGradedAttempt("attempt-1");
+            when(attemptRepository.findById("attempt-1"))
+                    .thenReturn(Optional.of(inProgressAttempt))
+                    .thenReturn(Optional.of(stored));
             when(testService.getTestById("test-1")).thenReturn(testEntity);
+            when(attemptRepository.saveGrades(anyList(), eq(TestAttempt.AttemptStatus.SUBMITTED))).thenReturn(0);
+
+            TestAttempt result = attemptService.gradeSubmission("attempt-1");
+
+            assertSame(stored, result);
+            verify(counterRepository, never()).release(any(), any(), anyBoolean());
+            verify(eventPublisher, never()).publishEvent(argThat((Object e) -> e instanceof AttemptGradedEvent));
+        }
+    }
+
+    @Nested
+    @DisplayName("Atomic Answer Save")
+    class AtomicAnswerSave {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should acknowledge without reading the attempt when the update matches")
+        void atomicSaveMatched() {
+            AnswerRequest request = new AnswerRequest("q1", List.of("c1"), null, null);
+            when(attemptRepository.upsertAnswer(eq("attempt-1"), any(), any())).thenReturn(true);
+
+            AnswerSaveResponse result = attemptService.saveAnswerAtomic("attempt-1", request);
+
+            assertTrue(result.getSaved());
+            assertEquals("q1", result.getQuestionId());
+            verify(attemptRepository, never()).findById(any());
+            verify(testService, never()).getTestById(any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should report the reason when the conditional update does not match")
+        void atomicSaveRejected() {
+            inProgressAttempt.setStatus(TestAttempt.AttemptStatus.GRADED);
+            AnswerRequest request = new AnswerRequest("q1", List.of("c1"), null, null);
+            when(attemptRepository.upsertAnswer(eq("attempt-1"), any(), any())).thenReturn(false);
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> attemptService.saveAnswerAtomic("attempt-1", request));
+            assertEquals("Cannot modify submitted attempt", ex.getMessage());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Answer Save")
+    class BatchAnswerSave {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should write the whole batch in one update with per-item results")
+        @SuppressWarnings("unchecked")
+        void batchSaveSingleWrite() {
+            List<AnswerRequest> requests = List.of(
+                    new AnswerRequest("q1", List.of("c2"), null, null),
+                    new AnswerRequest(null, List.of("c1"), null, null),
+                    new AnswerRequest("q1", List.of("c1"), null, null));
+            when(attemptRepository.upsertAnswers(eq("attempt-1"), anyList(), any())).thenReturn(true);
+
+            List<AnswerSaveResponse> results = attemptService.saveAnswers("attempt-1", requests);
+
+            assertEquals(3, results.size());
+            assertTrue(results.get(0).getSaved());
+            assertFalse(results.get(1).getSaved());
+            assertNotNull(results.get(1).getError());
+            verify(attemptRepository).upsertAnswers(eq("attempt-1"), argThat(batch ->
+                    batch.size() == 1 && batch.get(0).getSelectedChoices().equals(List.of("c1"))), any());
+            verify(attemptRepository, never()).findById(any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should auto-submit and throw TIME_EXPIRED when the batch arrives late")
+        void batchSaveTimeExpired() {
+            inProgressAttempt.setStartedAt(LocalDateTime.now().minusMinutes(31));
+            when(attemptRepository.upsertAnswers(eq("attempt-1"), anyList(), any())).thenReturn(false);
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            givenClaimed();
+
+            RuntimeException ex = assertThrows(RuntimeException.class, () -> attemptService.saveAnswers(
+                    "attempt-1", List.of(new AnswerRequest("q1", List.of("c1"), null, null))));
+            assertEquals("TIME_EXPIRED", ex.getMessage());
+            assertEquals(TestAttempt.AttemptStatus.GRADED, inProgressAttempt.getStatus());
+        }
+    }
+
+    @Nested
+    @DisplayName("Write-Behind Answers")
+    class WriteBehindAnswers {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should journal answers of an open attempt without writing to Mongo")
+        void bufferedSave() {
+            AnswerRequest request = new AnswerRequest("q1", List.of("c1"), null, null);
+            when(answerBuffer.isEnabled()).thenReturn(true);
+            when(answerBuffer.isOpen(eq("attempt-1"), any())).thenReturn(true);
+            when(answerBuffer.append(eq("attempt-1"), anyList(), any())).thenReturn(true);
+
+            AnswerSaveResponse result = attemptService.saveAnswerAtomic("attempt-1", request);
+
+            assertTrue(result.getSaved());
+            verify(answerBuffer).append(eq("attempt-1"), anyList(), any());
+            verify(attemptRepository, never()).upsertAnswer(any(), any(), any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should flush buffered answers and re-read the attempt before grading on submit")
+        void submitFlushesBuffer() {
+            inProgressAttempt.setStartedAt(LocalDateTime.now().minusMinutes(5));
+            TestAttempt flushed = TestAttempt.builder()
+                    .id("attempt-1").testId("test-1").userId("user-1")
+                    .startedAt(inProgressAttempt.getStartedAt())
+                    .status(TestAttempt.AttemptStatus.SUBMITTED)
+                    .answers(new ArrayList<>(List.of(answer("q1", List.of("c1")))))
+                    .build();
+            when(answerBuffer.isEnabled()).thenReturn(true);
+            when(answerBuffer.flushAttempt("attempt-1")).thenReturn(true);
+            givenClaimed();
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(flushed));
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+
+            TestAttempt result = attemptService.submitAttempt("attempt-1");
+
+            assertEquals(100.0, result.getScore());
+        }
+    }
+
+    @Nested
+    @DisplayName("Deadline Auto-Submit")
+    class DeadlineAutoSubmit {
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should grade only expired in-progress attempts")
+        void autoSubmitExpired() {
+            TestAttempt expired = TestAttempt.builder()
+                    .id("expired").testId("test-1").userId("user-2")
+                    .startedAt(LocalDateTime.now().minusMinutes(45))
+                    .status(TestAttempt.AttemptStatus.IN_PROGRESS)
+                    .answers(new ArrayList<>(List.of(answer("q1", List.of("c1")))))
+                    .build();
+            inProgressAttempt.setStartedAt(LocalDateTime.now().minusMinutes(5));
+
+            when(attemptRepository.findAllById(List.of("expired", "attempt-1", "a1")))
+                    .thenReturn(List.of(expired, inProgressAttempt, createGradedAttempt("a1")));
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            givenClaimed(expired);
+
+            int submitted = attemptService.autoSubmitExpired(List.of("expired", "attempt-1", "a1"));
+
+            assertEquals(1, submitted);
+            assertEquals(TestAttempt.AttemptStatus.GRADED, expired.getStatus());
+            assertEquals(100.0, expired.getScore());
+            assertEquals(TestAttempt.AttemptStatus.IN_PROGRESS, inProgressAttempt.getStatus());
+            verify(attemptRepository).saveGrades(argThat(batch -> batch.size() == 1), eq(TestAttempt.AttemptStatus.SUBMITTED));
+            verify(attemptRepository, never()).claimSubmission(eq("attempt-1"), any());
+            verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof AttemptGradedEvent));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should not announce an expired attempt whose grade write lost to a concurrent grader")
+        void autoSubmitSkipsUnmatchedWrite() {
+            inProgressAttempt.setStartedAt(LocalDateTime.now().minusMinutes(45));
+            when(attemptRepository.findAllById(List.of("attempt-1"))).thenReturn(List.of(inProgressAttempt));
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            when(attemptRepository.claimSubmission(eq("attempt-1"), any())).thenAnswer(inv -> {
+                inProgressAttempt.setStatus(TestAttempt.AttemptStatus.SUBMITTED);
+                return inProgressAttempt;
+            });
+            when(attemptRepository.saveGrades(anyList(), eq(TestAttempt.AttemptStatus.SUBMITTED))).thenReturn(0);
+
+            int submitted = attemptService.autoSubmitExpired(List.of("attempt-1"));
+
+            assertEquals(1, submitted);
+            verify(eventPublisher, never()).publishEvent(argThat((Object e) -> e instanceof AttemptGradedEvent));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should publish the deadline of a new attempt")
+        void startPublishesDeadline() {
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            givenHistory(Collections.emptyList());
             when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
 
-            // submit still works, just logs a warning
+            attemptService.startAttempt("test-1", "user-1");
+
+            verify(eventPublisher).publishEvent(argThat((Object e) ->
+                    e instanceof AttemptStartedEvent && ((AttemptStartedEvent) e).getDeadline() != null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Async Grading")
+    class AsyncGrading {
+
+        @BeforeEach
+        void enableAsync() {
+            ReflectionTestUtils.setField(attemptService, "asyncGrading", true);
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should only record SUBMITTED and queue the attempt on submit")
+        void submitQueuesAttempt() {
+            givenClaimed();
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+
             TestAttempt result = attemptService.submitAttempt("attempt-1");
+
+            assertEquals(TestAttempt.AttemptStatus.SUBMITTED, result.getStatus());
+            verify(attemptRepository, never()).saveGrades(any(), any());
+            verify(counterRepository).release("user-1:test-1", "attempt-1", true);
+            verify(eventPublisher).publishEvent(argThat((Object e) ->
+                    e instanceof AttemptSubmittedEvent && ((AttemptSubmittedEvent) e).getAttemptId().equals("attempt-1")));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should reject answers saved after submit while the attempt waits for grading")
+        void bufferedSaveAfterSubmitRejected(@TempDir Path journalDir) {
+            AnswerWriteBehindBuffer buffer = new AnswerWriteBehindBuffer(attemptRepository, new ObjectMapper());
+            ReflectionTestUtils.setField(buffer, "enabled", true);
+            ReflectionTestUtils.setField(buffer, "journalDir", journalDir.toString());
+            ReflectionTestUtils.setField(attemptService, "answerBuffer", buffer);
+            buffer.open("attempt-1", null);
+            givenClaimed();
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+
+            attemptService.submitAttempt("attempt-1");
+            AnswerRequest late = new AnswerRequest("q1", List.of("c1"), null, null);
+
+            RuntimeException ex = assertThrows(RuntimeException.class,
+                    () -> attemptService.saveAnswerAtomic("attempt-1", late));
+            assertEquals("Cannot modify submitted attempt", ex.getMessage());
+            assertThrows(RuntimeException.class, () -> attemptService.saveAnswers("attempt-1", List.of(late)));
+            assertFalse(buffer.flushAttempt("attempt-1"));
+            verify(attemptRepository, never()).upsertAnswers(any(), any(), isNull());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should grade a queued attempt and announce it once")
+        void workerGradesSubmitted() {
+            inProgressAttempt.setStatus(TestAttempt.AttemptStatus.SUBMITTED);
+            inProgressAttempt.getAnswers().add(answer("q1", List.of("c1")));
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            when(attemptRepository.saveGrades(anyList(), eq(TestAttempt.AttemptStatus.SUBMITTED))).thenReturn(1);
+
+            TestAttempt result = attemptService.gradeSubmission("attempt-1");
+
             assertEquals(TestAttempt.AttemptStatus.GRADED, result.getStatus());
+            assertEquals(100.0, result.getScore());
+            verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof AttemptGradedEvent));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should skip attempts that were already graded")
+        void workerSkipsGraded() {
+            TestAttempt graded = createGradedAttempt("attempt-1");
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(graded));
+
+            assertSame(graded, attemptService.gradeSubmission("attempt-1"));
+            verify(attemptRepository, never()).saveGrades(any(), any());
+            verify(eventPublisher, never()).publishEvent(any(Object.class));
         }
     }
 
@@ -261,9 +648,8 @@ class TestAttemptServiceTest {
                     TestAttempt.Answer.builder().questionId("q1").selectedChoices(List.of("c1")).build()
             );
 
-            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+            givenClaimed();
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
 
             TestAttempt result = attemptService.submitAttempt("attempt-1");
 
@@ -281,9 +667,8 @@ class TestAttemptServiceTest {
                     TestAttempt.Answer.builder().questionId("q1").selectedChoices(List.of("c2")).build()
             );
 
-            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+            givenClaimed();
             when(testService.getTestById("test-1")).thenReturn(testEntity);
-            when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
 
             TestAttempt result = attemptService.submitAttempt("attempt-1");
 
@@ -291,6 +676,297 @@ class TestAttemptServiceTest {
             assertEquals(0, result.getEarnedPoints());
             assertFalse(result.getAnswers().get(0).getIsCorrect());
         }
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should require the exact correct set for MULTIPLE questions")
+        void gradeMultipleChoice() {
+            Test.Question multiple = Test.Question.builder()
+                    .id("q2").type(Test.QuestionType.MULTIPLE).points(5)
+                    .choices(List.of(
+                            Test.Choice.builder().id("m1").isCorrect(true).build(),
+                            Test.Choice.builder().id("m2").isCorrect(true).build(),
+                            Test.Choice.builder().id("m3").isCorrect(false).build()))
+                    .build();
+            Test multiTest = Test.builder().id("test-2").questions(List.of(multiple)).build();
+            AnswerKey key = AnswerKey.compile(multiTest);
+
+            assertTrue(key.isCorrect(0, answer("q2", List.of("m2", "m1"))));
+            assertFalse(key.isCorrect(0, answer("q2", List.of("m1"))));
+            assertFalse(key.isCorrect(0, answer("q2", List.of("m1", "m1"))));
+            assertFalse(key.isCorrect(0, answer("q2", List.of("m1", "m3"))));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should accept numerically equal NUMERIC answers")
+        void gradeNumericAnswer() {
+            Test.Question numeric = Test.Question.builder()
+                    .id("q3").type(Test.QuestionType.NUMERIC).points(2).correctAnswer(" 3.50 ")
+                    .build();
+            AnswerKey key = AnswerKey.compile(Test.builder().id("test-3").questions(List.of(numeric)).build());
+
+            TestAttempt attempt = TestAttempt.builder().answers(new ArrayList<>(List.of(
+                    TestAttempt.Answer.builder().questionId("q3").numericAnswer("3.5").build()))).build();
+            key.grade(attempt);
+
+            assertTrue(attempt.getAnswers().get(0).getIsCorrect());
+            assertEquals(2, attempt.getEarnedPoints());
+            assertFalse(key.isCorrect(0, TestAttempt.Answer.builder().numericAnswer("abc").build()));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should compile each test version once")
+        void answerKeyCachedPerVersion() {
+            testEntity.setCurrentVersionId("v1");
+            AnswerKey first = answerKeyCache.get(testEntity);
+            assertSame(first, answerKeyCache.get(testEntity));
+
+            testEntity.setCurrentVersionId("v2");
+            assertNotSame(first, answerKeyCache.get(testEntity));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should grade against the version the attempt started on, not the edited test")
+        void gradesAgainstPinnedVersion() {
+            Test pinned = Test.builder()
+                    .id("test-1").currentVersionId("v1").durationMinutes(30)
+                    .questions(testEntity.getQuestions())
+                    .build();
+            when(testVersionService.getVersion("v1")).thenReturn(
+                    TestVersion.builder().id("v1").testId("test-1").content(pinned).build());
+            inProgressAttempt.setTestVersionId("v1");
+            inProgressAttempt.getAnswers().add(answer("q1", List.of("c1")));
+            givenClaimed();
+
+            // The live test has since been edited: c2 is now the correct choice
+            testEntity.setQuestions(List.of(Test.Question.builder()
+                    .id("q1").type(Test.QuestionType.SINGLE).points(10)
+                    .choices(List.of(Test.Choice.builder().id("c2").isCorrect(true).build()))
+                    .build()));
+
+            TestAttempt result = attemptService.submitAttempt("attempt-1");
+
+            assertEquals(100.0, result.getScore());
+            verify(testService, never()).getTestById(any());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should pin new attempts to the test's current version")
+        void startPinsVersion() {
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            givenHistory(Collections.emptyList());
+            when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            TestAttempt result = attemptService.startAttempt("test-1", "user-1");
+
+            assertEquals("v1", result.getTestVersionId());
+        }
+    }
+
+    @Nested
+    @DisplayName("Shuffled Delivery")
+    class ShuffledDelivery {
+
+        private Test longTest;
+
+        @BeforeEach
+        void givenLongTest() {
+            List<Test.Question> questions = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                questions.add(Test.Question.builder()
+                        .id("q" + i).type(Test.QuestionType.SINGLE).points(1)
+                        .choices(List.of(
+                                Test.Choice.builder().id("q" + i + "a").isCorrect(true).build(),
+                                Test.Choice.builder().id("q" + i + "b").isCorrect(false).build(),
+                                Test.Choice.builder().id("q" + i + "c").isCorrect(false).build(),
+                                Test.Choice.builder().id("q" + i + "d").isCorrect(false).build()))
+                        .build());
+            }
+            longTest = Test.builder().id("test-1").currentVersionId("v1").questions(questions).build();
+            lenient().when(testVersionService.getVersion("v1")).thenReturn(
+                    TestVersion.builder().id("v1").testId("test-1").content(longTest).build());
+            inProgressAttempt.setTestVersionId("v1");
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should derive the same order from the same seed, without answers and without touching the version")
+        void sameSeedSameOrder() {
+            inProgressAttempt.setShuffleSeed(42L);
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+
+            Test first = attemptService.getDeliveryTest("attempt-1", true);
+            Test second = attemptService.getDeliveryTest("attempt-1", true);
+
+            assertEquals(questionIds(first), questionIds(second));
+            assertNotEquals(questionIds(longTest), questionIds(first));
+            assertEquals(choiceIds(first), choiceIds(second));
+            assertTrue(first.getQuestions().stream().flatMap(q -> q.getChoices().stream())
+                    .allMatch(c -> c.getIsCorrect() == null));
+            assertEquals("q0", longTest.getQuestions().get(0).getId());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should give different seeds different orders and keep the test's order without a seed")
+        void seedsDiffer() {
+            TestAttempt other = TestAttempt.builder().id("attempt-2").testVersionId("v1").shuffleSeed(7L).build();
+            inProgressAttempt.setShuffleSeed(42L);
+            TestAttempt legacy = TestAttempt.builder().id("attempt-3").testVersionId("v1").build();
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+            when(attemptRepository.findById("attempt-2")).thenReturn(Optional.of(other));
+            when(attemptRepository.findById("attempt-3")).thenReturn(Optional.of(legacy));
+
+            assertNotEquals(questionIds(attemptService.getDeliveryTest("attempt-1", true)),
+                    questionIds(attemptService.getDeliveryTest("attempt-2", true)));
+            assertEquals(questionIds(longTest), questionIds(attemptService.getDeliveryTest("attempt-3", true)));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should review a finished attempt in the order it was delivered")
+        void reviewMatchesDelivery() {
+            inProgressAttempt.setShuffleSeed(-5L);
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+            Test delivered = attemptService.getDeliveryTest("attempt-1", true);
+
+            inProgressAttempt.setStatus(TestAttempt.AttemptStatus.GRADED);
+            Test review = attemptService.getReviewTest("attempt-1");
+
+            assertEquals(questionIds(delivered), questionIds(review));
+            assertEquals(choiceIds(delivered), choiceIds(review));
+            assertTrue(review.getQuestions().get(0).getChoices().stream().anyMatch(c -> Boolean.TRUE.equals(c.getIsCorrect())));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should give new attempts a seed when shuffling is enabled")
+        void startAssignsSeed() {
+            ReflectionTestUtils.setField(attemptService, "shuffleEnabled", true);
+            when(testService.getTestById("test-1")).thenReturn(testEntity);
+            givenHistory(Collections.emptyList());
+            when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            assertNotNull(attemptService.startAttempt("test-1", "user-1").getShuffleSeed());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should serve the same questions page by page as in one piece")
+        void pagesMatchDelivery() {
+            ReflectionTestUtils.setField(attemptService, "maxQuestionPageSize", 100);
+            inProgressAttempt.setShuffleSeed(11L);
+            inProgressAttempt.setQuestionIndexes(List.of(1, 3, 5, 7, 9, 11, 13));
+            when(attemptRepository.findById("attempt-1")).thenReturn(Optional.of(inProgressAttempt));
+
+            Test delivered = attemptService.getDeliveryTest("attempt-1", true);
+            QuestionPage first = attemptService.getDeliveryQuestions("attempt-1", 0, 4);
+            QuestionPage second = attemptService.getDeliveryQuestions("attempt-1", 4, 4);
+
+            assertEquals(7, first.getTotal());
+            assertEquals(3, second.getItems().size());
+            List<Test.Question> paged = new ArrayList<>(first.getItems());
+            paged.addAll(second.getItems());
+            assertEquals(delivered.getQuestions(), paged);
+            assertNull(attemptService.getDeliveryTest("attempt-1", false).getQuestions());
+        }
+
+        private List<String> questionIds(Test test) {
+            return test.getQuestions().stream().map(Test.Question::getId).toList();
+        }
+
+        private List<String> choiceIds(Test test) {
+            return test.getQuestions().stream().flatMap(q -> q.getChoices().stream()).map(Test.Choice::getId).toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("Question Bank Sampling")
+    class QuestionBankSampling {
+
+        private Test bankTest;
+
+        @BeforeEach
+        void givenBank() {
+            List<Test.Question> bank = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                bank.add(Test.Question.builder()
+                        .id("q" + i).type(Test.QuestionType.SINGLE).points(i < 10 ? 1 : 2)
+                        .tags(List.of(i % 2 == 0 ? "even" : "odd"))
+                        .difficulty(i < 10 ? Test.DifficultyLevel.BEGINNER : Test.DifficultyLevel.ADVANCED)
+                        .choices(List.of(Test.Choice.builder().id("q" + i + "a").isCorrect(true).build()))
+                        .build());
+            }
+            bankTest = Test.builder()
+                    .id("test-1").currentVersionId("v1").maxAttempts(3).questions(bank)
+                    .sampling(List.of(
+                            Test.SamplingRule.builder().difficulty(Test.DifficultyLevel.BEGINNER).count(3).build(),
+                            Test.SamplingRule.builder().tag("even").difficulty(Test.DifficultyLevel.ADVANCED).count(2).build()))
+                    .build();
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should store only the drawn positions, meeting every rule's quota")
+        void startDrawsSample() {
+            when(testService.getTestById("test-1")).thenReturn(bankTest);
+            givenHistory(Collections.emptyList());
+            when(attemptRepository.save(any(TestAttempt.class))).thenAnswer(inv -> inv.getArgument(0));
+
+            List<Integer> drawn = attemptService.startAttempt("test-1", "user-1").getQuestionIndexes();
+
+            assertEquals(5, drawn.size());
+            assertEquals(3, drawn.stream().filter(i -> i < 10).count());
+            assertTrue(drawn.stream().filter(i -> i >= 10).allMatch(i -> i % 2 == 0));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should grade and total a sampled attempt on its own questions only")
+        void gradesSampleOnly() {
+            when(testVersionService.getVersion("v1")).thenReturn(
+                    TestVersion.builder().id("v1").testId("test-1").content(bankTest).build());
+            inProgressAttempt.setTestVersionId("v1");
+            inProgressAttempt.setQuestionIndexes(List.of(0, 1, 2, 10, 12));
+            inProgressAttempt.getAnswers().add(answer("q0", List.of("q0a")));
+            inProgressAttempt.getAnswers().add(answer("q10", List.of("q10a")));
+            // Not drawn for this attempt, so it does not count
+            inProgressAttempt.getAnswers().add(answer("q20", List.of("q20a")));
+            givenClaimed();
+
+            TestAttempt result = attemptService.submitAttempt("attempt-1");
+
+            assertEquals(7, result.getTotalPoints());
+            assertEquals(3, result.getEarnedPoints());
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should reject sampling rules the bank cannot satisfy")
+        void rejectsOversizedRule() {
+            bankTest.setSampling(List.of(Test.SamplingRule.builder().tag("odd").difficulty(Test.DifficultyLevel.BEGINNER).count(6).build()));
+
+            assertThrows(IllegalArgumentException.class, () -> QuestionSampler.validate(bankTest));
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should draw the full count when a broad rule is declared before a narrow one")
+        void overlappingRulesDrawFullCount() {
+            // Every even question also matches the first rule; drawn in declared order it could take them
+            bankTest.setQuestions(bankTest.getQuestions().subList(0, 6));
+            bankTest.setSampling(List.of(
+                    Test.SamplingRule.builder().count(2).build(),
+                    Test.SamplingRule.builder().tag("even").count(3).build()));
+            Random random = new Random(42);
+
+            QuestionSampler.validate(bankTest);
+            for (int i = 0; i < 200; i++) {
+                List<Integer> drawn = QuestionSampler.sample(bankTest, random);
+                assertEquals(QuestionSampler.drawCount(bankTest), drawn.size());
+                assertTrue(drawn.containsAll(List.of(0, 2, 4)));
+            }
+        }
+
+        @org.junit.jupiter.api.Test
+        @DisplayName("Should reject overlapping rules that could leave a later rule short")
+        void rejectsOverlapThatCanUnderdraw() {
+            // The beginner rule goes first and may take all five even beginners, leaving 10 of the 12 even ones
+            bankTest.setSampling(List.of(
+                    Test.SamplingRule.builder().tag("even").count(12).build(),
+                    Test.SamplingRule.builder().difficulty(Test.DifficultyLevel.BEGINNER).count(8).build()));
+
+            assertThrows(IllegalArgumentException.class, () -> QuestionSampler.validate(bankTest));
+        }
     }
 
     @Nested
@@ -306,14 +982,44 @@ class TestAttemptServiceTest {
                     inProgressAttempt // IN_PROGRESS — not counted
             );
 
-            when(attemptRepository.findByUserIdAndTestId("user-1", "test-1"))
-                    .thenReturn(attempts);
+            givenHistory(attempts);
 
             long count = attemptService.getCompletedAttemptsCount("user-1", "test-1");
             assertEquals(2, count);
         }
     }
 
+    // Simulates winning the IN_PROGRESS -> SUBMITTED transition for attempt-1
+    private void givenClaimed() {
+        givenClaimed(inProgressAttempt);
+    }
+
+    // The attempt wins the IN_PROGRESS -> SUBMITTED transition when it is claimed, and its grade write matches
+    private void givenClaimed(TestAttempt attempt) {
+        when(attemptRepository.claimSubmission(eq(attempt.getId()), any())).thenAnswer(inv -> {
+            attempt.setStatus(TestAttempt.AttemptStatus.SUBMITTED);
+            attempt.setSubmittedAt(inv.getArgument(1));
+            return attempt;
+        });
+        lenient().when(attemptRepository.saveGrades(argThat(batch -> batch != null && batch.size() == 1
+                && batch.get(0).getId().equals(attempt.getId())), eq(TestAttempt.AttemptStatus.SUBMITTED))).thenReturn(1);
+    }
+
+    // Seeds the (user-1, test-1) counter from the given attempt history on first lookup
+    private void givenHistory(List<TestAttempt> history) {
+        when(counterRepository.findById("user-1:test-1")).thenReturn(Optional.empty());
+        when(attemptRepository.findStatusesByUserIdAndTestId("user-1", "test-1")).thenReturn(history);
+        when(counterRepository.initialize(any(AttemptCounter.class))).thenAnswer(inv -> inv.getArgument(0));
+        lenient().when(counterRepository.reserve(eq("user-1:test-1"), any(), anyInt())).thenReturn(true);
+        history.stream()
+                .filter(a -> a.getStatus() == TestAttempt.AttemptStatus.IN_PROGRESS)
+                .forEach(a -> lenient().when(attemptRepository.findById(a.getId())).thenReturn(Optional.of(a)));
+    }
+
+    private TestAttempt.Answer answer(String questionId, List<String> choices) {
+        return TestAttempt.Answer.builder().questionId(questionId).selectedChoices(choices).build();
+    }
+
     private TestAttempt createGradedAttempt(String id) {
         return TestAttempt.builder()
                 .id(id)
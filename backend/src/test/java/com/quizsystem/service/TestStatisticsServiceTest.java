@@ -0,0 +1,106 @@
+package com.quizsystem.service;
+
+import com.quizsystem.dto.TestScoreStats;
+import com.quizsystem.event.AttemptGradedEvent;
+import com.quizsystem.event.TestRegradedEvent;
+import com.quizsystem.model.TestAttempt;
+import com.quizsystem.repository.TestAttemptRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TestStatisticsServiceTest {
+
+    @Mock private TestAttemptRepository attemptRepository;
+
+    @InjectMocks
+    private TestStatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(statisticsService, "batchSize", 100);
+        ReflectionTestUtils.setField(statisticsService, "replayWindowMs", 60_000L);
+        statisticsService.init();
+    }
+
+    private static TestAttempt score(String testId, double score) {
+        return TestAttempt.builder().testId(testId).score(score).build();
+    }
+
+    private void grade(String testId, double score) {
+        grade(testId, score, LocalDateTime.now());
+    }
+
+    private void grade(String testId, double score, LocalDateTime gradedAt) {
+        TestAttempt attempt = score(testId, score);
+        attempt.setGradedAt(gradedAt);
+        statisticsService.onAttemptGraded(new AttemptGradedEvent(attempt, null));
+    }
+
+    @Nested
+    @DisplayName("Rebuild")
+    class Rebuild {
+
+        @Test
+        @DisplayName("Should keep grades that arrive while the scores are read")
+        void replaysGradesDuringRebuild() {
+            when(attemptRepository.streamGradedScores(isNull(), any(LocalDateTime.class), eq(100))).thenAnswer(inv -> {
+                // Graded after the cutoff, so the cursor does not return them
+                grade("test-1", 90.0);
+                grade("test-2", 40.0);
+                return Stream.of(score("test-1", 60.0), score("test-1", 80.0));
+            });
+
+            statisticsService.rebuild();
+
+            TestScoreStats first = statisticsService.getStats("test-1", 70.0);
+            assertEquals(3L, first.getAttempts());
+            assertEquals(2L, first.getPassedCount());
+            // Its first grade arrived mid-rebuild; the swap must not drop the test
+            assertEquals(1L, statisticsService.getStats("test-2", 70.0).getAttempts());
+        }
+
+        @Test
+        @DisplayName("Should replace counts graded before the cutoff instead of adding to them")
+        void replacesOldCounts() {
+            // Before the cutoff, so the cursor returns it and it is not replayed
+            grade("test-1", 60.0, LocalDateTime.now().minusMinutes(5));
+            when(attemptRepository.streamGradedScores(isNull(), any(LocalDateTime.class), eq(100)))
+                    .thenReturn(Stream.of(score("test-1", 60.0)));
+
+            statisticsService.rebuild();
+
+            assertEquals(1L, statisticsService.getStats("test-1", 70.0).getAttempts());
+        }
+
+        @Test
+        @DisplayName("Should replay only the regraded test's grades after a regrade")
+        void regradeReplaysOwnTest() {
+            grade("test-2", 50.0);
+            when(attemptRepository.streamGradedScores(eq("test-1"), any(LocalDateTime.class), eq(100))).thenAnswer(inv -> {
+                grade("test-1", 100.0);
+                grade("test-2", 70.0);
+                return Stream.of(score("test-1", 20.0));
+            });
+
+            statisticsService.onTestRegraded(new TestRegradedEvent("test-1", 1));
+
+            assertEquals(2L, statisticsService.getStats("test-1", 70.0).getAttempts());
+            assertEquals(2L, statisticsService.getStats("test-2", 70.0).getAttempts());
+        }
+    }
+}
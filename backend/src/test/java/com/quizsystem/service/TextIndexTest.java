@@ -0,0 +1,171 @@
+package com.quizsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+
+    private TextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TextIndex();
+    }
+
+    private List<String> ids(String query) {
+        return index.search(query, 10).stream().map(TextIndex.Hit::id).toList();
+    }
+
+    @Nested
+    @DisplayName("Ranking")
+    class Ranking {
+
+        @Test
+        @DisplayName("Should rank a title match above a description match")
+        void titleOutranksDescription() {
+            index.put("desc", List.of(
+                    new TextIndex.Field("Collections", 3f),
+                    new TextIndex.Field("Lists, maps and sets in Java", 1f)));
+            index.put("title", List.of(
+                    new TextIndex.Field("Java basics", 3f),
+                    new TextIndex.Field("Variables, loops and methods", 1f)));
+
+            assertEquals(List.of("title", "desc"), ids("java "));
+        }
+
+        @Test
+        @DisplayName("Should rank a document matching more query words first")
+        void moreWordsRankHigher() {
+            index.put("one", List.of(new TextIndex.Field("Graph algorithms", 1f)));
+            index.put("both", List.of(new TextIndex.Field("Graph theory", 1f)));
+            index.put("none", List.of(new TextIndex.Field("Linear algebra", 1f)));
+
+            assertEquals(List.of("both", "one"), ids("graph theory "));
+        }
+
+        @Test
+        @DisplayName("Should order hits by descending score and honour the limit")
+        void scoresDescendAndLimit() {
+            for (int i = 0; i < 5; i++) {
+                index.put("t" + i, List.of(new TextIndex.Field("Physics", i + 1f)));
+            }
+            List<TextIndex.Hit> hits = index.search("physics ", 3);
+
+            assertEquals(3, hits.size());
+            assertEquals("t4", hits.get(0).id());
+            for (int i = 1; i < hits.size(); i++) {
+                assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+            }
+        }
+
+        @Test
+        @DisplayName("Should return nothing for an empty query, a stop word or a zero limit")
+        void emptyQueries() {
+            index.put("t1", List.of(new TextIndex.Field("The history of Rome", 1f)));
+
+            assertTrue(ids("").isEmpty());
+            assertTrue(ids("  ").isEmpty());
+            assertTrue(ids("the ").isEmpty());
+            assertTrue(index.search("rome", 0).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Prefix matching")
+    class PrefixMatching {
+
+        @BeforeEach
+        void setUp() {
+            index.put("algo", List.of(new TextIndex.Field("Algorithms", 1f)));
+            index.put("alg", List.of(new TextIndex.Field("Algebra", 1f)));
+        }
+
+        @Test
+        @DisplayName("Should match the last word as a prefix while typing")
+        void lastWordIsPrefix() {
+            assertEquals(List.of("alg", "algo"), ids("alg").stream().sorted().toList());
+            assertEquals(List.of("algo"), ids("algor"));
+        }
+
+        @Test
+        @DisplayName("Should not expand a word followed by a space")
+        void completeWordIsExact() {
+            assertTrue(ids("algor ").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should rank a full word above a prefix completion")
+        void exactBeatsPrefix() {
+            index.put("set", List.of(new TextIndex.Field("Set", 1f)));
+            index.put("setup", List.of(new TextIndex.Field("Setup", 1f)));
+
+            assertEquals(List.of("set", "setup"), ids("set"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tokenization")
+    class Tokenization {
+
+        @Test
+        @DisplayName("Should fold case and plural endings in English, Russian and Kazakh")
+        void foldsEndings() {
+            index.put("en", List.of(new TextIndex.Field("Tests", 1f)));
+            index.put("ru", List.of(new TextIndex.Field("Тесты", 1f)));
+            index.put("kz", List.of(new TextIndex.Field("Тесттер", 1f)));
+
+            assertEquals(List.of("en"), ids("TEST "));
+            assertEquals(List.of("kz", "ru"), ids("тест ").stream().sorted().toList());
+        }
+
+        @Test
+        @DisplayName("Should drop stop words and one-letter words from the index")
+        void dropsStopWords() {
+            assertEquals(List.of("history", "rome"), TextIndex.tokenize("The history of a Rome"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class Updates {
+
+        @Test
+        @DisplayName("Should forget old terms when a document is replaced")
+        void putReplaces() {
+            index.put("t1", List.of(new TextIndex.Field("Chemistry", 1f)));
+            index.put("t1", List.of(new TextIndex.Field("Biology", 1f)));
+
+            assertTrue(ids("chemistry ").isEmpty());
+            assertEquals(List.of("t1"), ids("biology "));
+            assertEquals(1, index.size());
+        }
+
+        @Test
+        @DisplayName("Should drop a removed document from every term")
+        void removeDropsDocument() {
+            index.put("t1", List.of(new TextIndex.Field("Chemistry basics", 1f)));
+            index.put("t2", List.of(new TextIndex.Field("Chemistry advanced", 1f)));
+            index.remove("t1");
+
+            assertEquals(List.of("t2"), ids("chemistry "));
+            assertTrue(ids("basics ").isEmpty());
+            assertEquals(1, index.size());
+        }
+
+        @Test
+        @DisplayName("Should treat a document without terms as removed")
+        void emptyPutRemoves() {
+            index.put("t1", List.of(new TextIndex.Field("Chemistry", 1f)));
+            index.put("t1", List.of(new TextIndex.Field(null, 1f)));
+
+            assertEquals(0, index.size());
+            assertTrue(ids("chemistry").isEmpty());
+        }
+    }
+}
@@ -2,8 +2,13 @@ import axios from './axios';
 
 export const adminAPI = {
   
-  getAllTests: async () => {
-    const response = await axios.get('/admin/tests');
+  getTests: async (cursor) => {
+    const response = await axios.get('/admin/tests', { params: { cursor } });
+    return response.data;
+  },
+
+  getTest: async (id) => {
+    const response = await axios.get(`/admin/tests/${id}`);
     return response.data;
   },
 
@@ -21,9 +26,19 @@ export const adminAPI = {
     await axios.delete(`/admin/tests/${id}`);
   },
 
+  regradeTest: async (id) => {
+    const response = await axios.post(`/admin/tests/${id}/regrade`);
+    return response.data;
+  },
+
+  getRegradeJob: async (jobId) => {
+    const response = await axios.get(`/admin/regrade-jobs/${jobId}`);
+    return response.data;
+  },
+
   
-  getAllUsers: async () => {
-    const response = await axios.get('/admin/users');
+  getUsers: async (cursor) => {
+    const response = await axios.get('/admin/users', { params: { cursor } });
     return response.data;
   },
 
@@ -38,7 +53,27 @@ export const adminAPI = {
 
   
   getTestReport: async (testId) => {
-    const response = await axios.get(`/admin/reports/test/${testId}`);
+    const response = await axios.get(`/admin/reports/test/${testId}`, { params: { limit: 10 } });
+    return response.data;
+  },
+
+  // Per-question difficulty, discrimination and choice picks of the test's current version
+  getItemAnalysis: async (testId) => {
+    const response = await axios.get(`/admin/reports/test/${testId}/items`);
+    return response.data;
+  },
+
+  // Approximate distinct users and score percentiles over [from, to] (ISO dates, default today)
+  getTestAnalytics: async (testId, from, to) => {
+    const response = await axios.get(`/admin/analytics/tests/${testId}`, { params: { from, to } });
+    return response.data;
+  },
+
+  exportTestReport: async (testId, format) => {
+    const response = await axios.get(`/admin/reports/test/${testId}/export`, {
+      params: { format },
+      responseType: 'blob',
+    });
     return response.data;
   },
 
@@ -47,6 +82,12 @@ export const adminAPI = {
     return response.data;
   },
 
+  // Per-minute counter snapshots for the last `minutes` minutes
+  getDashboardSeries: async (minutes) => {
+    const response = await axios.get('/admin/reports/dashboard/series', { params: { minutes } });
+    return response.data;
+  },
+
   getAIStatus: async () => {
     const response = await axios.get('/admin/ai/status');
     return response.data;
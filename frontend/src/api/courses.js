@@ -1,11 +1,23 @@
 import axios from './axios';
 
 export const coursesAPI = {
-  getAllCourses: async () => {
-    const response = await axios.get('/courses');
+  getCourses: async (cursor) => {
+    const response = await axios.get('/courses', { params: { cursor } });
     return response.data;
   },
 
+  // The course list is small; pages are followed until the last one
+  getAllCourses: async () => {
+    const courses = [];
+    let cursor;
+    do {
+      const response = await axios.get('/courses', { params: { cursor, limit: 200 } });
+      courses.push(...response.data.items);
+      cursor = response.data.nextCursor;
+    } while (cursor);
+    return courses;
+  },
+
   getCourseById: async (id) => {
     const response = await axios.get(`/courses/${id}`);
     return response.data;
@@ -6,26 +6,69 @@ export const testsAPI = {
     return response.data;
   },
 
+  // Details and questionCount only; questions are delivered through the attempt
   getTestById: async (id) => {
     const response = await axios.get(`/tests/${id}`);
     return response.data;
   },
 
+  getTestVersion: async (versionId) => {
+    const response = await axios.get(`/tests/versions/${versionId}`);
+    return response.data;
+  },
+
+  // Test without answers, questions and choices in this attempt's shuffled order;
+  // with questions = false only the test's details, for paging through getAttemptQuestions
+  getDeliveryTest: async (attemptId, questions = true) => {
+    const response = await axios.get(`/tests/attempt/${attemptId}/test`, { params: { questions } });
+    return response.data;
+  },
+
+  getAttemptQuestions: async (attemptId, offset, limit) => {
+    const response = await axios.get(`/tests/attempt/${attemptId}/questions`, { params: { offset, limit } });
+    return response.data;
+  },
+
+  // Full test with correct answers; only available once the attempt is finished
+  getReviewTest: async (attemptId) => {
+    const response = await axios.get(`/tests/attempt/${attemptId}/review`);
+    return response.data;
+  },
+
   searchTests: async (query) => {
-    const response = await axios.get(`/tests/search?query=${query}`);
+    const response = await axios.get('/tests/search', { params: { query } });
     return response.data;
   },
 
-  startTest: async (testId) => {
-    const response = await axios.post(`/tests/${testId}/start`);
+  // { query, category, tag, difficulty, duration, limit } -> { items, total, facets }
+  browseTests: async (filters) => {
+    const response = await axios.get('/tests/browse', { params: filters });
     return response.data;
   },
 
+  startTest: async (testId) => {
+    try {
+      const response = await axios.post(`/tests/${testId}/start`);
+      return response.data;
+    } catch (error) {
+      // 409: another start of this test is still saving its attempt; the retry returns that attempt
+      if (error.response?.status !== 409) throw error;
+      await new Promise((resolve) => setTimeout(resolve, 1000));
+      const response = await axios.post(`/tests/${testId}/start`);
+      return response.data;
+    }
+  },
+
   saveAnswer: async (testId, attemptId, answer) => {
     const response = await axios.post(`/tests/${testId}/attempt/${attemptId}/answer`, answer);
     return response.data;
   },
 
+  saveAnswers: async (testId, attemptId, answers) => {
+    const response = await axios.post(`/tests/${testId}/attempt/${attemptId}/answers`, answers);
+    return response.data;
+  },
+
   submitTest: async (testId, attemptId) => {
     const response = await axios.post(`/tests/${testId}/attempt/${attemptId}/submit`);
     return response.data;
@@ -36,8 +79,8 @@ export const testsAPI = {
     return response.data;
   },
 
-  getMyAttempts: async () => {
-    const response = await axios.get('/tests/my-attempts');
+  getMyAttempts: async (cursor) => {
+    const response = await axios.get('/tests/my-attempts', { params: { cursor } });
     return response.data;
   },
 
@@ -63,8 +106,27 @@ export const testsAPI = {
     return response.data;
   },
 
-  getLeaderboard: async () => {
-    const response = await axios.get('/tests/leaderboard');
+  // Ranks offset + 1 .. offset + limit; window is all (default), month, week or day
+  getLeaderboard: async (offset = 0, limit, window) => {
+    const response = await axios.get('/tests/leaderboard', { params: { offset, limit, window } });
+    return response.data;
+  },
+
+  getTestLeaderboard: async (testId, offset = 0, limit, window) => {
+    const response = await axios.get(`/tests/leaderboard/tests/${testId}`, { params: { offset, limit, window } });
     return response.data;
   },
+
+  getCategoryLeaderboard: async (category, offset = 0, limit, window) => {
+    const response = await axios.get(`/tests/leaderboard/categories/${encodeURIComponent(category)}`, {
+      params: { offset, limit, window },
+    });
+    return response.data;
+  },
+
+  // The signed-in user's row with their rank; empty when they have no graded attempts yet
+  getMyLeaderboardEntry: async () => {
+    const response = await axios.get('/tests/leaderboard/me');
+    return response.data || null;
+  },
 };
@@ -3,9 +3,32 @@ import { Link } from 'react-router-dom';
 import { adminAPI } from '../api/admin';
 import { useLanguage } from '../contexts/LanguageContext';
 
+// Bars scaled to the largest value; null points (no snapshot yet) are left empty
+const BarChart = ({ values, labels }) => {
+  const max = Math.max(1, ...values.filter((v) => v !== null));
+  return (
+    <div style={{ display: 'flex', alignItems: 'flex-end', gap: '2px', height: '120px' }}>
+      {values.map((value, i) => (
+        <div
+          key={i}
+          title={`${labels[i]}: ${value ?? '-'}`}
+          style={{
+            flex: 1,
+            height: `${((value || 0) / max) * 100}%`,
+            minHeight: value ? '2px' : 0,
+            background: 'var(--primary)',
+            borderRadius: '2px 2px 0 0',
+          }}
+        />
+      ))}
+    </div>
+  );
+};
+
 const AdminDashboard = () => {
   const { t } = useLanguage();
   const [stats, setStats] = useState(null);
+  const [series, setSeries] = useState(null);
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
@@ -14,8 +37,12 @@ const AdminDashboard = () => {
 
   const loadStats = async () => {
     try {
-      const data = await adminAPI.getDashboardStats();
+      const [data, seriesData] = await Promise.all([
+        adminAPI.getDashboardStats(),
+        adminAPI.getDashboardSeries(60),
+      ]);
       setStats(data);
+      setSeries(seriesData);
     } catch (error) {
       console.error('Error loading stats:', error);
     } finally {
@@ -45,6 +72,40 @@ const AdminDashboard = () => {
             <div className="stat-value">{stats?.publishedTests || 0}</div>
             <div className="stat-label">{t('admin.dashboard.publishedTests')}</div>
           </div>
+          <div className="stat-card">
+            <div className="stat-value">{stats?.verifiedUsers || 0}</div>
+            <div className="stat-label">{t('admin.dashboard.verifiedUsers')}</div>
+          </div>
+          <div className="stat-card">
+            <div className="stat-value">{stats?.activeAttempts || 0}</div>
+            <div className="stat-label">{t('admin.dashboard.activeAttempts')}</div>
+          </div>
+          <div className="stat-card">
+            <div className="stat-value">{stats?.attemptsToday || 0}</div>
+            <div className="stat-label">{t('admin.dashboard.attemptsToday')}</div>
+          </div>
+        </div>
+
+        <div className="grid grid-2" style={{ marginTop: '2rem' }}>
+          {stats?.attemptsPerDay && (
+            <div className="card">
+              <h2 className="card-title">{t('admin.dashboard.attemptsPerDay')}</h2>
+              <BarChart
+                values={Object.values(stats.attemptsPerDay)}
+                labels={Object.keys(stats.attemptsPerDay)}
+              />
+            </div>
+          )}
+          {series && (
+            <div className="card">
+              <h2 className="card-title">{t('admin.dashboard.attemptsLastHour')}</h2>
+              <BarChart
+                values={series.attemptsStarted}
+                labels={series.attemptsStarted.map((_, i) =>
+                  new Date(new Date(series.start).getTime() + i * series.stepSeconds * 1000).toLocaleTimeString())}
+              />
+            </div>
+          )}
         </div>
 
         <div className="grid grid-2" style={{ marginTop: '2rem' }}>
@@ -8,12 +8,22 @@ const AdminReports = () => {
   const [tests, setTests] = useState([]);
   const [selectedTestId, setSelectedTestId] = useState('');
   const [report, setReport] = useState(null);
+  const [itemAnalysis, setItemAnalysis] = useState(null);
+  const [analyzing, setAnalyzing] = useState(false);
+  const [activity, setActivity] = useState(null);
+  const [activityDays, setActivityDays] = useState(7);
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
     loadTests();
   }, []);
 
+  useEffect(() => {
+    if (selectedTestId) {
+      loadActivity(selectedTestId, activityDays);
+    }
+  }, [selectedTestId, activityDays]);
+
   const loadTests = async () => {
     try {
       const data = await testsAPI.getAllTests();
@@ -33,11 +43,61 @@ const AdminReports = () => {
     try {
       const data = await adminAPI.getTestReport(testId);
       setReport(data);
+      setItemAnalysis(null);
     } catch (error) {
       console.error('Error loading report:', error);
     }
   };
 
+  // Local calendar dates, the backend buckets attempts by its own day
+  const isoDate = (date) => {
+    const local = new Date(date.getTime() - date.getTimezoneOffset() * 60000);
+    return local.toISOString().slice(0, 10);
+  };
+
+  const loadActivity = async (testId, days) => {
+    const to = new Date();
+    const from = new Date(to);
+    from.setDate(from.getDate() - days + 1);
+    try {
+      setActivity(await adminAPI.getTestAnalytics(testId, isoDate(from), isoDate(to)));
+    } catch (error) {
+      console.error('Error loading activity:', error);
+    }
+  };
+
+  const loadItemAnalysis = async () => {
+    setAnalyzing(true);
+    try {
+      setItemAnalysis(await adminAPI.getItemAnalysis(selectedTestId));
+    } catch (error) {
+      console.error('Error loading item analysis:', error);
+    } finally {
+      setAnalyzing(false);
+    }
+  };
+
+  // The wrong choice picked most often, if any was picked
+  const topDistractor = (item) => item.choices
+    .filter((choice) => !choice.correct && choice.picks > 0)
+    .sort((a, b) => b.picks - a.picks)[0];
+
+  const handleExport = async (format) => {
+    try {
+      const blob = await adminAPI.exportTestReport(selectedTestId, format);
+      const url = window.URL.createObjectURL(blob);
+      const link = document.createElement('a');
+      link.href = url;
+      link.setAttribute('download', `test-${selectedTestId}-attempts.${format}`);
+      document.body.appendChild(link);
+      link.click();
+      link.parentNode.removeChild(link);
+      window.URL.revokeObjectURL(url);
+    } catch (error) {
+      console.error('Error exporting report:', error);
+    }
+  };
+
   const handleTestChange = (e) => {
     const testId = e.target.value;
     setSelectedTestId(testId);
@@ -77,6 +137,14 @@ const AdminReports = () => {
                 <div className="card">
                   <h2 className="card-title">{report.test.title}</h2>
                   <p className="card-description">{report.test.description}</p>
+                  <div style={{ display: 'flex', gap: '0.5rem', marginTop: '1rem' }}>
+                    <button className="btn btn-secondary" onClick={() => handleExport('csv')}>
+                      {t('admin.reports.exportCsv')}
+                    </button>
+                    <button className="btn btn-secondary" onClick={() => handleExport('ndjson')}>
+                      {t('admin.reports.exportNdjson')}
+                    </button>
+                  </div>
                 </div>
 
                 <div className="stats-grid">
@@ -98,10 +166,139 @@ const AdminReports = () => {
                         <div className="stat-value">{report.passRate.toFixed(1)}%</div>
                         <div className="stat-label">{t('admin.reports.passRate')}</div>
                       </div>
+                      <div className="stat-card">
+                        <div className="stat-value">{report.scoreStats.medianScore.toFixed(1)}%</div>
+                        <div className="stat-label">{t('admin.reports.medianScore')}</div>
+                      </div>
+                      <div className="stat-card">
+                        <div className="stat-value">{report.scoreStats.p90Score.toFixed(1)}%</div>
+                        <div className="stat-label">{t('admin.reports.p90Score')}</div>
+                      </div>
+                      <div className="stat-card">
+                        <div className="stat-value">{report.scoreStats.scoreStdDev.toFixed(1)}</div>
+                        <div className="stat-label">{t('admin.reports.scoreStdDev')}</div>
+                      </div>
                     </>
                   )}
                 </div>
 
+                {report.scoreStats && report.scoreStats.histogram && (
+                  <div className="card" style={{ marginBottom: '1.5rem' }}>
+                    <h3 className="card-title">{t('admin.reports.scoreDistribution')}</h3>
+                    {report.scoreStats.histogram.map((count, i) => (
+                      <div key={i} style={{ display: 'flex', alignItems: 'center', gap: '0.75rem', marginBottom: '0.35rem' }}>
+                        <span style={{ width: '70px', fontSize: '0.85rem', color: 'var(--text-secondary)' }}>
+                          {i * 10}-{i * 10 + 10}%
+                        </span>
+                        <div style={{ flex: 1, background: 'var(--bg-tertiary)', borderRadius: '4px', height: '12px' }}>
+                          <div style={{
+                            width: `${(count / report.scoreStats.attempts) * 100}%`,
+                            background: 'var(--primary)',
+                            borderRadius: '4px',
+                            height: '100%',
+                          }} />
+                        </div>
+                        <span style={{ width: '40px', textAlign: 'right', fontSize: '0.85rem' }}>{count}</span>
+                      </div>
+                    ))}
+                  </div>
+                )}
+
+                <div className="card" style={{ marginBottom: '1.5rem' }}>
+                  <div style={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', gap: '1rem', flexWrap: 'wrap' }}>
+                    <h3 className="card-title" style={{ margin: 0 }}>{t('admin.reports.activity')}</h3>
+                    <div style={{ display: 'flex', gap: '0.5rem' }}>
+                      {[[1, 'activityToday'], [7, 'activityWeek'], [30, 'activityMonth']].map(([days, key]) => (
+                        <button
+                          key={days}
+                          className={`btn ${activityDays === days ? 'btn-primary' : 'btn-secondary'}`}
+                          onClick={() => setActivityDays(days)}
+                        >
+                          {t(`admin.reports.${key}`)}
+                        </button>
+                      ))}
+                    </div>
+                  </div>
+                  {activity && (
+                    <div className="stats-grid" style={{ marginTop: '1rem' }}>
+                      <div className="stat-card">
+                        <div className="stat-value">{activity.distinctUsers}</div>
+                        <div className="stat-label">{t('admin.reports.distinctUsers')}</div>
+                      </div>
+                      <div className="stat-card">
+                        <div className="stat-value">{activity.attempts}</div>
+                        <div className="stat-label">{t('admin.reports.gradedAttempts')}</div>
+                      </div>
+                      {activity.attempts > 0 && (
+                        <>
+                          <div className="stat-card">
+                            <div className="stat-value">{activity.p50Score.toFixed(1)}%</div>
+                            <div className="stat-label">{t('admin.reports.medianScore')}</div>
+                          </div>
+                          <div className="stat-card">
+                            <div className="stat-value">{activity.p90Score.toFixed(1)}%</div>
+                            <div className="stat-label">{t('admin.reports.p90Score')}</div>
+                          </div>
+                          <div className="stat-card">
+                            <div className="stat-value">{activity.p99Score.toFixed(1)}%</div>
+                            <div className="stat-label">{t('admin.reports.p99Score')}</div>
+                          </div>
+                        </>
+                      )}
+                    </div>
+                  )}
+                </div>
+
+                <div className="card" style={{ marginBottom: '1.5rem' }}>
+                  <div style={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', gap: '1rem', flexWrap: 'wrap' }}>
+                    <h3 className="card-title" style={{ margin: 0 }}>{t('admin.reports.itemAnalysis')}</h3>
+                    <button className="btn btn-secondary" onClick={loadItemAnalysis} disabled={analyzing}>
+                      {analyzing ? t('common.loading') : t('admin.reports.analyzeQuestions')}
+                    </button>
+                  </div>
+                  {itemAnalysis && (
+                    <div style={{ overflowX: 'auto', marginTop: '1rem' }}>
+                      <table className="table table-mobile-cards">
+                        <thead>
+                          <tr>
+                            <th>#</th>
+                            <th>{t('admin.reports.itemQuestion')}</th>
+                            <th>{t('admin.reports.itemDifficulty')}</th>
+                            <th>{t('admin.reports.itemDiscrimination')}</th>
+                            <th>{t('admin.reports.itemUnanswered')}</th>
+                            <th>{t('admin.reports.itemTopDistractor')}</th>
+                          </tr>
+                        </thead>
+                        <tbody>
+                          {itemAnalysis.items.map((item, index) => {
+                            const distractor = topDistractor(item);
+                            return (
+                              <tr key={item.questionId || index}>
+                                <td>{index + 1}</td>
+                                <td data-label={t('admin.reports.itemQuestion')}>{item.text}</td>
+                                <td data-label={t('admin.reports.itemDifficulty')}>
+                                  {item.difficulty !== null ? `${(item.difficulty * 100).toFixed(0)}%` : '-'}
+                                </td>
+                                <td data-label={t('admin.reports.itemDiscrimination')}>
+                                  {item.discrimination !== null ? (
+                                    <span className={`badge ${item.discrimination < 0.2 ? 'badge-danger' : 'badge-success'}`}>
+                                      {item.discrimination.toFixed(2)}
+                                    </span>
+                                  ) : '-'}
+                                </td>
+                                <td data-label={t('admin.reports.itemUnanswered')}>{item.unanswered}</td>
+                                <td data-label={t('admin.reports.itemTopDistractor')}>
+                                  {distractor ? `${distractor.text} (${(distractor.pickRate * 100).toFixed(0)}%)` : '-'}
+                                </td>
+                              </tr>
+                            );
+                          })}
+                        </tbody>
+                      </table>
+                    </div>
+                  )}
+                </div>
+
                 {report.attempts && report.attempts.length > 0 && (
                   <div className="card">
                     <h3 className="card-title">{t('admin.reports.recentAttempts')}</h3>
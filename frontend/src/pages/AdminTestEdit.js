@@ -1,7 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { adminAPI } from '../api/admin';
-import { testsAPI } from '../api/tests';
 import { useLanguage } from '../contexts/LanguageContext';
 
 const AdminTestEdit = () => {
@@ -21,6 +20,7 @@ const AdminTestEdit = () => {
     tags: [],
     published: false,
     questions: [],
+    sampling: [],
   });
   const [loading, setLoading] = useState(isEdit);
   const [expandedQuestions, setExpandedQuestions] = useState({});
@@ -33,8 +33,8 @@ const AdminTestEdit = () => {
 
   const loadTest = async () => {
     try {
-      const data = await testsAPI.getTestById(id);
-      setTest(data);
+      const data = await adminAPI.getTest(id);
+      setTest({ ...data, sampling: data.sampling || [] });
     } catch (error) {
       console.error('Error loading test:', error);
     } finally {
@@ -136,11 +136,28 @@ const AdminTestEdit = () => {
     setTest({ ...test, questions });
   };
 
+  // With sampling rules the questions become a bank: each attempt draws count questions per rule
+  const addSamplingRule = () => {
+    setTest({ ...test, sampling: [...test.sampling, { tag: '', difficulty: '', count: 1 }] });
+  };
+
+  const updateSamplingRule = (index, field, value) => {
+    const sampling = test.sampling.map((rule, i) => (i === index ? { ...rule, [field]: value } : rule));
+    setTest({ ...test, sampling });
+  };
+
+  const deleteSamplingRule = (index) => {
+    setTest({ ...test, sampling: test.sampling.filter((_, i) => i !== index) });
+  };
+
   const handleSave = async (shouldPublish) => {
     
     const testData = {
       ...test,
-      published: shouldPublish === true  
+      published: shouldPublish === true,
+      sampling: test.sampling.length > 0
+        ? test.sampling.map((rule) => ({ tag: rule.tag || null, difficulty: rule.difficulty || null, count: rule.count }))
+        : null,
     };
 
     try {
@@ -152,6 +169,9 @@ const AdminTestEdit = () => {
       navigate('/admin/tests');
     } catch (error) {
       console.error('Error saving test:', error);
+      if (error.response?.status === 400 && error.response.data?.message) {
+        alert(error.response.data.message);
+      }
     }
   };
 
@@ -428,6 +448,33 @@ const AdminTestEdit = () => {
                 />
               </div>
 
+              <div style={{ display: 'grid', gridTemplateColumns: '2fr 1fr', gap: '1rem' }}>
+                <div className="form-group">
+                  <label className="form-label">{t('admin.testEdit.questionTags')}</label>
+                  <input
+                    type="text"
+                    className="form-control"
+                    value={(question.tags || []).join(', ')}
+                    onChange={(e) => updateQuestion(qIndex, 'tags',
+                      e.target.value.split(',').map((tag) => tag.trim()).filter((tag) => tag))}
+                    placeholder={t('admin.testEdit.tagsPlaceholder')}
+                  />
+                </div>
+                <div className="form-group">
+                  <label className="form-label">{t('admin.testEdit.difficulty')}</label>
+                  <select
+                    className="form-control"
+                    value={question.difficulty || ''}
+                    onChange={(e) => updateQuestion(qIndex, 'difficulty', e.target.value || null)}
+                  >
+                    <option value="">—</option>
+                    <option value="BEGINNER">{t('difficulty.BEGINNER')}</option>
+                    <option value="INTERMEDIATE">{t('difficulty.INTERMEDIATE')}</option>
+                    <option value="ADVANCED">{t('difficulty.ADVANCED')}</option>
+                  </select>
+                </div>
+              </div>
+
               {(question.type === 'SINGLE' || question.type === 'MULTIPLE' || question.type === 'TRUEFALSE') && (
                 <div>
                   <div style={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', marginBottom: '0.5rem' }}>
@@ -498,6 +545,57 @@ const AdminTestEdit = () => {
           })}
         </div>
 
+        <div className="card">
+          <div style={{ display: 'flex', justifyContent: 'space-between', alignItems: 'center', marginBottom: '1rem' }}>
+            <h2>{t('admin.testEdit.sampling')}</h2>
+            <button onClick={addSamplingRule} className="btn btn-secondary">
+              {t('admin.testEdit.addSamplingRule')}
+            </button>
+          </div>
+          <p style={{ color: 'var(--text-secondary)', marginBottom: '1rem' }}>{t('admin.testEdit.samplingHint')}</p>
+          {test.sampling.map((rule, rIndex) => (
+            <div key={rIndex} style={{ display: 'grid', gridTemplateColumns: '2fr 2fr 1fr auto', gap: '1rem', alignItems: 'end' }}>
+              <div className="form-group">
+                <label className="form-label">{t('admin.testEdit.samplingTag')}</label>
+                <input
+                  type="text"
+                  className="form-control"
+                  value={rule.tag || ''}
+                  onChange={(e) => updateSamplingRule(rIndex, 'tag', e.target.value.trim())}
+                />
+              </div>
+              <div className="form-group">
+                <label className="form-label">{t('admin.testEdit.difficulty')}</label>
+                <select
+                  className="form-control"
+                  value={rule.difficulty || ''}
+                  onChange={(e) => updateSamplingRule(rIndex, 'difficulty', e.target.value)}
+                >
+                  <option value="">—</option>
+                  <option value="BEGINNER">{t('difficulty.BEGINNER')}</option>
+                  <option value="INTERMEDIATE">{t('difficulty.INTERMEDIATE')}</option>
+                  <option value="ADVANCED">{t('difficulty.ADVANCED')}</option>
+                </select>
+              </div>
+              <div className="form-group">
+                <label className="form-label">{t('admin.testEdit.samplingCount')}</label>
+                <input
+                  type="number"
+                  className="form-control"
+                  value={rule.count}
+                  onChange={(e) => updateSamplingRule(rIndex, 'count', parseInt(e.target.value))}
+                  min="1"
+                />
+              </div>
+              <div className="form-group">
+                <button onClick={() => deleteSamplingRule(rIndex)} className="btn btn-danger">
+                  🗑 {t('admin.testEdit.delete')}
+                </button>
+              </div>
+            </div>
+          ))}
+        </div>
+
         <div className="card">
           <div style={{ display: 'flex', gap: '1rem' }}>
             <button onClick={() => handleSave(false)} className="btn btn-secondary">
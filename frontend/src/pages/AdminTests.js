@@ -6,16 +6,19 @@ import { useLanguage } from '../contexts/LanguageContext';
 const AdminTests = () => {
   const { t } = useLanguage();
   const [tests, setTests] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [regradeJobs, setRegradeJobs] = useState({});
 
   useEffect(() => {
     loadTests();
   }, []);
 
-  const loadTests = async () => {
+  const loadTests = async (cursor) => {
     try {
-      const data = await adminAPI.getAllTests();
-      setTests(data);
+      const page = await adminAPI.getTests(cursor);
+      setTests((loaded) => (cursor ? [...loaded, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error('Error loading tests:', error);
     } finally {
@@ -32,6 +35,26 @@ const AdminTests = () => {
     }
   };
 
+  const handleRegrade = async (id) => {
+    try {
+      let job = await adminAPI.regradeTest(id);
+      setRegradeJobs((jobs) => ({ ...jobs, [id]: job }));
+      while (job.status === 'RUNNING') {
+        await new Promise((resolve) => setTimeout(resolve, 1000));
+        job = await adminAPI.getRegradeJob(job.jobId);
+        setRegradeJobs((jobs) => ({ ...jobs, [id]: job }));
+      }
+    } catch (error) {
+      console.error('Error regrading test:', error);
+    }
+  };
+
+  const regradeLabel = (job) => {
+    if (!job) return t('admin.tests.regrade');
+    if (job.status === 'RUNNING') return `${t('admin.tests.regrading')} ${job.processed}/${job.total}`;
+    return `${t('admin.tests.regraded')}: ${job.changed}`;
+  };
+
   if (loading) {
     return <div className="loading">{t('common.loading')}</div>;
   }
@@ -88,6 +111,14 @@ const AdminTests = () => {
                         <Link to={`/admin/tests/${test.id}/edit`} className="btn btn-primary" style={{ padding: '0.25rem 0.75rem' }}>
                           {t('admin.tests.edit')}
                         </Link>
+                        <button
+                          onClick={() => handleRegrade(test.id)}
+                          className="btn btn-secondary"
+                          style={{ padding: '0.25rem 0.75rem' }}
+                          disabled={regradeJobs[test.id]?.status === 'RUNNING'}
+                        >
+                          {regradeLabel(regradeJobs[test.id])}
+                        </button>
                         <button onClick={() => handleDelete(test.id)} className="btn btn-danger" style={{ padding: '0.25rem 0.75rem' }}>
                           {t('admin.tests.delete')}
                         </button>
@@ -97,6 +128,11 @@ const AdminTests = () => {
                 ))}
               </tbody>
             </table>
+            {nextCursor && (
+              <button className="btn btn-secondary" style={{ marginTop: '1rem' }} onClick={() => loadTests(nextCursor)}>
+                {t('common.loadMore')}
+              </button>
+            )}
           </div>
         )}
       </div>
@@ -5,16 +5,18 @@ import { useLanguage } from '../contexts/LanguageContext';
 const AdminUsers = () => {
   const { t } = useLanguage();
   const [users, setUsers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
     loadUsers();
   }, []);
 
-  const loadUsers = async () => {
+  const loadUsers = async (cursor) => {
     try {
-      const data = await adminAPI.getAllUsers();
-      setUsers(data);
+      const page = await adminAPI.getUsers(cursor);
+      setUsers((loaded) => (cursor ? [...loaded, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
     } catch (error) {
       console.error('Error loading users:', error);
     } finally {
@@ -105,6 +107,11 @@ const AdminUsers = () => {
                 ))}
               </tbody>
             </table>
+            {nextCursor && (
+              <button className="btn btn-secondary" style={{ marginTop: '1rem' }} onClick={() => loadUsers(nextCursor)}>
+                {t('common.loadMore')}
+              </button>
+            )}
           </div>
         )}
       </div>
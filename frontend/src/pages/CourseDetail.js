@@ -382,7 +382,7 @@ const CourseDetail = () => {
                       <strong>{t('tests.duration')}:</strong> {test.durationMinutes} {t('tests.minutes')}
                     </div>
                     <div>
-                      <strong>{t('tests.questions')}:</strong> {test.questions?.length || 0}
+                      <strong>{t('tests.questions')}:</strong> {test.questionCount || 0}
                     </div>
                     <div>
                       <strong>{t('tests.passing')}:</strong> {test.passingScore}%
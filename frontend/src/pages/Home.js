@@ -40,7 +40,7 @@ const Home = () => {
     }
   };
 
-  const totalQuestions = tests.reduce((sum, test) => sum + (test.questions?.length || 0), 0);
+  const totalQuestions = tests.reduce((sum, test) => sum + (test.questionCount || 0), 0);
 
   if (loading) {
     return <div className="loading">{t('common.loading')}</div>;
@@ -214,7 +214,7 @@ const Home = () => {
                     <strong>{t('tests.passing')}:</strong> {test.passingScore}%
                   </span>
                   <span>
-                    <strong>{t('tests.questions')}:</strong> {test.questions?.length || 0}
+                    <strong>{t('tests.questions')}:</strong> {test.questionCount || 0}
                   </span>
                 </div>
                 {user ? (
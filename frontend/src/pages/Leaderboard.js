@@ -4,20 +4,48 @@ import { useLanguage } from '../contexts/LanguageContext';
 import { useAuth } from '../contexts/AuthContext';
 import { getAvatarById } from '../utils/avatars';
 
+const PAGE_SIZE = 50;
+const PERIODS = ['all', 'month', 'week', 'day'];
+
 const Leaderboard = () => {
   const [leaderboard, setLeaderboard] = useState([]);
+  const [hasMore, setHasMore] = useState(false);
+  const [myEntry, setMyEntry] = useState(null);
+  const [period, setPeriod] = useState('all');
+  const [category, setCategory] = useState('');
+  const [categories, setCategories] = useState([]);
   const [loading, setLoading] = useState(true);
   const { t } = useLanguage();
   const { user } = useAuth();
 
   useEffect(() => {
-    loadLeaderboard();
+    loadCategories();
   }, []);
 
+  useEffect(() => {
+    loadLeaderboard();
+  }, [period, category]);
+
+  const loadCategories = async () => {
+    try {
+      const data = await testsAPI.browseTests({ limit: 1 });
+      setCategories(Object.keys((data.facets || {}).category || {}));
+    } catch (error) {
+      console.error('Error loading categories:', error);
+    }
+  };
+
+  const fetchPage = (offset) => (category
+    ? testsAPI.getCategoryLeaderboard(category, offset, PAGE_SIZE, period)
+    : testsAPI.getLeaderboard(offset, PAGE_SIZE, period));
+
   const loadLeaderboard = async () => {
     try {
-      const data = await testsAPI.getLeaderboard();
+      const data = await fetchPage(0);
       setLeaderboard(data);
+      setHasMore(isFullPage(data, 0));
+      // The caller's own rank is only kept for the global all-time board
+      setMyEntry(user && period === 'all' && !category ? await testsAPI.getMyLeaderboardEntry() : null);
     } catch (error) {
       console.error('Error loading leaderboard:', error);
     } finally {
@@ -25,6 +53,20 @@ const Leaderboard = () => {
     }
   };
 
+  const loadMore = async () => {
+    const offset = leaderboard.length > 0 ? leaderboard[leaderboard.length - 1].rank : 0;
+    try {
+      const data = await fetchPage(offset);
+      setLeaderboard([...leaderboard, ...data]);
+      setHasMore(isFullPage(data, offset));
+    } catch (error) {
+      console.error('Error loading leaderboard:', error);
+    }
+  };
+
+  // Another page may follow when this one reached its last rank
+  const isFullPage = (data, offset) => data.length > 0 && data[data.length - 1].rank === offset + PAGE_SIZE;
+
   if (loading) {
     return <div className="loading">{t('common.loading')}</div>;
   }
@@ -55,6 +97,29 @@ const Leaderboard = () => {
           </p>
         </div>
 
+        <div style={{ display: 'flex', justifyContent: 'center', gap: '0.5rem', marginBottom: '2rem', flexWrap: 'wrap' }}>
+          {PERIODS.map((p) => (
+            <button
+              key={p}
+              className={`btn ${period === p ? 'btn-primary' : 'btn-secondary'}`}
+              onClick={() => setPeriod(p)}
+            >
+              {t(`leaderboard.window.${p}`)}
+            </button>
+          ))}
+          <select
+            className="form-control"
+            style={{ width: 'auto' }}
+            value={category}
+            onChange={(e) => setCategory(e.target.value)}
+          >
+            <option value="">{t('leaderboard.allCategories')}</option>
+            {categories.map((c) => (
+              <option key={c} value={c}>{c}</option>
+            ))}
+          </select>
+        </div>
+
         {leaderboard.length === 0 ? (
           <div className="card" style={{ textAlign: 'center', padding: '3rem' }}>
             <p>{t('leaderboard.empty')}</p>
@@ -120,6 +185,12 @@ const Leaderboard = () => {
               </div>
             )}
 
+            {myEntry && !leaderboard.some((entry) => entry.userId === myEntry.userId) && (
+              <div className="card" style={{ marginBottom: '1rem', textAlign: 'center', fontWeight: '600' }}>
+                {t('leaderboard.yourRank').replace('{rank}', myEntry.rank)} · {myEntry.totalPoints} {t('leaderboard.points')}
+              </div>
+            )}
+
             {/* Full table */}
             <div className="card">
               <div className="table-container">
@@ -136,7 +207,7 @@ const Leaderboard = () => {
                     </tr>
                   </thead>
                   <tbody>
-                    {leaderboard.map((entry, index) => {
+                    {leaderboard.map((entry) => {
                       const avatar = getAvatarById(entry.avatar || 'avatar1');
                       const isCurrentUser = user && entry.userId === user.id;
                       return (
@@ -153,9 +224,9 @@ const Leaderboard = () => {
                               alignItems: 'center',
                               justifyContent: 'center',
                               fontWeight: '700',
-                              ...getMedalStyle(index),
+                              ...getMedalStyle(entry.rank - 1),
                             }}>
-                              {getMedal(index)}
+                              {getMedal(entry.rank - 1)}
                             </div>
                           </td>
                           <td>
@@ -189,6 +260,11 @@ const Leaderboard = () => {
                   </tbody>
                 </table>
               </div>
+              {hasMore && (
+                <button className="btn btn-secondary" style={{ marginTop: '1rem' }} onClick={loadMore}>
+                  {t('common.loadMore')}
+                </button>
+              )}
             </div>
           </>
         )}
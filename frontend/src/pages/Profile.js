@@ -22,6 +22,7 @@ const Profile = () => {
   const { user, logout, updateUser } = useAuth();
   const { t } = useLanguage();
   const [attempts, setAttempts] = useState([]);
+  const [attemptsCursor, setAttemptsCursor] = useState(null);
   const [certificates, setCertificates] = useState([]);
   const [completedCourses, setCompletedCourses] = useState([]);
   const [allCourses, setAllCourses] = useState([]);
@@ -40,7 +41,8 @@ const Profile = () => {
         coursesAPI.getMyProgress(),
         coursesAPI.getAllCourses(),
       ]);
-      setAttempts(attemptsData);
+      setAttempts(attemptsData.items);
+      setAttemptsCursor(attemptsData.nextCursor);
       setCertificates(certsData);
       setCompletedCourses(progressData.filter(p => p.completed));
       setAllCourses(coursesData);
@@ -51,7 +53,17 @@ const Profile = () => {
     }
   };
 
-  const handleAvatarSelect = async (avatarId) => {
+  const loadMoreAttempts = async () => {
+    try {
+      const page = await testsAPI.getMyAttempts(attemptsCursor);
+      setAttempts((loaded) => [...loaded, ...page.items]);
+      setAttemptsCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error loading attempts:', error);
+    }
+  };
+
+    const handleAvatarSelect = async (avatarId) => {
     try {
       const updatedUser = await authAPI.updateAvatar(avatarId);
       updateUser({ avatar: updatedUser.avatar });
@@ -310,6 +322,11 @@ const Profile = () => {
                   ))}
                 </tbody>
               </table>
+              {attemptsCursor && (
+                <button className="btn btn-secondary" style={{ marginTop: '1rem' }} onClick={loadMoreAttempts}>
+                  {t('common.loadMore')}
+                </button>
+              )}
             </div>
           )}
         </div>
@@ -19,10 +19,15 @@ const Result = () => {
 
   const loadResult = async () => {
     try {
-      const attemptData = await testsAPI.getAttempt(attemptId);
+      let attemptData = await testsAPI.getAttempt(attemptId);
+      // With async grading the attempt can still be waiting for a grading worker
+      for (let i = 0; i < 30 && attemptData.status === 'SUBMITTED'; i++) {
+        await new Promise((resolve) => setTimeout(resolve, 1000));
+        attemptData = await testsAPI.getAttempt(attemptId);
+      }
       setAttempt(attemptData);
 
-      const testData = await testsAPI.getTestById(attemptData.testId);
+      const testData = await testsAPI.getDeliveryTest(attemptData.id);
       setTest(testData);
     } catch (error) {
       console.error('Error loading result:', error);
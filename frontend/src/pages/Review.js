@@ -18,7 +18,7 @@ const Review = () => {
       const attemptData = await testsAPI.getAttempt(attemptId);
       setAttempt(attemptData);
 
-      const testData = await testsAPI.getTestById(attemptData.testId);
+      const testData = await testsAPI.getReviewTest(attemptId);
       setTest(testData);
     } catch (error) {
       console.error('Error loading review:', error);
@@ -1,31 +1,50 @@
-import React, { useState, useEffect, useCallback } from 'react';
+import React, { useState, useEffect, useCallback, useRef } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import { testsAPI } from '../api/tests';
 import { useLanguage } from '../contexts/LanguageContext';
 import Timer from '../components/tests/Timer';
 
+// Questions are fetched a page at a time; large question banks never reach the browser whole
+const QUESTION_PAGE_SIZE = 10;
+
 const TestAttempt = () => {
   const { id: testId, attemptId } = useParams();
   const navigate = useNavigate();
   const { t } = useLanguage();
   const [test, setTest] = useState(null);
+  const [questions, setQuestions] = useState([]);
+  const [totalQuestions, setTotalQuestions] = useState(0);
+  const requestedPages = useRef(new Set());
   const [attempt, setAttempt] = useState(null);
   const [currentQuestionIndex, setCurrentQuestionIndex] = useState(0);
   const [answers, setAnswers] = useState({});
   const [loading, setLoading] = useState(true);
   const [showConfirmModal, setShowConfirmModal] = useState(false);
+  // Question ids answered since the last save; flushed together in one request
+  const dirtyQuestionIds = useRef(new Set());
+  const answersRef = useRef(answers);
+  answersRef.current = answers;
 
   useEffect(() => {
     loadTestAndAttempt();
   }, [testId, attemptId]);
 
+  useEffect(() => {
+    if (totalQuestions === 0) return;
+    // The current page, and the next one as soon as the last question of a page is reached
+    loadQuestionPage(currentQuestionIndex);
+    if (currentQuestionIndex + 1 < totalQuestions) {
+      loadQuestionPage(currentQuestionIndex + 1);
+    }
+  }, [currentQuestionIndex, totalQuestions]);
+
   useEffect(() => {
     const autoSaveInterval = setInterval(() => {
-      saveCurrentAnswer();
+      saveDirtyAnswers();
     }, 30000);
 
     return () => clearInterval(autoSaveInterval);
-  }, [answers, currentQuestionIndex]);
+  }, [answers]);
 
   useEffect(() => {
     const handleBeforeUnload = (e) => {
@@ -39,11 +58,7 @@ const TestAttempt = () => {
 
   const loadTestAndAttempt = async () => {
     try {
-      const [testData, attemptData] = await Promise.all([
-        testsAPI.getTestById(testId),
-        testsAPI.getAttempt(attemptId),
-      ]);
-      setTest(testData);
+      const attemptData = await testsAPI.getAttempt(attemptId);
       setAttempt(attemptData);
 
       // If the attempt is already submitted/graded, redirect to result
@@ -51,6 +66,9 @@ const TestAttempt = () => {
         navigate(`/result/${attemptId}`);
         return;
       }
+
+      setTest(await testsAPI.getDeliveryTest(attemptData.id, false));
+      await loadQuestionPage(0);
     } catch (error) {
       console.error('Error loading test:', error);
     } finally {
@@ -58,40 +76,67 @@ const TestAttempt = () => {
     }
   };
 
-  const saveCurrentAnswer = async () => {
-    if (!test || !test.questions[currentQuestionIndex]) return;
+  const loadQuestionPage = async (index) => {
+    const offset = Math.floor(index / QUESTION_PAGE_SIZE) * QUESTION_PAGE_SIZE;
+    if (requestedPages.current.has(offset)) return;
+    requestedPages.current.add(offset);
+    try {
+      const page = await testsAPI.getAttemptQuestions(attemptId, offset, QUESTION_PAGE_SIZE);
+      setTotalQuestions(page.total);
+      setQuestions((loaded) => {
+        const next = [...loaded];
+        page.items.forEach((question, i) => {
+          next[page.offset + i] = question;
+        });
+        return next;
+      });
+    } catch (error) {
+      requestedPages.current.delete(offset);
+      console.error('Error loading questions:', error);
+    }
+  };
+
+  const saveDirtyAnswers = async () => {
+    if (dirtyQuestionIds.current.size === 0) return;
+
+    const questionIds = Array.from(dirtyQuestionIds.current);
+    const currentAnswers = answersRef.current;
+    dirtyQuestionIds.current.clear();
 
-    const question = test.questions[currentQuestionIndex];
-    const answer = answers[question.id];
+    const batch = questionIds
+      .filter((questionId) => currentAnswers[questionId])
+      .map((questionId) => ({
+        questionId,
+        selectedChoices: currentAnswers[questionId].selectedChoices,
+        textAnswer: currentAnswers[questionId].textAnswer,
+        numericAnswer: currentAnswers[questionId].numericAnswer,
+      }));
 
-    if (!answer) return;
+    if (batch.length === 0) return;
 
     try {
-      await testsAPI.saveAnswer(testId, attemptId, {
-        questionId: question.id,
-        selectedChoices: answer.selectedChoices,
-        textAnswer: answer.textAnswer,
-        numericAnswer: answer.numericAnswer,
-      });
+      await testsAPI.saveAnswers(testId, attemptId, batch);
     } catch (error) {
       if (error.response?.data?.error === 'TIME_EXPIRED') {
         navigate(`/result/${attemptId}`);
         return;
       }
-      console.error('Error saving answer:', error);
+      // Keep them dirty so the next autosave retries
+      questionIds.forEach((questionId) => dirtyQuestionIds.current.add(questionId));
+      console.error('Error saving answers:', error);
     }
   };
 
   const handleAnswerChange = (questionId, answerData) => {
+    dirtyQuestionIds.current.add(questionId);
     setAnswers({
       ...answers,
       [questionId]: answerData,
     });
   };
 
-  const handleNext = async () => {
-    await saveCurrentAnswer();
-    if (currentQuestionIndex < test.questions.length - 1) {
+  const handleNext = () => {
+    if (currentQuestionIndex < totalQuestions - 1) {
       setCurrentQuestionIndex(currentQuestionIndex + 1);
     }
   };
@@ -108,7 +153,7 @@ const TestAttempt = () => {
 
   const handleConfirmSubmit = async () => {
     setShowConfirmModal(false);
-    await saveCurrentAnswer();
+    await saveDirtyAnswers();
 
     try {
       await testsAPI.submitTest(testId, attemptId);
@@ -119,7 +164,7 @@ const TestAttempt = () => {
   };
 
   const handleTimeUp = useCallback(async () => {
-    await saveCurrentAnswer();
+    await saveDirtyAnswers();
     try {
       await testsAPI.submitTest(testId, attemptId);
       navigate(`/result/${attemptId}`);
@@ -132,14 +177,16 @@ const TestAttempt = () => {
     return <div className="loading">{t('common.loading')}</div>;
   }
 
-  if (!test || !test.questions || test.questions.length === 0) {
+  if (!test || totalQuestions === 0) {
     return <div className="container">{t('testAttempt.notFound')}</div>;
   }
 
-  const currentQuestion = test.questions[currentQuestionIndex];
+  const currentQuestion = questions[currentQuestionIndex];
+  if (!currentQuestion) {
+    return <div className="loading">{t('common.loading')}</div>;
+  }
   const currentAnswer = answers[currentQuestion.id] || {};
   const answeredCount = Object.keys(answers).length;
-  const totalQuestions = test.questions.length;
   const unansweredCount = totalQuestions - answeredCount;
 
   return (
@@ -149,7 +196,7 @@ const TestAttempt = () => {
       <div className="container">
         <div className="card">
           <div style={{ marginBottom: '1rem', color: '#7f8c8d' }}>
-            {t('testAttempt.questionOf').replace('{current}', currentQuestionIndex + 1).replace('{total}', test.questions.length)}
+            {t('testAttempt.questionOf').replace('{current}', currentQuestionIndex + 1).replace('{total}', totalQuestions)}
           </div>
 
           <h2 className="question-text">{currentQuestion.text}</h2>
@@ -178,7 +225,7 @@ const TestAttempt = () => {
             </button>
 
             <div style={{ display: 'flex', gap: '1rem' }}>
-              {currentQuestionIndex === test.questions.length - 1 ? (
+              {currentQuestionIndex === totalQuestions - 1 ? (
                 <button onClick={handleSubmitClick} className="btn btn-success">
                   {t('testAttempt.submitTest')}
                 </button>
@@ -194,16 +241,16 @@ const TestAttempt = () => {
         <div className="card" style={{ marginTop: '1rem' }}>
           <h3 style={{ marginBottom: '1rem' }}>{t('testAttempt.questionNavigation')}</h3>
           <div style={{ display: 'flex', flexWrap: 'wrap', gap: '0.5rem' }}>
-            {test.questions.map((q, index) => (
+            {Array.from({ length: totalQuestions }, (_, index) => questions[index]).map((q, index) => (
               <button
-                key={q.id}
+                key={index}
                 onClick={() => setCurrentQuestionIndex(index)}
                 style={{
                   padding: '0.5rem 1rem',
                   border: '1px solid #ddd',
                   borderRadius: '4px',
-                  background: answers[q.id] ? '#3498db' : 'white',
-                  color: answers[q.id] ? 'white' : '#333',
+                  background: q && answers[q.id] ? '#3498db' : 'white',
+                  color: q && answers[q.id] ? 'white' : '#333',
                   cursor: 'pointer',
                   fontWeight: currentQuestionIndex === index ? 'bold' : 'normal',
                 }}
@@ -9,6 +9,7 @@ const TestStart = () => {
   const { t } = useLanguage();
   const [test, setTest] = useState(null);
   const [attemptsInfo, setAttemptsInfo] = useState(null);
+  const [topPlayers, setTopPlayers] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
 
@@ -24,6 +25,9 @@ const TestStart = () => {
       ]);
       setTest(testData);
       setAttemptsInfo(infoData);
+      testsAPI.getTestLeaderboard(id, 0, 5)
+        .then(setTopPlayers)
+        .catch((error) => console.error('Error loading test leaderboard:', error));
     } catch (error) {
       console.error('Error loading test:', error);
     } finally {
@@ -64,7 +68,7 @@ const TestStart = () => {
 
           <div style={{ marginTop: '2rem', marginBottom: '2rem' }}>
             <div style={{ marginBottom: '1rem' }}>
-              <strong>{t('testStart.numberOfQuestions')}:</strong> {test.questions?.length || 0}
+              <strong>{t('testStart.numberOfQuestions')}:</strong> {test.questionCount || 0}
             </div>
             <div style={{ marginBottom: '1rem' }}>
               <strong>{t('testStart.duration')}:</strong> {test.durationMinutes} {t('testStart.minutes')}
@@ -114,6 +118,18 @@ const TestStart = () => {
             </button>
           </div>
         </div>
+
+        {topPlayers.length > 0 && (
+          <div className="card" style={{ maxWidth: '800px', margin: '1.5rem auto 0' }}>
+            <h3 style={{ marginBottom: '1rem' }}>{t('testStart.topPlayers')}</h3>
+            {topPlayers.map((entry) => (
+              <div key={entry.userId} style={{ display: 'flex', justifyContent: 'space-between', padding: '0.4rem 0' }}>
+                <span>#{entry.rank} {entry.name}</span>
+                <span style={{ fontWeight: '600' }}>{entry.totalPoints} {t('leaderboard.points')} · {entry.bestScore}%</span>
+              </div>
+            ))}
+          </div>
+        )}
       </div>
     </div>
   );
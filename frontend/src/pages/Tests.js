@@ -12,16 +12,26 @@ const Tests = () => {
   const [selectedCategory, setSelectedCategory] = useState('all');
   const [selectedDifficulty, setSelectedDifficulty] = useState('all');
   const [sortBy, setSortBy] = useState('title');
+  const [facets, setFacets] = useState({});
+  const [total, setTotal] = useState(0);
 
+  // Search and filters run on the server; typing is debounced a little
   useEffect(() => {
-    loadTests();
-  }, []);
+    const timer = setTimeout(loadTests, search ? 200 : 0);
+    return () => clearTimeout(timer);
+  }, [search, selectedCategory, selectedDifficulty]);
 
   const loadTests = async () => {
     try {
-      const data = await testsAPI.getAllTests();
-      setTests(data);
-      setFilteredTests(data);
+      const data = await testsAPI.browseTests({
+        query: search.trim() || undefined,
+        category: selectedCategory !== 'all' ? selectedCategory : undefined,
+        difficulty: selectedDifficulty !== 'all' ? selectedDifficulty : undefined,
+        limit: 100,
+      });
+      setTests(data.items);
+      setFacets(data.facets || {});
+      setTotal(data.total);
     } catch (error) {
       console.error('Error loading tests:', error);
     } finally {
@@ -30,31 +40,12 @@ const Tests = () => {
   };
 
   useEffect(() => {
-    applyFilters();
-  }, [tests, search, selectedCategory, selectedDifficulty, sortBy]);
+    applySort();
+  }, [tests, sortBy]);
 
-  const applyFilters = () => {
+  const applySort = () => {
     let result = [...tests];
 
-    
-    if (search.trim() !== '') {
-      result = result.filter(test =>
-        test.title.toLowerCase().includes(search.toLowerCase()) ||
-        test.description.toLowerCase().includes(search.toLowerCase())
-      );
-    }
-
-    
-    if (selectedCategory !== 'all') {
-      result = result.filter(test => test.category === selectedCategory);
-    }
-
-    
-    if (selectedDifficulty !== 'all') {
-      result = result.filter(test => test.difficulty === selectedDifficulty);
-    }
-
-    
     result.sort((a, b) => {
       switch (sortBy) {
         case 'title':
@@ -62,7 +53,7 @@ const Tests = () => {
         case 'duration':
           return a.durationMinutes - b.durationMinutes;
         case 'questions':
-          return (b.questions?.length || 0) - (a.questions?.length || 0);
+          return (b.questionCount || 0) - (a.questionCount || 0);
         case 'difficulty':
           const difficultyOrder = { 'BEGINNER': 1, 'INTERMEDIATE': 2, 'ADVANCED': 3 };
           return (difficultyOrder[a.difficulty] || 0) - (difficultyOrder[b.difficulty] || 0);
@@ -74,10 +65,9 @@ const Tests = () => {
     setFilteredTests(result);
   };
 
-  const getUniqueCategories = () => {
-    const categories = tests.map(test => test.category).filter(Boolean);
-    return [...new Set(categories)];
-  };
+  const getCategoryCounts = () => Object.entries(facets.category || {});
+
+  const difficultyCount = (level) => (facets.difficulty || {})[level] || 0;
 
   const getDifficultyBadgeClass = (difficulty) => {
     switch (difficulty) {
@@ -128,8 +118,8 @@ const Tests = () => {
                 onChange={(e) => setSelectedCategory(e.target.value)}
               >
                 <option value="all">{t('tests.allCategories')}</option>
-                {getUniqueCategories().map(category => (
-                  <option key={category} value={category}>{category}</option>
+                {getCategoryCounts().map(([category, count]) => (
+                  <option key={category} value={category}>{category} ({count})</option>
                 ))}
               </select>
             </div>
@@ -145,9 +135,9 @@ const Tests = () => {
                 onChange={(e) => setSelectedDifficulty(e.target.value)}
               >
                 <option value="all">{t('tests.allLevels')}</option>
-                <option value="BEGINNER">{t('difficulty.BEGINNER')}</option>
-                <option value="INTERMEDIATE">{t('difficulty.INTERMEDIATE')}</option>
-                <option value="ADVANCED">{t('difficulty.ADVANCED')}</option>
+                <option value="BEGINNER">{t('difficulty.BEGINNER')} ({difficultyCount('BEGINNER')})</option>
+                <option value="INTERMEDIATE">{t('difficulty.INTERMEDIATE')} ({difficultyCount('INTERMEDIATE')})</option>
+                <option value="ADVANCED">{t('difficulty.ADVANCED')} ({difficultyCount('ADVANCED')})</option>
               </select>
             </div>
 
@@ -171,7 +161,7 @@ const Tests = () => {
 
           {}
           <div style={{ marginTop: '1rem', color: 'var(--text-light)', fontSize: '0.9rem' }}>
-            {t('tests.showing')} {filteredTests.length} {t('tests.of')} {tests.length} {tests.length !== 1 ? t('tests.tests_plural') : t('tests.test')}
+            {t('tests.showing')} {filteredTests.length} {t('tests.of')} {total} {total !== 1 ? t('tests.tests_plural') : t('tests.test')}
           </div>
         </div>
 
@@ -207,7 +197,7 @@ const Tests = () => {
                     <strong>⏱️ {t('tests.duration')}:</strong> {test.durationMinutes} {t('tests.minutes')}
                   </div>
                   <div>
-                    <strong>❓ {t('tests.questions')}:</strong> {test.questions?.length || 0}
+                    <strong>❓ {t('tests.questions')}:</strong> {test.questionCount || 0}
                   </div>
                   <div>
                     <strong>🎯 {t('tests.passing')}:</strong> {test.passingScore}%